@@ -0,0 +1,89 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.mygdx.game.headless.NoopGL;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.raftoftheseus.WorldController;
+
+/**
+ * Loads shipped levels for the benchmarks, the same way the headless runner does.
+ *
+ * The libGDX headless backend and the asset directory are started once per JVM. Benchmarks must be
+ * run from the core/assets directory.
+ */
+final class BenchmarkLevels {
+	/** Reference to the game assets directory, loaded on first use */
+	private static AssetDirectory directory;
+
+	private BenchmarkLevels() {}
+
+	/** @return the loaded asset directory, starting libGDX and setting all constants on first use */
+	static synchronized AssetDirectory directory() {
+		if (directory == null) {
+			HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+			config.updatesPerSecond = -1; // no render loop running beside the benchmark
+			new HeadlessApplication(new ApplicationAdapter() {}, config);
+			Gdx.gl = Gdx.gl20 = NoopGL.create();
+			directory = new AssetDirectory("assets.json");
+			directory.loadAssets();
+			directory.finishLoading();
+			WorldController.setConstants(directory.getEntry("object_settings", JsonValue.class));
+		}
+		return directory;
+	}
+
+	/**
+	 * @param name the level file name without extension, e.g. "Maze"
+	 * @return a canvas-less level model with the level loaded
+	 */
+	static LevelModel load(String name) {
+		LevelModel model = create();
+		load(model, name);
+		return model;
+	}
+
+	/** @return a canvas-less level model with its assets gathered and no level loaded */
+	static LevelModel create() {
+		LevelModel model = new LevelModel(null);
+		model.setDirectory(directory());
+		model.gatherAssets();
+		return model;
+	}
+
+	/**
+	 * Empties the model and loads the named level into it.
+	 * @param model a model from create()
+	 * @param name the level file name without extension, e.g. "Maze"
+	 */
+	static void load(LevelModel model, String name) {
+		model.reset();
+		model.loadLevel(id(name), data(name));
+	}
+
+	/**
+	 * @param name the level file name without extension, e.g. "Maze"
+	 * @return the parsed Tiled json of the level
+	 */
+	static JsonValue data(String name) {
+		return new JsonReader().parse(Gdx.files.internal("levels/" + name + ".json"));
+	}
+
+	/**
+	 * @param name the level file name without extension, e.g. "Maze"
+	 * @return the level id in assets.json, which picks the difficulty, or 0 if the level is not listed
+	 */
+	static int id(String name) {
+		String file = "levels/" + name + ".json";
+		for (JsonValue entry : new JsonReader().parse(Gdx.files.internal("assets.json")).get("jsons")) {
+			if (entry.name().startsWith("level:") && entry.asString().equals(file)) {
+				return Integer.parseInt(entry.name().substring("level:".length()));
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,62 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of sampling the current field, once per position and once per level tick for every object
+ * the currents carry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CurrentFieldBenchmark {
+	/** Number of sample positions cycled through */
+	private static final int SAMPLES = 1024;
+
+	@Param({"OopsAllCurrents2", "Maze"})
+	public String level;
+
+	private LevelModel model;
+	private CurrentField field;
+	private final Vector2[] positions = new Vector2[SAMPLES];
+	private final Vector2 velocity = new Vector2();
+	private int next;
+
+	@Setup(Level.Trial)
+	public void loadLevel() {
+		model = BenchmarkLevels.load(level);
+		field = model.currentField;
+		Random random = new Random(0);
+		Rectangle bounds = model.bounds();
+		for (int i = 0; i < SAMPLES; i++) {
+			positions[i] = new Vector2(bounds.x + random.nextFloat() * bounds.width,
+					bounds.y + random.nextFloat() * bounds.height);
+		}
+	}
+
+	/** Puts back everything the currents moved during the last iteration. */
+	@Setup(Level.Iteration)
+	public void reloadLevel() {
+		BenchmarkLevels.load(model, level);
+		field = model.currentField;
+	}
+
+	@Benchmark
+	public Vector2 sample() {
+		Vector2 p = positions[next++ & (SAMPLES - 1)];
+		return field.sample(p.x, p.y, velocity);
+	}
+
+	@Benchmark
+	public void updateAllCurrentEffects() {
+		model.updateAllCurrentEffects(1 / 60f);
+	}
+}
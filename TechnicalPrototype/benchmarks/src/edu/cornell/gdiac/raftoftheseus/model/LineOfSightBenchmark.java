@@ -0,0 +1,66 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import edu.cornell.gdiac.raftoftheseus.model.enemy.EnemyRayCast;
+import edu.cornell.gdiac.raftoftheseus.model.enemy.LineOfSight;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one shark sight check at approach range, through the tile grid and as the exact Box2D ray cast
+ * that sharks used before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LineOfSightBenchmark {
+	/** Number of sight lines cycled through */
+	private static final int SAMPLES = 1024;
+	/** Longest sight line, the shark approach range */
+	private static final float RANGE = 15f;
+
+	@Param({"Maze", "TheStrafer"})
+	public String level;
+
+	private LevelModel model;
+	private LineOfSight sight;
+	private final EnemyRayCast rayCast = new EnemyRayCast();
+	private final Vector2[] from = new Vector2[SAMPLES];
+	private final Vector2[] to = new Vector2[SAMPLES];
+	private int next;
+
+	@Setup(Level.Trial)
+	public void loadLevel() {
+		model = BenchmarkLevels.load(level);
+		sight = model.getLineOfSight();
+		Random random = new Random(0);
+		Rectangle bounds = model.bounds();
+		for (int i = 0; i < SAMPLES; i++) {
+			from[i] = new Vector2(bounds.x + random.nextFloat() * bounds.width,
+					bounds.y + random.nextFloat() * bounds.height);
+			to[i] = new Vector2(random.nextFloat() * RANGE, 0).rotateDeg(random.nextFloat() * 360).add(from[i]);
+			to[i].x = Math.max(bounds.x, Math.min(to[i].x, bounds.x + bounds.width));
+			to[i].y = Math.max(bounds.y, Math.min(to[i].y, bounds.y + bounds.height));
+		}
+	}
+
+	@Benchmark
+	public boolean tileGrid() {
+		int i = next++ & (SAMPLES - 1);
+		return sight.canSee(model.world, from[i], to[i]);
+	}
+
+	@Benchmark
+	public boolean rayCast() {
+		int i = next++ & (SAMPLES - 1);
+		rayCast.reset();
+		model.world.rayCast(rayCast, from[i], to[i]);
+		return rayCast.getCanSee();
+	}
+}
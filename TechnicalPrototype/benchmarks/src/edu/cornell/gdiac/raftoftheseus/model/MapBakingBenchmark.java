@@ -0,0 +1,73 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of baking the flow and surf maps the water shader reads, which happens on every level load, and
+ * of redrawing the surf around one object, which happens whenever a shipwreck is destroyed. The texture
+ * upload is a no-op here, so this is CPU time only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapBakingBenchmark {
+	@Param({"Maze", "TheClimb", "OopsAllCurrents2"})
+	public String level;
+	/** Surf map pixels per tile */
+	@Param({"5", "16"})
+	public int res;
+
+	private LevelModel model;
+	private SurfMap surfMap;
+	/** The object in the middle of the level list, whose surf is redrawn */
+	private GameObject changed;
+	private final Rectangle sources = new Rectangle();
+	private final Array<GameObject> cache = new Array<>();
+
+	@Setup(Level.Trial)
+	public void loadLevel() {
+		model = BenchmarkLevels.load(level);
+		surfMap = new SurfMap(model.extraCols(), model.extraRows(), model.getTileSize(), res);
+		Array<GameObject> withSurf = new Array<>();
+		for (GameObject o : model.getObjects()) {
+			if (SurfMap.hasSurf(o)) { withSurf.add(o); }
+		}
+		changed = withSurf.get(withSurf.size / 2);
+	}
+
+	@TearDown(Level.Trial)
+	public void dispose() {
+		surfMap.dispose();
+	}
+
+	@Benchmark
+	public Texture recalculateFlowMap() {
+		Texture t = model.recalculateFlowMap();
+		t.dispose();
+		return t;
+	}
+
+	@Benchmark
+	public Texture bakeSurfMap() {
+		surfMap.bake(model.getObjects());
+		surfMap.upload();
+		return surfMap.getTexture();
+	}
+
+	@Benchmark
+	public Texture updateSurfMapRegion() {
+		surfMap.markDirty(changed);
+		cache.clear();
+		model.getSpatialIndex().queryRect(surfMap.getDirtySources(sources), null, cache);
+		surfMap.update(cache);
+		return surfMap.getTexture();
+	}
+}
@@ -0,0 +1,54 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rebuilding the shark navigation field when the raft reaches another tile, and of one shark
+ * looking up its way in it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NavigationFieldBenchmark {
+	/** Number of positions cycled through */
+	private static final int SAMPLES = 1024;
+
+	@Param({"Maze", "TheStrafer"})
+	public String level;
+
+	private NavigationField field;
+	private final Vector2[] positions = new Vector2[SAMPLES];
+	private int next;
+
+	@Setup(Level.Trial)
+	public void loadLevel() {
+		LevelModel model = BenchmarkLevels.load(level);
+		field = model.getNavigationField();
+		Random random = new Random(0);
+		Rectangle bounds = model.bounds();
+		for (int i = 0; i < SAMPLES; i++) {
+			positions[i] = new Vector2(bounds.x + random.nextFloat() * bounds.width,
+					bounds.y + random.nextFloat() * bounds.height);
+		}
+		field.setTarget(positions[0].x, positions[0].y);
+	}
+
+	@Benchmark
+	public boolean setTarget() {
+		Vector2 p = positions[next++ & (SAMPLES - 1)];
+		return field.setTarget(p.x, p.y);
+	}
+
+	@Benchmark
+	public Vector2 lookup() {
+		return field.lookup(positions[next++ & (SAMPLES - 1)]);
+	}
+}
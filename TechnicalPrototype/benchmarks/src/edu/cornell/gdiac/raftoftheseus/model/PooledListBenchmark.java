@@ -0,0 +1,53 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import edu.cornell.gdiac.util.PooledList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the object list walk in WorldController.postUpdate(): visiting every entry through
+ * entryIterator(), with some entries removed in place and added back, as destroyed objects are
+ * removed and new ones queued.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PooledListBenchmark {
+	/** Number of objects in the list, about the size of the largest levels */
+	@Param({"1000", "4000"})
+	public int size;
+
+	/** One entry in this many is removed and added back per walk; 0 removes nothing */
+	@Param({"0", "50"})
+	public int removeEvery;
+
+	private final PooledList<Integer> list = new PooledList<>();
+	private final PooledList<Integer> removed = new PooledList<>();
+
+	@Setup(Level.Trial)
+	public void fill() {
+		for (int i = 0; i < size; i++) { list.add(i); }
+	}
+
+	@Benchmark
+	public void entryIterator(Blackhole bh) {
+		Iterator<PooledList<Integer>.Entry> iterator = list.entryIterator();
+		int i = 0;
+		while (iterator.hasNext()) {
+			PooledList<Integer>.Entry entry = iterator.next();
+			if (removeEvery > 0 && ++i % removeEvery == 0) {
+				removed.add(entry.getValue());
+				entry.remove();
+			} else {
+				bh.consume(entry.getValue());
+			}
+		}
+		while (!removed.isEmpty()) { list.add(removed.poll()); }
+	}
+}
@@ -0,0 +1,39 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.utils.JsonValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a level from its parsed json: a new Box2D world, the walls, the current field
+ * and every object from populateLevel(). Lights and shader maps are not built without a canvas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PopulateLevelBenchmark {
+	@Param({"Maze", "TheClimb", "OopsAllCurrents2"})
+	public String level;
+
+	private LevelModel model;
+	private JsonValue data;
+	private int id;
+
+	@Setup(Level.Trial)
+	public void parseLevel() {
+		model = BenchmarkLevels.create();
+		data = BenchmarkLevels.data(level);
+		id = BenchmarkLevels.id(level);
+	}
+
+	@Benchmark
+	public LevelModel populateLevel() {
+		model.reset();
+		model.loadLevel(id, data);
+		return model;
+	}
+}
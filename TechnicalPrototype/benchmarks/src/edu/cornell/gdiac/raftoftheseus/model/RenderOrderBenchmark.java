@@ -0,0 +1,48 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import edu.cornell.gdiac.util.PooledList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of putting standardDrawList in render order, as drawObjects() does every frame.
+ *
+ * "sorted" is the common case of a list in the order it was drawn the frame before; "shuffled" is the
+ * worst case for a comparison sort. The radix sort of the render queue does not care either way.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderOrderBenchmark {
+	@Param({"Maze", "TheClimb", "OopsAllCurrents2"})
+	public String level;
+
+	@Param({"sorted", "shuffled"})
+	public String order;
+
+	private final RenderQueue queue = new RenderQueue();
+	private PooledList<GameObject> list;
+
+	@Setup(Level.Trial)
+	public void loadLevel() {
+		list = BenchmarkLevels.load(level).standardDrawList;
+		queue.sort(list);
+		if (order.equals("shuffled")) {
+			Collections.shuffle(list, new Random(0));
+		}
+	}
+
+	@Benchmark
+	public RenderQueue sort() {
+		queue.clear();
+		queue.addAll(list);
+		queue.sort();
+		return queue;
+	}
+}
@@ -3,17 +3,23 @@
 /* We shift the vertices to make items appear as if they're bobbing up and down */
 
 attribute vec4 a_position;
+attribute vec4 a_color;
 attribute vec2 a_texCoord0;
+attribute vec4 a_item; // where the vertex is in its frame (0 at the top, 1 at the bottom), 1 if it floats, mask offset, bob amplitude
 uniform mat4 u_projTrans;
+varying vec4 v_color;
 varying vec2 v_texCoords;
+varying vec4 v_item;
 varying float pos_x;
 
-uniform float bobbing_amplitude;
 uniform float bobbing_timescale;
 uniform float time;
 
 void main() {
+    v_color = a_color;
+    v_color.a = v_color.a * (255.0/254.0);
     v_texCoords = a_texCoord0;
-    gl_Position = u_projTrans * (a_position + bobbing_amplitude*sin(bobbing_timescale*time)*vec4(0.0,1.0,0.0,0.0));
+    v_item = a_item;
+    gl_Position = u_projTrans * (a_position + a_item.w*sin(bobbing_timescale*time)*vec4(0.0,1.0,0.0,0.0));
     pos_x = a_position.x;
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+#version 120
+
+/* Draws a point light over its square, fading out to its radius, and dark where its shadow
+ * map says something is between the fragment and the light. Soft shadows are blurred more
+ * the further they are from the light, and fade out over the soft shadow length. */
+
+#define PI 3.14159265
+
+varying vec4 v_color;
+varying vec2 v_texCoords;
+uniform sampler2D u_texture; // the shadow maps, a row per light
+
+uniform float u_row;  // where the row of this light is in the shadow maps
+uniform float u_soft; // the soft shadow length, as a share of the radius, 0 for hard shadows
+uniform float u_blur; // how far soft shadows are blurred at the radius, in shadow map coordinates
+
+float lit(float u, float r) {
+    float hit = texture2D(u_texture, vec2(u, u_row)).r;
+    return 1.0 - smoothstep(hit, hit + u_soft + 0.002, r);
+}
+
+void main() {
+    vec2 p = 2.0 * v_texCoords - 1.0;
+    float r = length(p);
+    if (r >= 1.0) discard;
+    float u = atan(p.y, p.x) / (2.0 * PI) + 1.0; // the shadow maps repeat around
+    float blur = u_blur * r;
+    float light = 0.36 * lit(u, r)
+            + 0.2 * (lit(u - blur, r) + lit(u + blur, r))
+            + 0.12 * (lit(u - 2.0 * blur, r) + lit(u + 2.0 * blur, r));
+    gl_FragColor = vec4(v_color.rgb * v_color.a * (1.0 - r) * light, 1.0);
+}
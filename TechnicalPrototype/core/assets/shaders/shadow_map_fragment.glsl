@@ -0,0 +1,25 @@
+#version 120
+
+/* Reduces the occlusion map around a light to its row of the shadow maps. Each texel of the
+ * row is a direction, and gets how far the light goes that way before it hits something,
+ * as a share of the radius of the light. */
+
+#define PI 3.14159265
+#define STEPS 256
+
+varying vec2 v_texCoords;
+uniform sampler2D u_texture; // the occlusion map, with the light at its center
+
+void main() {
+    float theta = v_texCoords.x * 2.0 * PI;
+    vec2 dir = 0.5 * vec2(cos(theta), sin(theta));
+    float hit = 1.0;
+    for (int i = 1; i <= STEPS; i++) {
+        float r = float(i) / float(STEPS);
+        if (texture2D(u_texture, vec2(0.5) + r * dir).a > 0.5) {
+            hit = r;
+            break;
+        }
+    }
+    gl_FragColor = vec4(hit);
+}
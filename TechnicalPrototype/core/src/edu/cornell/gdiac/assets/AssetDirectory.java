@@ -161,6 +161,7 @@ public class AssetDirectory extends AssetManager {
 
         // And now the default parsers
         topLoader.addParser( new JsonValueParser() );
+        topLoader.addParser( new TextureAtlasParser() );
         topLoader.addParser( new TextureParser() );
         topLoader.addParser( new TextureRegionParser() );
         topLoader.addParser( new FilmStripParser() );
@@ -326,4 +327,54 @@ public class AssetDirectory extends AssetManager {
         }
         return contains( filename, type );
     }
+
+    /**
+     * Returns the image of a texture key, as a texture region
+     *
+     * If the texture was packed into one of the atlases of the directory, this is
+     * its region of the atlas page. Otherwise it is the whole texture. Either way
+     * it is a new region, which the caller is free to change.
+     *
+     * @param key   The texture key
+     *
+     * @return the image of a texture key, or null if there is none
+     */
+    public TextureRegion getRegion(String key) {
+        ObjectMap<String, String> atlases = contents.keymap.get( TextureAtlas.class, null );
+        if (atlases != null) {
+            for (String filename : atlases.values()) {
+                if (!isLoaded( filename, TextureAtlas.class )) {
+                    continue;
+                }
+                TextureRegion region = get( filename, TextureAtlas.class ).findRegion( key );
+                if (region != null) {
+                    return new TextureRegion( region );
+                }
+            }
+        }
+        Texture texture = getEntry( key, Texture.class );
+        return texture == null ? null : new TextureRegion( texture );
+    }
+
+    /**
+     * Returns a film strip of the image of a texture key
+     *
+     * The film strip covers the whole image, which may be a region of an atlas
+     * page (see {@link #getRegion}). It is a new film strip.
+     *
+     * @param key   The texture key
+     * @param rows  The number of rows in the film strip
+     * @param cols  The number of columns in the film strip
+     * @param size  The number of frames in the film strip
+     *
+     * @return a film strip of the image of a texture key, or null if there is none
+     */
+    public FilmStrip getFilmStrip(String key, int rows, int cols, int size) {
+        TextureRegion region = getRegion( key );
+        if (region == null) {
+            return null;
+        }
+        return ((FilmStripLoader)getLoader( FilmStrip.class )).load( region,
+                new FilmStripLoader.FilmStripParameters( key, rows, cols, size ) );
+    }
 }
@@ -0,0 +1,29 @@
+package edu.cornell.gdiac.assets;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One asset parser going through the asset directory, for Java Flight Recorder.
+ *
+ * The parser reads its entries and queues their files in the asset manager, which loads them later by
+ * itself, so this is the cost of the parser and the number of assets it is responsible for.
+ */
+@Name("edu.cornell.gdiac.raftoftheseus.AssetParse")
+@Label("Asset Parse")
+@Category({"Raft of Theseus", "Assets"})
+@Description("An asset parser going through the asset directory")
+public class AssetParseEvent extends Event {
+    @Label("Parser")
+    public String parser;
+
+    @Label("Asset Type")
+    public String assetType;
+
+    @Label("Assets")
+    @Description("The number of assets the parser queued")
+    public int assets;
+}
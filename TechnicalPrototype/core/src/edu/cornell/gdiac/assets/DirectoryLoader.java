@@ -131,10 +131,20 @@ public class DirectoryLoader extends AsynchronousAssetLoader<AssetDirectory.Inde
                 keys = new ObjectMap<String,String>();
                 cachedData.keymap.put(parser.getType(),keys);
             }
+            AssetParseEvent event = new AssetParseEvent();
+            event.begin();
+            int before = keys.size;
             parser.reset( cachedData.directory );
             while (parser.hasNext()) {
                 parser.processNext( manager, keys );
             }
+            event.end();
+            if (event.shouldCommit()) {
+                event.parser = parser.getClass().getSimpleName();
+                event.assetType = parser.getType().getSimpleName();
+                event.assets = keys.size - before;
+                event.commit();
+            }
         }
     }
 
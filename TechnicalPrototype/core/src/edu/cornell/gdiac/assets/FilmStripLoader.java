@@ -18,6 +18,7 @@ import com.badlogic.gdx.assets.loaders.*;
 import com.badlogic.gdx.assets.loaders.resolvers.*;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import edu.cornell.gdiac.util.FilmStrip;
@@ -223,14 +224,30 @@ public class FilmStripLoader extends AsynchronousAssetLoader<FilmStrip, FilmStri
      * @return a texture region for the given texture and parameters.
      */
     public FilmStrip load (Texture texture, FilmStripParameters params) {
+        return load(new TextureRegion(texture), params);
+    }
+
+    /**
+     * Loads a film strip from the given texture region and parameters.
+     *
+     * The region is typically the image of a texture atlas, and the parameters are
+     * measured from its origin rather than from that of its page. If params is null,
+     * the film strip will be the entire region.
+     *
+     * @param region    The parent region
+     * @param params    The definition of the film strip within the region.
+     *
+     * @return a film strip for the given region and parameters.
+     */
+    public FilmStrip load (TextureRegion region, FilmStripParameters params) {
         if (params == null) {
-            return new FilmStrip(texture,1,1);
+            return new FilmStrip(region,1,1,1);
         }
 
-        int w = params.width == -1 ? texture.getWidth()-params.x : params.width;
-        int h = params.height == -1 ? texture.getHeight()-params.y : params.height;
-        FilmStrip result = new FilmStrip(texture,params.rows,params.cols,params.size,
-                                          params.x,params.y,w,h);
+        int w = params.width == -1 ? region.getRegionWidth()-params.x : params.width;
+        int h = params.height == -1 ? region.getRegionHeight()-params.y : params.height;
+        FilmStrip result = new FilmStrip(region.getTexture(),params.rows,params.cols,params.size,
+                                          region.getRegionX()+params.x,region.getRegionY()+params.y,w,h);
         result.setFrame( params.frame );
         return result;
     }
@@ -0,0 +1,119 @@
+/*
+ * TextureAtlasParser.java
+ *
+ * This is an interface for parsing a JSON entry into a TextureAtlas asset. An atlas
+ * is a few large pages that many of the textures of the directory were packed into
+ * ahead of time, so that they can be drawn without switching textures.
+ */
+package edu.cornell.gdiac.assets;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * This class parses a JSON entry into a {@link TextureAtlas}.
+ *
+ * An atlas is specified by an object whose file entry is the .atlas file. The
+ * other entries describe how to pack it, and are only read by the packer. Each
+ * image of the atlas is named by the key of the texture it was packed from, and
+ * that texture is then not loaded by itself (see {@link TextureParser}).
+ *
+ * An atlas whose file does not exist, e.g. because it has not been packed yet,
+ * is skipped, and its textures are loaded by themselves as before.
+ */
+public class TextureAtlasParser implements AssetParser<TextureAtlas> {
+    /** The current atlas entry in the JSON directory */
+    private JsonValue root;
+
+    /**
+     * Returns the asset type generated by this parser
+     *
+     * @return the asset type generated by this parser
+     */
+    public Class<TextureAtlas> getType() {
+        return TextureAtlas.class;
+    }
+
+    /**
+     * Resets the parser iterator for the given directory.
+     *
+     * The value directory is assumed to be the root of a larger JSON structure.
+     * The individual assets are defined by subtrees in this structure.
+     *
+     * @param directory    The JSON representation of the asset directory
+     */
+    public void reset(JsonValue directory) {
+        root = directory;
+        root = root.getChild( "atlases" );
+    }
+
+    /**
+     * Returns true if there are still assets left to generate
+     *
+     * @return true if there are still assets left to generate
+     */
+    public boolean hasNext() {
+        return root != null;
+    }
+
+    /**
+     * Processes the next available atlas, loading it into the asset manager
+     *
+     * {@link TextureAtlas} objects have no additional loader properties. The
+     * pages are loaded as dependencies of the atlas.
+     *
+     * This method fails silently if there are no available assets to process.
+     *
+     * @param manager    The asset manager to load an asset
+     * @param keymap    The mapping of JSON keys to asset file names
+     */
+    public void processNext(AssetManager manager, ObjectMap<String,String> keymap) {
+        String file = root.getString( "file", null );
+        if (file != null && manager.getFileHandleResolver().resolve( file ).exists()) {
+            keymap.put(root.name(), file);
+            manager.load( file, TextureAtlas.class );
+        }
+        root = root.next();
+    }
+
+    /**
+     * Returns true if o is another TextureAtlasParser
+     *
+     * @return true if o is another TextureAtlasParser
+     */
+    public boolean equals(Object o) {
+        return o instanceof TextureAtlasParser;
+    }
+
+    /**
+     * Returns the keys of the textures packed into the atlases of a directory.
+     *
+     * Only the .atlas files are read, not the pages, so this is cheap enough to
+     * call while parsing the directory.
+     *
+     * @param directory    The JSON representation of the asset directory
+     * @param resolver     The resolver of the asset files
+     *
+     * @return the keys of the textures packed into the atlases of a directory.
+     */
+    public static ObjectSet<String> packedKeys(JsonValue directory, FileHandleResolver resolver) {
+        ObjectSet<String> keys = new ObjectSet<String>();
+        for (JsonValue atlas = directory.getChild( "atlases" ); atlas != null; atlas = atlas.next()) {
+            String file = atlas.getString( "file", null );
+            FileHandle handle = file == null ? null : resolver.resolve( file );
+            if (handle == null || !handle.exists()) {
+                continue;
+            }
+            TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData( handle, handle.parent(), false );
+            for (TextureAtlas.TextureAtlasData.Region region : data.getRegions()) {
+                keys.add( region.name );
+            }
+        }
+        return keys;
+    }
+}
@@ -17,6 +17,7 @@ import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
 
 /**
  * This class parses a JSON entry into a {@link Texture}.
@@ -31,6 +32,10 @@ import com.badlogic.gdx.utils.ObjectMap;
 public class TextureParser implements AssetParser<Texture> {
     /** The current font entry in the JSON directory */
     private JsonValue root;
+    /** The whole JSON directory */
+    private JsonValue directory;
+    /** The keys of the textures packed into an atlas; null until first needed */
+    private ObjectSet<String> packed;
 
     /**
      * Returns the asset type generated by this parser
@@ -50,8 +55,10 @@ public class TextureParser implements AssetParser<Texture> {
      * @param directory    The JSON representation of the asset directory
      */
     public void reset(JsonValue directory) {
+        this.directory = directory;
         root = directory;
         root = root.getChild( "textures" );
+        packed = null;
     }
 
     /**
@@ -73,12 +80,23 @@ public class TextureParser implements AssetParser<Texture> {
      * If the JSON value is a string and not an object, it will interpret that
      * string as the file and use the default settings.
      *
+     * A texture that was packed into an atlas is skipped, as it is drawn from
+     * its region of the atlas instead.
+     *
      * This method fails silently if there are no available assets to process.
      *
      * @param manager	The asset manager to load an asset
      * @param keymap    The mapping of JSON keys to asset file names
      */
     public void processNext(AssetManager manager, ObjectMap<String,String> keymap) {
+        if (packed == null) {
+            packed = TextureAtlasParser.packedKeys( directory, manager.getFileHandleResolver() );
+        }
+        if (packed.contains( root.name() )) {
+            // drawn from its region of the atlas instead
+            root = root.next();
+            return;
+        }
         TextureLoader.TextureParameter params = new TextureLoader.TextureParameter();
         if (root.isString()) {
             params.genMipMaps = false;
@@ -24,11 +24,15 @@ import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.*;
+import edu.cornell.gdiac.raftoftheseus.replay.InputRecorder;
+import edu.cornell.gdiac.raftoftheseus.replay.InputReplay;
 import edu.cornell.gdiac.raftoftheseus.singleton.InputController;
 import edu.cornell.gdiac.raftoftheseus.singleton.MusicController;
 import edu.cornell.gdiac.raftoftheseus.singleton.SfxController;
 import org.lwjgl.Sys;
 
+import java.io.File;
+
 /**
  * Root class for a LibGDX.  
  *
@@ -53,6 +57,10 @@ public class GDXRoot extends Game implements edu.cornell.gdiac.util.ScreenListen
 	private WorldController playing;
 	/** Player mode for the settings mode (CONTROLLER CLASS) */
 	private SettingsMode settings;
+	/** File to record the input of every tick to, or null */
+	private final String recordPath;
+	/** File to play the input of every tick back from, or null */
+	private final String replayPath;
 	/** Which level is currently loaded */
 	private int currentLevel = 0;
 	/** How many levels there are */
@@ -74,6 +82,8 @@ public class GDXRoot extends Game implements edu.cornell.gdiac.util.ScreenListen
 	public static int TO_WORLD;
 	/** Exit code for menu to settings = 8 */
 	public static int MENU_TO_SETTINGS;
+	/** Exit code for loading a level done = 9 */
+	public static int LEVEL_LOADED;
 
 	// Whether to use MusicController or not.
 	public static final boolean USE_THREAD = true;
@@ -84,7 +94,19 @@ public class GDXRoot extends Game implements edu.cornell.gdiac.util.ScreenListen
 	 * This method configures the asset manager, but does not load any assets
 	 * or assign any screen.
 	 */
-	public GDXRoot() {}
+	public GDXRoot() { this(null, null); }
+
+	/**
+	 * Creates a new game that records or replays the input of every simulation tick.
+	 *
+	 * @param recordPath file to record the input to, or null
+	 * @param replayPath file to play the input back from, or null; the game then skips the menu and
+	 *                   starts on the level the recording starts on
+	 */
+	public GDXRoot(String recordPath, String replayPath) {
+		this.recordPath = recordPath;
+		this.replayPath = replayPath;
+	}
 
 	/**
 	 * Called when the Application is first created.
@@ -113,6 +135,7 @@ public class GDXRoot extends Game implements edu.cornell.gdiac.util.ScreenListen
 		Screen screen = getScreen();
 		setScreen(null);
 		screen.dispose();
+		if (loading != null && loading != screen) { loading.dispose(); }
 		SfxController.getInstance().dispose();
 		MusicController.getInstance().dispose();
 		canvas.dispose();
@@ -162,7 +185,8 @@ public class GDXRoot extends Game implements edu.cornell.gdiac.util.ScreenListen
 	 * @param exitCode The state of the screen upon exit
 	 */
 	public void exitScreen(Screen screen, int exitCode) {
-		if (screen == loading) {
+		if (screen == loading && exitCode == LEVEL_LOADED) setPlayScreen();
+		else if (screen == loading) {
 			// Load the rest of the constants
 			directory = loading.getAssets();
 			saveData = loading.getSaveGameData();
@@ -174,8 +198,13 @@ public class GDXRoot extends Game implements edu.cornell.gdiac.util.ScreenListen
 			menu.setSaveData(saveData);
 			// Start the music
 			MusicController.getInstance().startMenuMusic();
-			loading.dispose();
-			loading = null;
+			// the loading screen is kept to load the levels
+			if (recordPath != null) playing.setRecorder(new InputRecorder(Gdx.files.absolute(new File(recordPath).getAbsolutePath())));
+			if (replayPath != null) {
+				InputReplay replay = new InputReplay(Gdx.files.absolute(new File(replayPath).getAbsolutePath()));
+				playing.setReplay(replay);
+				if (replay.peekRun() != null) setPlayScreen(replay.peekRun().levelId);
+			}
 		}
 		else if (exitCode == PREV_LEVEL) setPlayScreen(Math.max(0, currentLevel-1));
 		else if(exitCode == NEXT_LEVEL) {
@@ -234,6 +263,7 @@ public class GDXRoot extends Game implements edu.cornell.gdiac.util.ScreenListen
 		TO_MENU = objParams.getInt("to menu");
 		TO_WORLD = objParams.getInt("to world");
 		MENU_TO_SETTINGS = objParams.getInt("menu to settings");
+		LEVEL_LOADED = objParams.getInt("level loaded");
 	}
 
 	/**
@@ -269,16 +299,19 @@ public class GDXRoot extends Game implements edu.cornell.gdiac.util.ScreenListen
 	}
 
 	/**
-	 * Set the playing screen when going from everything but settings.
+	 * Load a level behind the loading screen, then set the playing screen, when going
+	 * from everything but settings.
 	 */
 	private void setPlayScreen(int currentLevel){
 		if(USE_THREAD) MusicController.getInstance().haltMusic();
 		else SfxController.getInstance().haltMusic();
 		SfxController.getInstance().haltSFX();
 		this.currentLevel = currentLevel;
-		playing.setLevel(this.currentLevel, false);
-		setPlayScreen();
 		playing.setSaveData(saveData);
+		playing.loadLevel(this.currentLevel);
+		loading.loadLevel(playing);
+		loading.setScreenListener(this);
+		setScreen(loading);
 	}
 
 	/**
@@ -25,6 +25,7 @@ import com.badlogic.gdx.graphics.glutils.*;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import edu.cornell.gdiac.raftoftheseus.model.HealthBar;
+import edu.cornell.gdiac.raftoftheseus.singleton.FrameProfiler;
 
 /**
  * Primary view class for the game, abstracting the basic graphics calls.
@@ -55,6 +56,8 @@ public class GameCanvas {
 		INACTIVE,
 		/** We are drawing sprites */
 		STANDARD,
+		/** We are drawing sprites with the floating item shader */
+		ITEMS,
 		/** We are drawing outlines */
 		DEBUG
 	}
@@ -120,6 +123,8 @@ public class GameCanvas {
 	private float[] shaderColors;
 	public final boolean shaderCanBeUsed;
 	private ShaderProgram itemShader;
+	/** The batch for the floating item shader; null if the shader is not available */
+	private ItemBatch itemBatch;
 
 	/**
 	 * Creates a new GameCanvas determined by the application configuration.
@@ -159,6 +164,7 @@ public class GameCanvas {
 			itemShader = null;
 		}
 		shaderCanBeUsed = (waterShader != null && itemShader != null);
+		if (itemShader != null) { itemBatch = new ItemBatch(itemShader, 1000); }
 	}
 
 	/**
@@ -171,6 +177,10 @@ public class GameCanvas {
 		}
 		spriteBatch.dispose();
 		spriteBatch = null;
+		if (itemBatch != null) {
+			itemBatch.dispose();
+			itemBatch = null;
+		}
 		local  = null;
 		global = null;
 		vertex = null;
@@ -439,25 +449,52 @@ public class GameCanvas {
 	}
 
 	/**
-	 * Must be called AFTER begin(...) and BEFORE end() for the shader to work.
+	 * Start drawing sprites with the floating item shader, in one pass.
+	 *
+	 * Must be called after begin(...); the sprites drawn until endItems() go through the floating
+	 * item shader, whether they float or not (@see setFloating()). Only the draw methods for texture
+	 * regions with a transform, and for sprite vertices, may be used in between.
+	 *
+	 * @param time the time of the shader animation, in seconds
 	 */
-	public void useItemShader(float time) {
-		spriteBatch.setShader(itemShader); // this calls customShader.bind(), but only if drawing == true
-		// if customShader.bind() is not called first, then setUniform() will SILENTLY fail, and the uniform will keep its initial value.
-		// pass textures (as indices)
-		itemShader.setUniformi("mask", 5);
-		// pass other stuff
-		itemShader.setUniformf("time", time);
-//		itemShader.setUniformf("time", time);
+	public void beginItems(float time) {
+		if (active != DrawPass.STANDARD) {
+			Gdx.app.error("GameCanvas", "Cannot draw items without active begin()", new IllegalStateException());
+			return;
+		}
+		spriteBatch.end();
+		itemBatch.begin(global, spriteBatch.getBlendSrcFunc(), spriteBatch.getBlendDstFunc(), time);
+		active = DrawPass.ITEMS;
+	}
 
-		// do this
-//		spriteBatch.setProjectionMatrix(global);// custom shader must be set before this (or maybe not?)
+	/**
+	 * Stop drawing sprites with the floating item shader, and go on with the sprite batch.
+	 */
+	public void endItems() {
+		if (active != DrawPass.ITEMS) {
+			Gdx.app.error("GameCanvas", "Cannot end items without beginItems()", new IllegalStateException());
+			return;
+		}
+		itemBatch.end();
+		spriteBatch.begin();
+		active = DrawPass.STANDARD;
 	}
 
-	public void setItemShaderUniforms(int rows, int cols, float yOffset, float bobAmplitude) {
-		itemShader.setUniformf("film_strip_dims", cols, rows);
-		itemShader.setUniformf("height", yOffset);
-		itemShader.setUniformf("bobbing_amplitude", bobAmplitude);
+	/**
+	 * Makes the next sprites drawn with the floating item shader bob and sink.
+	 *
+	 * @param yOffset how far down the frame the mask starts, as a fraction of its height
+	 * @param bobAmplitude how far the sprites bob up and down
+	 */
+	public void setFloating(float yOffset, float bobAmplitude) {
+		itemBatch.setFloating(yOffset, bobAmplitude);
+	}
+
+	/**
+	 * Makes the next sprites drawn with the floating item shader look as they would without it.
+	 */
+	public void setNotFloating() {
+		itemBatch.setNotFloating();
 	}
 
 	public void setDataMaps(Texture flowMap, Texture surfMap) {
@@ -771,7 +808,7 @@ public class GameCanvas {
 	 */
 	public void draw(TextureRegion region, Color tint, float ox, float oy,
 					 float x, float y, float angle, float sx, float sy) {
-		if (active != DrawPass.STANDARD) {
+		if (active != DrawPass.STANDARD && active != DrawPass.ITEMS) {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
@@ -780,6 +817,10 @@ public class GameCanvas {
 		// There is a workaround, but it will break if the bug is fixed.
 		// For now, it is better to set the affine transform directly.
 		computeTransform(ox,oy,x,y,angle,sx,sy);
+		if (active == DrawPass.ITEMS) {
+			itemBatch.draw(region, tint.toFloatBits(), region.getRegionWidth(), region.getRegionHeight(), local);
+			return;
+		}
 		spriteBatch.setColor(tint);
 		spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
 	}
@@ -815,6 +856,65 @@ public class GameCanvas {
 		spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
 	}
 
+	/**
+	 * Draws sprites whose vertices were computed ahead of time by spriteVertices().
+	 *
+	 * The vertices already hold their color, so the tint of the sprite batch is ignored. They are in
+	 * world coordinates and go through the global transform only (@see begin(Affine2)).
+	 *
+	 * @param texture	The texture every sprite is cut from
+	 * @param vertices	The vertices, 20 floats per sprite
+	 * @param offset	The index of the first float to draw
+	 * @param count		The number of floats to draw, a multiple of 20
+	 */
+	public void draw(Texture texture, float[] vertices, int offset, int count) {
+		if (active == DrawPass.ITEMS) {
+			itemBatch.draw(texture, vertices, offset, count);
+			return;
+		}
+		if (active != DrawPass.STANDARD) {
+			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+			return;
+		}
+		spriteBatch.draw(texture, vertices, offset, count);
+	}
+
+	/** Scratch transform for spriteVertices() */
+	private static final Affine2 vertexTransform = new Affine2();
+
+	/**
+	 * Computes the vertices that draw(region, tint, ox, oy, x, y, angle, sx, sy) sends to the sprite batch,
+	 * so that a sprite that never moves can be kept and drawn again with draw(Texture, float[], int, int).
+	 *
+	 * @param vertices	Where to write the 20 floats of the sprite
+	 * @param offset	The index of the first float to write
+	 * @param region	The texture to draw
+	 * @param tint		The color tint
+	 * @param ox		The x-coordinate of texture origin (in pixels)
+	 * @param oy		The y-coordinate of texture origin (in pixels)
+	 * @param x			The x-coordinate of the texture origin
+	 * @param y			The y-coordinate of the texture origin
+	 * @param angle		The rotation angle (in degrees) about the origin.
+	 * @param sx		The x-axis scaling factor
+	 * @param sy		The y-axis scaling factor
+	 */
+	public static void spriteVertices(float[] vertices, int offset, TextureRegion region, Color tint,
+									  float ox, float oy, float x, float y, float angle, float sx, float sy) {
+		Affine2 t = vertexTransform.setToTranslation(x, y).rotate(angle).scale(sx, sy).translate(-ox, -oy);
+		float w = region.getRegionWidth(), h = region.getRegionHeight();
+		float color = tint.toFloatBits();
+		// the same corners, in the same order, as SpriteBatch.draw(TextureRegion, float, float, Affine2)
+		int i = offset;
+		vertices[i++] = t.m02;                         vertices[i++] = t.m12;
+		vertices[i++] = color; vertices[i++] = region.getU();  vertices[i++] = region.getV2();
+		vertices[i++] = t.m01 * h + t.m02;             vertices[i++] = t.m11 * h + t.m12;
+		vertices[i++] = color; vertices[i++] = region.getU();  vertices[i++] = region.getV();
+		vertices[i++] = t.m00 * w + t.m01 * h + t.m02; vertices[i++] = t.m10 * w + t.m11 * h + t.m12;
+		vertices[i++] = color; vertices[i++] = region.getU2(); vertices[i++] = region.getV();
+		vertices[i++] = t.m00 * w + t.m02;             vertices[i++] = t.m10 * w + t.m12;
+		vertices[i++] = color; vertices[i++] = region.getU2(); vertices[i]   = region.getV2();
+	}
+
 	/**
 	 * Draws the polygonal region with the given transformations
 	 *
@@ -1289,6 +1389,113 @@ public class GameCanvas {
 		local.translate(-ox,-oy);
 	}
 
+	/*=*=* Profiler overlay BEGIN *=*=*/
+	/** The color of each phase in the profiler graph, in the order of FrameProfiler.Phase */
+	private static final Color[] PHASE_COLORS = {
+			Color.SKY, Color.ROYAL, Color.NAVY, Color.VIOLET, Color.TEAL, Color.LIME, Color.GOLD, Color.ORANGE };
+	/** The color of the time of a frame outside every phase, e.g. waiting for the next frame */
+	private static final Color OTHER_COLOR = new Color(0.5f, 0.5f, 0.5f, 0.6f);
+	/** Number of frames in the profiler graph, one pixel wide each */
+	private static final int GRAPH_FRAMES = 300;
+	/** Height of a millisecond in the profiler graph, in pixels */
+	private static final float GRAPH_MS = 4;
+	/** The frame times the profiler graph has lines at, in milliseconds: 60 and 30 frames per second */
+	private static final float[] GRAPH_LINES = { 1000 / 60f, 1000 / 30f };
+	/** Cache for the lines of the profiler overlay */
+	private final StringBuilder profilerText = new StringBuilder();
+
+	/**
+	 * Draws the profiler overlay in the top left corner of the screen: a stacked graph of the time of each
+	 * phase in the last frames, with lines at 60 and 30 frames per second, and the average time of each
+	 * phase and the GL counters of the last frame.
+	 *
+	 * Must be called outside of any other drawing pass.
+	 *
+	 * @param profiler the profiler, with at least one frame
+	 * @param font the font of the text
+	 */
+	public void drawProfiler(FrameProfiler profiler, BitmapFont font) {
+		if (active != DrawPass.INACTIVE) {
+			Gdx.app.error("GameCanvas", "Cannot draw the profiler while drawing", new IllegalStateException());
+			return;
+		}
+		if (profiler.size() == 0) { return; }
+		FrameProfiler.Phase[] phases = FrameProfiler.Phase.values();
+		float lineHeight = font.getLineHeight();
+		int lines = phases.length + (profiler.hasCounters() ? FrameProfiler.Counter.values().length : 0) + 1;
+		float graphHeight = 40 * GRAPH_MS;
+		float left = 10, top = getHeight() - 10;
+		float bottom = top - graphHeight - lines * lineHeight - 15;
+
+		Gdx.gl.glEnable(GL20.GL_BLEND);
+		Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+		shapeRender.setProjectionMatrix(camera.combined);
+		shapeRender.begin(ShapeRenderer.ShapeType.Filled);
+		shapeRender.setColor(0, 0, 0, 0.6f);
+		shapeRender.rect(left - 5, bottom, GRAPH_FRAMES + 10, top - bottom + 5);
+		int frames = Math.min(profiler.size(), GRAPH_FRAMES);
+		for (int age = 0; age < frames; age++) {
+			float x = left + GRAPH_FRAMES - 1 - age;
+			float y = top - graphHeight;
+			long inPhases = 0;
+			for (FrameProfiler.Phase p : phases) {
+				long ns = profiler.getTime(age, p);
+				inPhases += ns;
+				float h = Math.min(ns / 1e6f * GRAPH_MS, top - y);
+				shapeRender.setColor(PHASE_COLORS[p.ordinal()]);
+				shapeRender.rect(x, y, 1, h);
+				y += h;
+			}
+			float h = Math.min(Math.max(0, profiler.getTotal(age) - inPhases) / 1e6f * GRAPH_MS, top - y);
+			shapeRender.setColor(OTHER_COLOR);
+			shapeRender.rect(x, y, 1, h);
+		}
+		shapeRender.end();
+		shapeRender.begin(ShapeRenderer.ShapeType.Line);
+		shapeRender.setColor(Color.WHITE);
+		for (float ms : GRAPH_LINES) {
+			float y = top - graphHeight + ms * GRAPH_MS;
+			shapeRender.line(left, y, left + GRAPH_FRAMES, y);
+		}
+		shapeRender.end();
+		Gdx.gl.glDisable(GL20.GL_BLEND);
+
+		spriteBatch.setProjectionMatrix(camera.combined);
+		spriteBatch.begin();
+		float y = top - graphHeight - 5;
+		long total = 0;
+		for (int age = 0; age < profiler.size(); age++) { total += profiler.getTotal(age); }
+		profilerText.setLength(0);
+		profilerText.append("frame ").append(ms(total / profiler.size())).append(" ms avg");
+		font.setColor(Color.WHITE);
+		font.draw(spriteBatch, profilerText, left, y);
+		for (FrameProfiler.Phase p : phases) {
+			y -= lineHeight;
+			profilerText.setLength(0);
+			profilerText.append(p.label).append(' ').append(ms(profiler.getAverage(p))).append(" ms");
+			font.setColor(PHASE_COLORS[p.ordinal()]);
+			font.draw(spriteBatch, profilerText, left, y);
+		}
+		if (profiler.hasCounters()) {
+			font.setColor(Color.WHITE);
+			for (FrameProfiler.Counter c : FrameProfiler.Counter.values()) {
+				y -= lineHeight;
+				profilerText.setLength(0);
+				profilerText.append(c.label).append(' ').append(profiler.getCount(0, c));
+				font.draw(spriteBatch, profilerText, left, y);
+			}
+		}
+		spriteBatch.end();
+	}
+
+	/** @return nanoseconds as milliseconds, to two decimals */
+	private static String ms(long ns) {
+		long hundredths = ns / 10000;
+		return hundredths / 100 + "." + (hundredths % 100 < 10 ? "0" : "") + hundredths % 100;
+	}
+
+	/*=*=* Profiler overlay END *=*=*/
+
 	/*=*=* Radial Health Bar and Accessbility mode BEGIN *=*=*/
 	/** Whether to use shaders or not */
 	public boolean USE_SHADER = true;
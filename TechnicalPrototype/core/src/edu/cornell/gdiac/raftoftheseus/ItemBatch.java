@@ -0,0 +1,219 @@
+package edu.cornell.gdiac.raftoftheseus;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * A sprite batch for the floating item shader, which draws floating and non-floating sprites in one pass.
+ *
+ * A floating sprite bobs up and down, and its lower part is faded by a moving mask so that it looks
+ * half sunk. These settings used to be uniforms, so the batch had to be flushed and the shader switched for
+ * every floating object. Here they are attributes of each vertex instead, so sprites with any settings,
+ * including none at all, go into the same batch; it is only flushed when the texture changes or it is full.
+ *
+ * Each vertex holds its position, color and texture coordinates, as in a SpriteBatch, then:
+ * <ul>
+ *     <li>where it is in its frame, from 0 at the top to 1 at the bottom, as the mask is laid over the frame</li>
+ *     <li>1 if the sprite floats, else 0</li>
+ *     <li>how far down the frame the mask starts, as a fraction of its height</li>
+ *     <li>how far the sprite bobs up and down</li>
+ * </ul>
+ */
+public class ItemBatch implements Disposable {
+    /** The floats of a vertex */
+    private static final int VERTEX_SIZE = 9;
+    /** The floats of a sprite */
+    private static final int SPRITE_SIZE = 4 * VERTEX_SIZE;
+    /** The floats of a sprite as computed by GameCanvas.spriteVertices() */
+    private static final int PLAIN_SPRITE_SIZE = 20;
+
+    /** The mesh the sprites are sent through */
+    private final Mesh mesh;
+    /** The floating item shader */
+    private final ShaderProgram shader;
+    /** The vertices not yet drawn */
+    private final float[] vertices;
+    /** Number of floats of vertices not yet drawn */
+    private int index;
+    /** The texture of the vertices not yet drawn */
+    private Texture lastTexture;
+    /** The projection of the sprites */
+    private final Matrix4 projection = new Matrix4();
+    /** The blend function, copied from the sprite batch */
+    private int blendSrc, blendDst;
+    /** Whether the batch is between begin() and end() */
+    private boolean drawing;
+
+    /** The float settings of the next sprites: 1 or 0, mask offset, bob amplitude */
+    private float floating, maskOffset, bobAmplitude;
+
+    /** Number of times the sprites were sent to the GPU since the last begin() */
+    public int renderCalls;
+
+    /**
+     * @param shader the floating item shader
+     * @param size the most sprites to draw in one call
+     */
+    public ItemBatch(ShaderProgram shader, int size) {
+        this.shader = shader;
+        mesh = new Mesh(Mesh.VertexDataType.VertexArray, false, size * 4, size * 6,
+                new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.ColorPacked, 4, ShaderProgram.COLOR_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, 2, ShaderProgram.TEXCOORD_ATTRIBUTE + "0"),
+                new VertexAttribute(VertexAttributes.Usage.Generic, 4, "a_item"));
+        vertices = new float[size * SPRITE_SIZE];
+        short[] indices = new short[size * 6];
+        for (int i = 0, v = 0; i < indices.length; i += 6, v += 4) {
+            indices[i] = (short) v;
+            indices[i + 1] = (short) (v + 1);
+            indices[i + 2] = (short) (v + 2);
+            indices[i + 3] = (short) (v + 2);
+            indices[i + 4] = (short) (v + 3);
+            indices[i + 5] = (short) v;
+        }
+        mesh.setIndices(indices);
+    }
+
+    /**
+     * Start drawing.
+     * @param projection the projection of the sprites
+     * @param blendSrc the source blend function
+     * @param blendDst the destination blend function
+     * @param time the time of the animation of the shader, in seconds
+     */
+    public void begin(Matrix4 projection, int blendSrc, int blendDst, float time) {
+        this.projection.set(projection);
+        this.blendSrc = blendSrc;
+        this.blendDst = blendDst;
+        renderCalls = 0;
+        setNotFloating();
+        Gdx.gl.glDepthMask(false);
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", this.projection);
+        shader.setUniformi("u_texture", 0);
+        shader.setUniformi("mask", 5);
+        shader.setUniformf("time", time);
+        drawing = true;
+    }
+
+    /** Draw what is left and stop drawing. */
+    public void end() {
+        flush();
+        lastTexture = null;
+        drawing = false;
+        Gdx.gl.glDepthMask(true);
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    /** @return whether the batch is between begin() and end() */
+    public boolean isDrawing() { return drawing; }
+
+    /**
+     * Make the next sprites float.
+     * @param maskOffset how far down the frame the mask starts, as a fraction of its height
+     * @param bobAmplitude how far the sprites bob up and down
+     */
+    public void setFloating(float maskOffset, float bobAmplitude) {
+        floating = 1;
+        this.maskOffset = maskOffset;
+        this.bobAmplitude = bobAmplitude;
+    }
+
+    /** Make the next sprites be drawn as they are. */
+    public void setNotFloating() {
+        floating = 0;
+        maskOffset = 0;
+        bobAmplitude = 0;
+    }
+
+    /**
+     * Draw a region, with the same corners as SpriteBatch.draw(TextureRegion, float, float, Affine2).
+     * @param region the region to draw
+     * @param color the packed color tint
+     * @param width the width of the region before the transform
+     * @param height the height of the region before the transform
+     * @param transform the transform of the region
+     */
+    public void draw(TextureRegion region, float color, float width, float height, Affine2 transform) {
+        switchTexture(region.getTexture(), SPRITE_SIZE);
+        float x1 = transform.m02, y1 = transform.m12;
+        float x2 = transform.m01 * height + transform.m02, y2 = transform.m11 * height + transform.m12;
+        float x3 = transform.m00 * width + transform.m01 * height + transform.m02;
+        float y3 = transform.m10 * width + transform.m11 * height + transform.m12;
+        float x4 = transform.m00 * width + transform.m02, y4 = transform.m10 * width + transform.m12;
+        vertex(x1, y1, color, region.getU(), region.getV2(), 1);
+        vertex(x2, y2, color, region.getU(), region.getV(), 0);
+        vertex(x3, y3, color, region.getU2(), region.getV(), 0);
+        vertex(x4, y4, color, region.getU2(), region.getV2(), 1);
+    }
+
+    /**
+     * Draw sprites computed by GameCanvas.spriteVertices(), with the current float settings.
+     * @param texture the texture of the sprites
+     * @param plain the vertices, 20 floats per sprite
+     * @param offset the index of the first float to draw
+     * @param count the number of floats to draw, a multiple of 20
+     */
+    public void draw(Texture texture, float[] plain, int offset, int count) {
+        for (int s = offset; s < offset + count; s += PLAIN_SPRITE_SIZE) {
+            switchTexture(texture, SPRITE_SIZE);
+            for (int v = 0; v < 4; v++) {
+                int i = s + v * 5;
+                vertex(plain[i], plain[i + 1], plain[i + 2], plain[i + 3], plain[i + 4], v == 0 || v == 3 ? 1 : 0);
+            }
+        }
+    }
+
+    /** Add a vertex with the current float settings. */
+    private void vertex(float x, float y, float color, float u, float v, float frameV) {
+        float[] vs = vertices;
+        int i = index;
+        vs[i] = x;
+        vs[i + 1] = y;
+        vs[i + 2] = color;
+        vs[i + 3] = u;
+        vs[i + 4] = v;
+        vs[i + 5] = frameV;
+        vs[i + 6] = floating;
+        vs[i + 7] = maskOffset;
+        vs[i + 8] = bobAmplitude;
+        index = i + VERTEX_SIZE;
+    }
+
+    /** Flush if the next sprite has another texture or does not fit. */
+    private void switchTexture(Texture texture, int floats) {
+        if (texture != lastTexture) {
+            flush();
+            lastTexture = texture;
+        } else if (index + floats > vertices.length) {
+            flush();
+        }
+    }
+
+    /** Draw the sprites added so far. */
+    public void flush() {
+        if (index == 0) { return; }
+        renderCalls++;
+        int sprites = index / SPRITE_SIZE;
+        lastTexture.bind();
+        mesh.setVertices(vertices, 0, index);
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(blendSrc, blendDst);
+        mesh.render(shader, GL20.GL_TRIANGLES, 0, sprites * 6);
+        index = 0;
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+    }
+}
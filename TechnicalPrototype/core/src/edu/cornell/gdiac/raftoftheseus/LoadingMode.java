@@ -12,9 +12,8 @@
  * anything until loading is complete. You know those loading screens with the inane tips 
  * that want to be helpful?  That is asynchronous loading.  
  *
- * This player mode provides a basic loading screen.  While you could adapt it for
- * between level loading, it is currently designed for loading all assets at the 
- * start of the game.
+ * This player mode provides a basic loading screen.  It loads all assets at the
+ * start of the game, and then each level before it is played.
  *
  * Author: Walker M. White
  * Based on original Optimization Lab by Don Holden, 2007
@@ -88,6 +87,8 @@ public class LoadingMode implements Screen, InputProcessor, ControllerListener {
 	private final FrameCalculator fc = new FrameCalculator(0);
 	/** Default budget for asset loader (do nothing but load 60 fps) */
 	private static int DEFAULT_BUDGET = 15;
+	/** Budget for loading a level each frame, leaving the rest of the frame to draw this screen */
+	private static int LEVEL_BUDGET = 12;
 	/** Standard window size (for scaling) */
 	private static int STANDARD_WIDTH  = 1000;
 	/** Standard window height (for scaling) */
@@ -128,6 +129,8 @@ public class LoadingMode implements Screen, InputProcessor, ControllerListener {
 	private int   budget;
 	/** Whether or not this player mode is still active */
 	private boolean active;
+	/** The game mode whose level is being loaded, or null while the assets are loaded */
+	private WorldController level;
 
 	/**
 	 * Returns the budget for the asset loader.
@@ -253,6 +256,21 @@ public class LoadingMode implements Screen, InputProcessor, ControllerListener {
 		active = true;
 	}
 	
+	/**
+	 * Loads the level of the game mode, showing the progress, instead of the assets.
+	 *
+	 * The level must have been started with WorldController.loadLevel(). When it is
+	 * ready to play, the listener is told with the exit code GDXRoot.LEVEL_LOADED.
+	 *
+	 * @param level the game mode loading its level
+	 */
+	public void loadLevel(WorldController level) {
+		this.level = level;
+		progress = 0;
+		loadingComplete = false;
+		Gdx.input.setInputProcessor( this );
+	}
+
 	/**
 	 * Called when this screen should release all resources.
 	 */
@@ -271,6 +289,11 @@ public class LoadingMode implements Screen, InputProcessor, ControllerListener {
 	 * @param delta Number of seconds since last animation frame
 	 */
 	private void update(float delta) {
+		if (level != null) {
+			loadingComplete = level.continueLoading(LEVEL_BUDGET);
+			progress = level.getLoadingProgress();
+			return;
+		}
 		assets.update(budget);
 		this.progress = assets.getProgress();
 		if (progress >= 1.0f) {
@@ -346,7 +369,9 @@ public class LoadingMode implements Screen, InputProcessor, ControllerListener {
 
 			// We are are ready, notify our listener
 			if (isReady() && listener != null) {
-				listener.exitScreen(this, -1);
+				boolean wasLevel = level != null;
+				level = null;
+				listener.exitScreen(this, wasLevel ? GDXRoot.LEVEL_LOADED : -1);
 			}
 		}
 	}
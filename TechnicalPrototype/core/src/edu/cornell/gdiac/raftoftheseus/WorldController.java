@@ -10,16 +10,24 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.utils.*;
 import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.raftoftheseus.events.ProjectileCounters;
+import edu.cornell.gdiac.raftoftheseus.events.WorldStepEvent;
 import edu.cornell.gdiac.raftoftheseus.model.*;
 import edu.cornell.gdiac.raftoftheseus.model.enemy.*;
 import edu.cornell.gdiac.raftoftheseus.model.projectile.Note;
 import edu.cornell.gdiac.raftoftheseus.model.projectile.Spear;
+import edu.cornell.gdiac.raftoftheseus.replay.InputRecorder;
+import edu.cornell.gdiac.raftoftheseus.replay.InputReplay;
+import edu.cornell.gdiac.raftoftheseus.replay.TickInput;
+import edu.cornell.gdiac.raftoftheseus.singleton.FrameProfiler;
+import edu.cornell.gdiac.raftoftheseus.singleton.GameClock;
 import edu.cornell.gdiac.raftoftheseus.singleton.InputController;
 import edu.cornell.gdiac.raftoftheseus.singleton.MusicController;
 import edu.cornell.gdiac.raftoftheseus.singleton.SfxController;
@@ -45,17 +53,24 @@ public class WorldController implements Screen, ContactListener {
         Spear.setConstants(objParams.get("spear"));
         Note.setConstants(objParams.get("note"));
         Shark.setConstants(objParams.get("shark"));
+        LineOfSight.setConstants(objParams.get("shark"));
+        AIScheduler.setConstants(objParams.get("ai"));
         Hydra.setConstants(objParams.get("hydra"));
         Siren.setConstants(objParams.get("siren"));
         Stationary.setConstants(objParams.get("stationary"));
         Shipwreck.setConstants(objParams.get("shipwreck"));
         Current.setConstants(objParams.get("current"));
+        LevelModel.setConstants(objParams.get("culling"));
         JsonValue world = objParams.get("world");
         EXIT_COUNT = world.getInt("exit count", 1000);
         WORLD_STEP = 1/world.getFloat("world step", 60f);
+        GameClock.getInstance().setStep(WORLD_STEP);
         WORLD_VELOCITY = world.getInt("world velocity", 6);
         WORLD_POSIT = world.getInt("world posit", 2);
+        FIXED_STEP = world.getBoolean("fixed step", true);
+        MAX_STEPS = world.getInt("max steps", 5);
         shaderData = objParams.get("shader");
+        SurfMap.setConstants(shaderData);
     }
 
     // CONSTANTS
@@ -69,6 +84,10 @@ public class WorldController implements Screen, ContactListener {
     public static int WORLD_VELOCITY;
     /** Number of position iterations for the constraint solvers */
     public static int WORLD_POSIT;
+    /** Whether the simulation advances in fixed WORLD_STEP ticks, independent of the frame rate */
+    public static boolean FIXED_STEP;
+    /** The most simulation ticks to run in one frame when catching up after a slow frame */
+    public static int MAX_STEPS;
     /** Control settings information for tutorial levels */
     private static JsonValue controlSettings;
 
@@ -140,8 +159,6 @@ public class WorldController implements Screen, ContactListener {
     private boolean debug;
     /** Countdown active for winning or losing */
     private int countdown;
-    /** Find whether an enemy can see the player. */
-    private EnemyRayCast enemySight;
     /** Whether the settings button was pressed */
     private boolean settingsPressed;
     /** Whether the exit button was pressed */
@@ -160,6 +177,28 @@ public class WorldController implements Screen, ContactListener {
     private boolean drawFadeTransition;
     private boolean shouldNext = false;
 
+    // FIXED TIMESTEP
+    /** Frame time that has not yet been simulated, in seconds */
+    private float accumulator = 0f;
+    /** One-shot inputs read by preUpdate, held until a simulation tick consumes them */
+    private boolean chargeQueued, releaseQueued, changeQueued, mapQueued, pausedQueued;
+
+    // INPUT RECORDING
+    /** The input of the tick being simulated */
+    private final TickInput tickInput = new TickInput();
+    /** Where the input of every tick is recorded, or null if it is not */
+    private InputRecorder recorder;
+    /** Where the input of every tick is played back from, or null if it is not */
+    private InputReplay replay;
+    /** Whether this world has no canvas, so it is simulated headless and must run the same on any machine */
+    private final boolean headless;
+
+    // PROFILING
+    /** Measures where the time of each frame goes */
+    private final FrameProfiler profiler = FrameProfiler.getInstance();
+    /** The font of the profiler overlay; null without a canvas */
+    private BitmapFont profilerFont;
+
     // SHADER STUFF
     private float[] raftSamplePositionsXY = new float[16];
     private float[] raftSampleSpeeds = new float[8];
@@ -174,6 +213,8 @@ public class WorldController implements Screen, ContactListener {
      */
     protected WorldController(GameCanvas canvas) {
         this.canvas = canvas;
+        this.headless = canvas == null;
+        aiScheduler.setDeterministic(headless);
         levelModel = new LevelModel(canvas);
         this.complete = false;
         this.wasComplete = false;
@@ -185,16 +226,31 @@ public class WorldController implements Screen, ContactListener {
         this.playerScore = 0;
         this.nextPressed = false;
         this.exitPressed = false;
-        this.stage = new Stage();
-        this.skin = new Skin(Gdx.files.internal("skins/default/uiskin.json"));
-        setSkinFonts();
-        this.table = new Table();
-        enemySight = new EnemyRayCast();
+        if (canvas != null) {
+            this.stage = new Stage();
+            this.skin = new Skin(Gdx.files.internal("skins/default/uiskin.json"));
+            setSkinFonts();
+            this.table = new Table();
+            this.profilerFont = new BitmapFont();
+            profiler.setGraphics(Gdx.graphics);
+        }
+        ProjectileCounters.register();
         startTime = System.currentTimeMillis();
         pauseBuilt = false;
         transitionBuilt = false;
     }
 
+    /**
+     * Creates a game world with no canvas, UI or lights.
+     *
+     * Such a world can only be stepped with preUpdate(), update(), postUpdate() and animate(),
+     * and levels must be started with startLevel(). This is what the headless runner uses, so its
+     * enemy AI is scheduled the same way on every machine.
+     */
+    public WorldController() {
+        this(null);
+    }
+
     /*=*=*=*=*=*=*=*=*=* Draw and Canvas *=*=*=*=*=*=*=*=*=*/
 
     /**
@@ -241,10 +297,6 @@ public class WorldController implements Screen, ContactListener {
             return; // return if no canvas pointer
         canvas.clear();
 
-        // update animations
-        levelModel.getPlayer().updateSpear(dt, firePixel);
-        levelModel.setAnimationFrame(dt);
-
         // Update raft samples (for displaying the wake in the shader) before drawing water
         updateRaftWakeSamples();
 
@@ -287,6 +339,19 @@ public class WorldController implements Screen, ContactListener {
         drawFadeTransition(dt);
     }
 
+    /**
+     * Advances the animations that gameplay waits on, and moves the held spear with the raft.
+     *
+     * The spear is ready to fire and a shark finishes its bite at the end of their animations, so
+     * this is part of every simulation tick, and is called even when nothing is drawn.
+     *
+     * @param dt	Number of seconds simulated
+     */
+    public void animate(float dt) {
+        levelModel.getPlayer().updateSpear(dt, firePixel);
+        levelModel.setAnimationFrame(dt);
+    }
+
     private void resetControlHints(){
         hintTimer = 0;
         blockHint = false;
@@ -633,7 +698,7 @@ public class WorldController implements Screen, ContactListener {
         waterUVOffset.setWrap(Texture.TextureWrap.Repeat, Texture.TextureWrap.Repeat);
         Texture floatingItemMask = directory.getEntry("floating_item_mask", Texture.class);
         floatingItemMask.setWrap(Texture.TextureWrap.Repeat, Texture.TextureWrap.ClampToEdge);
-        canvas.setWaterTextures(waterDiffuse, waterNormal, waterUVOffset, floatingItemMask);
+        if (canvas != null) { canvas.setWaterTextures(waterDiffuse, waterNormal, waterUVOffset, floatingItemMask); }
 
         // level model assets
         levelModel.setDirectory(directory);
@@ -676,14 +741,147 @@ public class WorldController implements Screen, ContactListener {
     @Override
     public void render(float delta) {
         if (active) {
-            if (preUpdate(delta)) { // Check for level reset and win/lose condition
-                update(delta); // Update player actions, set Forces, and update enemy AI
-                postUpdate(delta); // Call Physics Engine
+            profiler.beginFrame();
+            profiler.begin(FrameProfiler.Phase.PRE_UPDATE);
+            boolean running = preUpdate(delta); // Check for level reset and win/lose condition
+            profiler.end(FrameProfiler.Phase.PRE_UPDATE);
+            if (running) {
+                if (FIXED_STEP) {
+                    stepFixed(delta); // Simulate in constant ticks, however long the frame was
+                } else {
+                    tick(delta);
+                }
             }
+            profiler.begin(FrameProfiler.Phase.ADVANCE_FRAME);
+            advanceFrame(delta);
+            profiler.end(FrameProfiler.Phase.ADVANCE_FRAME);
             draw(delta); // Draw to canvas
+            profiler.endFrame();
+            if (profiler.isEnabled() && canvas != null) { canvas.drawProfiler(profiler, profilerFont); }
         }
     }
 
+    /**
+     * Runs one simulation tick, timing each phase of it when profiling.
+     *
+     * @param dt	Number of seconds simulated
+     */
+    private void tick(float dt) {
+        profiler.begin(FrameProfiler.Phase.UPDATE);
+        update(dt); // Update player actions, set Forces, and update enemy AI
+        profiler.end(FrameProfiler.Phase.UPDATE);
+        profiler.begin(FrameProfiler.Phase.POST_UPDATE);
+        postUpdate(dt); // Call Physics Engine
+        animate(dt);
+        profiler.end(FrameProfiler.Phase.POST_UPDATE);
+    }
+
+    /**
+     * Readies the level to be drawn this frame: moving objects are placed between the last two
+     * simulation ticks, the lights are cast from where those objects are drawn, and scenery that
+     * nothing in the simulation waits on is animated.
+     *
+     * Nothing here may change gameplay, or a replay would play out differently at another frame rate.
+     *
+     * @param dt	Number of seconds since last animation frame
+     */
+    private void advanceFrame(float dt) {
+        levelModel.interpolateTransforms();
+        levelModel.updateLights();
+        levelModel.animateScenery(dt);
+    }
+
+    /** Writes the frames the profiler has kept to a new CSV file in the working directory. */
+    private void dumpProfile() {
+        FileHandle file = Gdx.files.local("profile-" + System.currentTimeMillis() + ".csv");
+        profiler.writeCSV(file);
+        System.out.println("Wrote " + profiler.size() + " frames of profile to " + file.path());
+    }
+
+    /**
+     * Runs as many WORLD_STEP simulation ticks as the elapsed frame time allows.
+     *
+     * Leftover time is carried to the next frame, and drawing blends moving objects between
+     * the last two ticks by that leftover. After a very slow frame at most MAX_STEPS ticks
+     * are run and the rest of the backlog is dropped, so the game slows down instead of
+     * spending ever longer catching up.
+     *
+     * @param delta Number of seconds since last animation frame
+     */
+    private void stepFixed(float delta) {
+        accumulator = Math.min(accumulator + delta, MAX_STEPS * WORLD_STEP);
+        while (accumulator >= WORLD_STEP) {
+            levelModel.snapshotTransforms();
+            tick(WORLD_STEP);
+            accumulator -= WORLD_STEP;
+        }
+        levelModel.setInterpolationAlpha(accumulator / WORLD_STEP);
+    }
+
+    /** Holds on to the one-shot inputs of this frame until the next simulation tick. */
+    private void queueActions(InputController input) {
+        chargeQueued |= input.didCharge();
+        releaseQueued |= input.didRelease();
+        changeQueued |= input.didChange();
+    }
+
+    /** Drops any one-shot inputs that no simulation tick has used. */
+    private void clearActions() {
+        chargeQueued = false;
+        releaseQueued = false;
+        changeQueued = false;
+        mapQueued = false;
+        pausedQueued = false;
+    }
+
+    /** @return whether the ticks being simulated take their input from a replay rather than the player */
+    private boolean isReplaying() { return replay != null && replay.hasNext(); }
+
+    /**
+     * Gathers the input of the tick about to be simulated into tickInput, from the player or from a replay,
+     * and records it if recording.
+     */
+    private void readTickInput() {
+        if (isReplaying()) {
+            replay.next(tickInput);
+            if (tickInput.map && !complete && !failed) { map = !map; }
+        } else {
+            InputController ic = InputController.getInstance();
+            tickInput.movement.set(ic.getMovement());
+            tickInput.aim.set(ic.getMouseLocation());
+            levelModel.getCameraTransform().inv().applyTo(tickInput.aim);
+            tickInput.charge = chargeQueued;
+            tickInput.release = releaseQueued;
+            tickInput.change = changeQueued;
+            tickInput.map = mapQueued;
+            tickInput.paused = pausedQueued;
+            if (recorder != null) { recorder.record(tickInput); }
+        }
+        clearActions();
+    }
+
+    /**
+     * Records the input of every tick from now on, until this world is disposed.
+     * @param recorder where to record the input
+     */
+    public void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+        aiScheduler.setDeterministic(headless || recorder != null || replay != null);
+    }
+
+    /**
+     * Plays the recorded input back instead of the player's, one recorded run per level start. Once every
+     * run has been played, the player takes over.
+     * @param replay the recorded input
+     */
+    public void setReplay(InputReplay replay) {
+        this.replay = replay;
+        aiScheduler.setDeterministic(headless || recorder != null || replay != null);
+    }
+
+    /** @return the recorded input being played back, or null if there is none */
+    public InputReplay getReplay() { return replay; }
+
     /**
      * Returns whether to process the update loop.
      * At the start of the update loop, we check if it is time
@@ -694,19 +892,20 @@ public class WorldController implements Screen, ContactListener {
      * @return whether to process the update loop
      */
     public boolean preUpdate(float dt) {
-        // NEW*: Ask the level model to process current effects on objects and light effects :*NEW
         // Update camera to prevent null pointer exceptions
         levelModel.updateCameraTransform();
-        levelModel.updateAllCurrentEffects(dt);
-        levelModel.updateLights();
 
         // Read the player input
         InputController input = InputController.getInstance();
         input.readInput();
+        queueActions(input);
         if (input.didDebug()) { debug = !debug; } // Toggle debug
-        if (input.didMap() && !complete && !failed) {
+        if (input.didProfiler()) { profiler.setEnabled(!profiler.isEnabled()); } // Toggle profiler
+        if (input.didProfilerDump() && profiler.size() > 0) { dumpProfile(); }
+        if (input.didMap() && !complete && !failed && !isReplaying()) {
             // Toggle map
             map = !map;
+            mapQueued = true;
             SfxController.getInstance().playSFX("map_open");
         }
 
@@ -730,6 +929,7 @@ public class WorldController implements Screen, ContactListener {
         } else if (input.didPause()) {
             if (pausePressed) { // unpause
                 resetPausePressed();
+                pausedQueued = true;
                 return true;
             } else if (!complete && !failed) {
                 pause();
@@ -738,6 +938,7 @@ public class WorldController implements Screen, ContactListener {
             }
         }
         if (pausePressed) {
+            clearActions(); // clicks on the pause menu are not game actions
             return false;
         } else if (input.didPrevious()) {
             pause();
@@ -745,6 +946,9 @@ public class WorldController implements Screen, ContactListener {
             return false;
         } else if (input.didReset()) {
             reset();
+        } else if (replay != null && !replay.hasNext() && replay.peekRun() != null && !complete && !failed) {
+            // the recorded run was cut short by a restart or a level change, so make the same one
+            setLevel(replay.peekRun().levelId, replay.peekRun().levelId == level_id);
         }
         // Then, handle resets trigger by completed or failed
         if (complete || failed) { return false; }
@@ -765,20 +969,24 @@ public class WorldController implements Screen, ContactListener {
 
     // Boolean to keep track of charging for sound effects
     private boolean wasCharging = false;
-    // Vector2 to store mouse position in pixel coordinates.
-    private Vector2 firePixel;
+    // Vector2 to store mouse position in world coordinates.
+    private Vector2 firePixel = new Vector2();
 
     /** The core gameplay loop of this world. This method is called after input is read, but before collisions
      * are resolved. The very last thing that it should do is apply forces to the appropriate objects.
      * @param dt	Number of seconds since last animation frame */
     public void update(float dt){
+        // Drift objects along the currents
+        levelModel.updateAllCurrentEffects(dt);
+
         // Process actions in object model
-        InputController ic = InputController.getInstance();
-        firePixel = ic.getMouseLocation();
-        levelModel.getCameraTransform().inv().applyTo(firePixel);
+        readTickInput();
+        boolean didRelease = tickInput.release;
+        boolean didChange = tickInput.change;
+        firePixel.set(tickInput.aim);
         Raft player = levelModel.getPlayer();
-        player.setMovementInput(ic.getMovement());
-        player.beginCharging(ic.didCharge());
+        player.setMovementInput(tickInput.movement);
+        player.beginCharging(tickInput.charge);
 
         // Play sfx
         if(!wasCharging && player.isCharging()){
@@ -786,13 +994,13 @@ public class WorldController implements Screen, ContactListener {
             SfxController.getInstance().playSFX("spear_charge");
         }
 
-        if(!player.canFire() && ic.didRelease()) { player.reverseFire(); wasCharging = false; } // cancel fire if player release before time
+        if(!player.canFire() && didRelease) { player.reverseFire(); wasCharging = false; } // cancel fire if player release before time
 
         // Create spear when possible
         if(player.canFire() && !player.hasSpear()){ levelModel.createSpear(); }
 
         // Move spear move after firing.
-        if (player.canFire() && ic.didRelease() && player.hasSpear()) {
+        if (player.canFire() && didRelease && player.hasSpear()) {
             // find the nearest enemy to player
             player.resetCanFire();
             levelModel.fireSpear(firePixel);
@@ -806,9 +1014,14 @@ public class WorldController implements Screen, ContactListener {
         resolveEnemies(dt);
 
         // update light choice
-        if(ic.didChange()){ levelModel.change(debug); }
+        if(didChange){ levelModel.change(debug); }
     }
 
+    /** Decides which enemies run their AI each tick */
+    private final AIScheduler aiScheduler = new AIScheduler();
+    /** Cache for the results of spatial index queries */
+    private final Array<GameObject> nearbyCache = new Array<>();
+
     /** get enemies take actions according to their AI */
     private void resolveEnemies(float dt) {
 
@@ -819,12 +1032,21 @@ public class WorldController implements Screen, ContactListener {
 //            h.update(dt);
 //        }
 
-        for(Shark s : levelModel.getSharks()){
-            updateLineOfSight(s);
-            s.updateAI(dt);
-        }
+        // sharks only use sight within approach range, so only check sight for the sharks near the player
+        for(Shark s : levelModel.getSharks()){ s.canSee = false; }
+        Vector2 playerPos = levelModel.getPlayer().getPosition();
+        nearbyCache.clear();
+        levelModel.getSpatialIndex().queryRadius(playerPos.x, playerPos.y, Shark.APPROACH_RANGE, GameObject.ObjectType.SHARK, nearbyCache);
+        for(GameObject s : nearbyCache){ updateLineOfSight((Shark) s); }
+        nearbyCache.clear();
+        // the distance field only changes when the raft reaches another tile
+        levelModel.getNavigationField().setTarget(playerPos.x, playerPos.y);
+        // far enemies run their AI less often
+        aiScheduler.begin(playerPos, levelModel.getViewBounds());
+        for(Shark s : levelModel.getSharks()){ aiScheduler.schedule(s, dt); }
+        for(Siren s : levelModel.getSirens()){ aiScheduler.schedule(s, dt); }
+        aiScheduler.end();
         for(Siren s : levelModel.getSirens()){
-            s.updateAI(dt);
             if(s.willAttack()){
                 SfxController.getInstance().playSFX("note_fire");
                 levelModel.createNote(s.getPosition().cpy(), s.getTargetDirection(levelModel.getPlayerCurrentVelocity()));
@@ -833,9 +1055,7 @@ public class WorldController implements Screen, ContactListener {
     }
 
     private void updateLineOfSight(Shark s) {
-        enemySight.reset();
-        levelModel.world.rayCast(enemySight, s.getPosition(), levelModel.getPlayer().getPosition());
-        s.canSee = enemySight.getCanSee();
+        s.canSee = levelModel.getLineOfSight().canSee(levelModel.world, s.getPosition(), levelModel.getPlayer().getPosition());
     }
 
     /** Processes physics
@@ -849,7 +1069,17 @@ public class WorldController implements Screen, ContactListener {
         }
 
         // Turn the physics engine crank.
+        WorldStepEvent stepEvent = WorldStepEvent.isRecorded() ? new WorldStepEvent() : null; // none made per tick unless recorded
+        if (stepEvent != null) { stepEvent.begin(); }
         levelModel.world.step(WORLD_STEP, WORLD_VELOCITY,WORLD_POSIT);
+        if (stepEvent != null) {
+            stepEvent.end();
+            if (stepEvent.shouldCommit()) {
+                stepEvent.bodies = levelModel.world.getBodyCount();
+                stepEvent.contacts = levelModel.world.getContactCount();
+                stepEvent.commit();
+            }
+        }
 
         // update player health based on movement and distance, then check if dead
         Raft player = levelModel.getPlayer();
@@ -871,6 +1101,8 @@ public class WorldController implements Screen, ContactListener {
                 levelModel.checkProjectile((Note) obj);
             }
             if (obj.isDestroyed()) {
+                if (obj.getType() == GameObject.ObjectType.SPEAR) { ProjectileCounters.spearDestroyed(); }
+                else if (obj.getType() == GameObject.ObjectType.NOTE) { ProjectileCounters.noteDestroyed(); }
                 obj.deactivatePhysics(levelModel.world);
                 entry.remove();
                 levelModel.removeObj(obj); // always non-null
@@ -879,8 +1111,12 @@ public class WorldController implements Screen, ContactListener {
                 obj.update(dt);
             }
         }
-        resolveMusic();
+        levelModel.updateSpatialIndex();
+        if (canvas != null) { resolveMusic(); } // no level music is started without a canvas
         resolveSFX(player);
+
+        // Timers only count simulated time, and run their tasks here
+        GameClock.getInstance().advance(dt);
     }
 
     // Store information about enemies.
@@ -890,20 +1126,10 @@ public class WorldController implements Screen, ContactListener {
     /** Update the level themed music according the game status */
     private void resolveMusic() {
         // Get danger
-        boolean sharkNow = false;
-        boolean sirenNow = false;
-        for(Shark s : levelModel.getSharks()){
-            if(s.getTargetDistance() < 12f){
-                sharkNow = true;
-                break;
-            }
-        }
-        for(Siren s : levelModel.getSirens()){
-            if(s.getTargetDistance() < 12f){
-                sirenNow = true;
-                break;
-            }
-        }
+        Vector2 playerPos = levelModel.getPlayer().getPosition();
+        SpatialHash index = levelModel.getSpatialIndex();
+        boolean sharkNow = index.nearest(playerPos.x, playerPos.y, GameObject.ObjectType.SHARK, 12f) != null;
+        boolean sirenNow = index.nearest(playerPos.x, playerPos.y, GameObject.ObjectType.SIREN, 12f) != null;
 
         // Update music
         if(USE_THREAD) {
@@ -974,7 +1200,9 @@ public class WorldController implements Screen, ContactListener {
      * @param height The new height in pixels
      */
     @Override
-    public void resize(int width, int height) {}
+    public void resize(int width, int height) {
+        if (levelModel != null) { levelModel.resizeLightMap(); }
+    }
 
     /**
      * Called when the Screen is paused.
@@ -992,7 +1220,15 @@ public class WorldController implements Screen, ContactListener {
      */
     @Override
     public void dispose() {
+        if (recorder != null) {
+            recorder.close();
+            recorder = null;
+        }
         levelModel.dispose();
+        if (profilerFont != null) {
+            profilerFont.dispose();
+            profilerFont = null;
+        }
         canvas = null;
     }
 
@@ -1104,7 +1340,6 @@ public class WorldController implements Screen, ContactListener {
             if(sw.noHealth()){
                 sw.setDestroyed(true);
                 levelModel.addWood(sw.getPosition(), Shipwreck.getDrops());
-                canvas.recalculation_required = true; // remove shipwreck surf
             }
             SfxController.getInstance().playSFX("raft_damage");
         }
@@ -1135,12 +1370,7 @@ public class WorldController implements Screen, ContactListener {
                 SfxController.getInstance().playSFX("raft_damage");
 //            g.setDestroyed(true);
                 r.setDamaged(true);
-                Timer.schedule(new Timer.Task() {
-                    @Override
-                    public void run() {
-                        r.setDamaged(false);
-                    }
-                }, 2f, 1, 1);
+                GameClock.getInstance().schedule(2f, () -> r.setDamaged(false));
             }
         } else if(g.getType() == GameObject.ObjectType.TREASURE){
             // add random wood and update player score
@@ -1154,12 +1384,7 @@ public class WorldController implements Screen, ContactListener {
                 if (!r.isDamaged()) {
                     r.addHealth(Stationary.getSharpRockDamage());
                     r.setDamaged(true);
-                    Timer.schedule(new Timer.Task() {
-                        @Override
-                        public void run() {
-                            r.setDamaged(false);
-                        }
-                    }, 2, 1, 1);
+                    GameClock.getInstance().schedule(2f, () -> r.setDamaged(false));
                     SfxController.getInstance().playSFX("raft_damage");
                 }
             }
@@ -1234,6 +1459,16 @@ public class WorldController implements Screen, ContactListener {
      */
     public boolean isFailure( ) {return failed;}
 
+    /**
+     * Returns true if the level is completed.
+     *
+     * @return true if the level is completed.
+     */
+    public boolean isComplete( ) {return complete;}
+
+    /** @return the model of the level being played */
+    public LevelModel getLevelModel() { return levelModel; }
+
     /**
      * Sets whether the level is failed.
      *
@@ -1262,6 +1497,12 @@ public class WorldController implements Screen, ContactListener {
 
     /** The current level id. */
     private int level_id = 0;
+    /** The json of the level being loaded */
+    private JsonValue loadingData;
+    /** Whether the level being loaded is restarted, rather than started */
+    private boolean loadingReset;
+    /** Whether the level being loaded is the one played before */
+    private boolean loadingSameLevel;
 
     /**
      * Populate the level according to the new level selection.
@@ -1269,25 +1510,71 @@ public class WorldController implements Screen, ContactListener {
      * This method disposes of the world and creates a new one.
      */
     public void setLevel(int level_int, boolean reset){
+        beginLevel(level_int, reset, false);
+        levelModel.continueLoad(Long.MAX_VALUE);
+        finishLevel();
+    }
+
+    /**
+     * Starts loading a level in the background, to be finished by calling continueLoading() every frame.
+     * The layout of the level is read on a worker thread, and its objects are added a batch at a time.
+     * <p>
+     * This method disposes of the world and creates a new one.
+     *
+     * @param level_int the level id
+     */
+    public void loadLevel(int level_int){
+        beginLevel(level_int, false, true);
+    }
+
+    /**
+     * Keeps loading the level started by loadLevel(), and gets it ready to play once it is loaded.
+     *
+     * @param millis about how long to load for
+     * @return whether the level is ready to play
+     */
+    public boolean continueLoading(int millis){
+        if (!levelModel.continueLoad(millis * 1000000L)) { return false; }
+        finishLevel();
+        return true;
+    }
+
+    /** @return how much of the level started by loadLevel() is loaded, from 0 to 1 */
+    public float getLoadingProgress(){ return levelModel.getLoadProgress(); }
+
+    /**
+     * Empties the world and starts loading a level.
+     *
+     * @param level_int the level id
+     * @param reset whether the level is restarted, rather than started
+     * @param background whether to read the layout of the level on a worker thread
+     */
+    private void beginLevel(int level_int, boolean reset, boolean background){
         // check if load the same level, if not, reset lerp vector
-        boolean same_level = level_int == level_id;
-        level_id = level_int;
-        JsonValue level_data = directory.getEntry("level:" + level_int, JsonValue.class);
+        loadingSameLevel = level_int == level_id;
+        loadingReset = reset;
+        loadingData = directory.getEntry("level:" + level_int, JsonValue.class);
+        beginStart(level_int);
+        levelModel.beginLoad(level_int, loadingData, background);
+    }
+
+    /** Gets the loaded level ready to play: the UI, the music and the shader. */
+    private void finishLevel(){
+        int level_int = level_id;
+        boolean reset = loadingReset;
+        boolean same_level = loadingSameLevel;
+        JsonValue level_data = loadingData;
+        loadingData = null;
         System.out.println("Loaded level "+level_int);
-        emptyLevel();
-        levelModel.loadLevel(level_int, level_data);
+        endStart();
         stage.clear();
         table.clear();
-        playerScore = 0;
         skin = new Skin(Gdx.files.internal("skins/default/uiskin.json"));
         setSkinFonts();
         transitionBuilt = false;
         pausePressed = false;
         pauseBuilt = false;
         settingsPressed = false;
-        wasComplete = false;
-        wasMoving = false;
-        wasCharging = false;
         drawFadeTransition = true;
         transitionTimer = 0f;
 
@@ -1344,6 +1631,65 @@ public class WorldController implements Screen, ContactListener {
         if(!same_level) { levelModel.resetLerp(); }
     }
 
+    /**
+     * Empties the world and populates it with the given level, resetting the level status.
+     * <p>
+     * Unlike setLevel(), this touches no UI, audio or canvas state, so it is safe without a canvas.
+     *
+     * @param level_int the level id, which decides the difficulty
+     * @param level_data the Tiled json of the level
+     */
+    public void startLevel(int level_int, JsonValue level_data) {
+        beginStart(level_int);
+        levelModel.loadLevel(level_int, level_data);
+        endStart();
+    }
+
+    /**
+     * Empties the world and resets what the level status depends on before the level is loaded.
+     * @param level_int the level id
+     */
+    private void beginStart(int level_int) {
+        level_id = level_int;
+        emptyLevel();
+        GameClock.getInstance().reset(); // before loading, as objects may start timers when created
+        long seed = nextSeed(level_int);
+        MathUtils.random.setSeed(seed);
+        aiScheduler.reset();
+        if (recorder != null) { recorder.beginRun(level_int, seed, WORLD_STEP); }
+    }
+
+    /** Resets the level status once the level is loaded. */
+    private void endStart() {
+        playerScore = 0;
+        wasComplete = false;
+        wasMoving = false;
+        wasCharging = false;
+        accumulator = 0f;
+        clearActions();
+        levelModel.setInterpolationAlpha(FIXED_STEP ? 0f : -1f);
+    }
+
+    /**
+     * Picks the seed of the game's random numbers for a level start: the recorded one when replaying,
+     * a fresh one otherwise.
+     * @param level_int the level id being started
+     * @return the seed
+     */
+    private long nextSeed(int level_int) {
+        if (replay != null) {
+            InputReplay.Run run = replay.nextRun();
+            if (run != null) {
+                if (run.levelId != level_int || run.step != WORLD_STEP) {
+                    System.out.println("Replay was recorded on level " + run.levelId + " at step " + run.step
+                            + ", not level " + level_int + " at step " + WORLD_STEP + "; it will not play the same");
+                }
+                return run.seed;
+            }
+        }
+        return System.nanoTime();
+    }
+
     /**
      * Resets the status of the game so that we can play again.
      * <p>
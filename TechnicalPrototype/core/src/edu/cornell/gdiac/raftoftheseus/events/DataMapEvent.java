@@ -0,0 +1,46 @@
+package edu.cornell.gdiac.raftoftheseus.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flow map or the surf map of the water shader being made or brought up to date, for Java Flight
+ * Recorder.
+ */
+@Name("edu.cornell.gdiac.raftoftheseus.DataMap")
+@Label("Data Map")
+@Category({"Raft of Theseus", "Rendering"})
+@Description("Flow and surf maps loaded, recalculated or updated")
+public class DataMapEvent extends Event {
+    /** What was done: "load", "recalculate", "update surf" or "bake" */
+    @Label("Kind")
+    public String kind;
+
+    @Label("Cached")
+    @Description("Whether the maps were read from the baked data map cache instead of drawn")
+    public boolean cached;
+
+    @Label("Columns")
+    public int columns;
+
+    @Label("Rows")
+    public int rows;
+
+    /**
+     * @param kind what is done
+     * @param columns the width of the flow map, in tiles
+     * @param rows the height of the flow map, in tiles
+     * @return the event, started
+     */
+    public static DataMapEvent start(String kind, int columns, int rows) {
+        DataMapEvent e = new DataMapEvent();
+        e.kind = kind;
+        e.columns = columns;
+        e.rows = rows;
+        e.begin();
+        return e;
+    }
+}
@@ -0,0 +1,39 @@
+package edu.cornell.gdiac.raftoftheseus.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A phase of loading a level in LevelModel.loadLevel(), for Java Flight Recorder.
+ *
+ * Usage is as follows: start() before the phase, commit() after it. Like every event here, it costs
+ * next to nothing when it is not being recorded: the JIT removes the allocation and the checks.
+ */
+@Name("edu.cornell.gdiac.raftoftheseus.LevelLoad")
+@Label("Level Load")
+@Category({"Raft of Theseus", "Level"})
+@Description("A phase of loading a level")
+public class LevelLoadEvent extends Event {
+    @Label("Level")
+    @Description("The level id, or -1 for a restart of the same level")
+    public int level;
+
+    @Label("Phase")
+    public String phase;
+
+    /**
+     * @param level the level id, or -1 for a restart
+     * @param phase the name of the phase
+     * @return the event, started
+     */
+    public static LevelLoadEvent start(int level, String phase) {
+        LevelLoadEvent e = new LevelLoadEvent();
+        e.level = level;
+        e.phase = phase;
+        e.begin();
+        return e;
+    }
+}
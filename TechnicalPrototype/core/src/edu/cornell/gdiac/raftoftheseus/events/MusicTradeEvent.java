@@ -0,0 +1,25 @@
+package edu.cornell.gdiac.raftoftheseus.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A track of the music being faded in or out, for Java Flight Recorder.
+ */
+@Name("edu.cornell.gdiac.raftoftheseus.MusicTrade")
+@Label("Music Trade")
+@Category({"Raft of Theseus", "Audio"})
+public class MusicTradeEvent extends Event {
+    @Label("Track")
+    public String track;
+
+    @Label("Fade In")
+    public boolean fadeIn;
+
+    @Label("Changed")
+    @Description("Whether the track was not already fading that way")
+    public boolean changed;
+}
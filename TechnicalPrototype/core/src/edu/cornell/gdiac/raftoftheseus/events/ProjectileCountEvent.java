@@ -0,0 +1,32 @@
+package edu.cornell.gdiac.raftoftheseus.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * The projectile counters, for Java Flight Recorder, which takes them every second (@see ProjectileCounters).
+ */
+@Name("edu.cornell.gdiac.raftoftheseus.ProjectileCount")
+@Label("Projectile Count")
+@Category({"Raft of Theseus", "Gameplay"})
+@Description("Projectiles spawned and destroyed since the game started")
+@Period("1 s")
+@StackTrace(false)
+public class ProjectileCountEvent extends Event {
+    @Label("Spears Spawned")
+    public long spearsSpawned;
+
+    @Label("Spears Destroyed")
+    public long spearsDestroyed;
+
+    @Label("Notes Spawned")
+    public long notesSpawned;
+
+    @Label("Notes Destroyed")
+    public long notesDestroyed;
+}
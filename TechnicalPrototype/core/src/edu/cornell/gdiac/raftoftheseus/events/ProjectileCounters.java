@@ -0,0 +1,63 @@
+package edu.cornell.gdiac.raftoftheseus.events;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the projectiles spawned and destroyed since the game started.
+ *
+ * The game counts them as it goes, and Java Flight Recorder reads them on a thread of its own every
+ * second, so the counts are LongAdders: counting takes no lock, and the game never waits on the
+ * recorder. Counting costs about the same whether the recorder is on or not. The counts are only
+ * recorded once register() has been called, which the world controller does.
+ */
+public class ProjectileCounters {
+    private static final LongAdder spearsSpawned = new LongAdder();
+    private static final LongAdder spearsDestroyed = new LongAdder();
+    private static final LongAdder notesSpawned = new LongAdder();
+    private static final LongAdder notesDestroyed = new LongAdder();
+
+    /** Whether the recorder takes the counts */
+    private static boolean registered;
+
+    private ProjectileCounters() {}
+
+    /** Have Java Flight Recorder take the counts every second from now on, if it does not already. */
+    public static synchronized void register() {
+        if (registered) { return; }
+        registered = true;
+        FlightRecorder.addPeriodicEvent(ProjectileCountEvent.class, () -> {
+            ProjectileCountEvent e = new ProjectileCountEvent();
+            e.spearsSpawned = spearsSpawned.sum();
+            e.spearsDestroyed = spearsDestroyed.sum();
+            e.notesSpawned = notesSpawned.sum();
+            e.notesDestroyed = notesDestroyed.sum();
+            e.commit();
+        });
+    }
+
+    /** A spear was made, ready to throw. */
+    public static void spearSpawned() { spearsSpawned.increment(); }
+
+    /** A spear was removed from the world. */
+    public static void spearDestroyed() { spearsDestroyed.increment(); }
+
+    /** A siren fired a note. */
+    public static void noteSpawned() { notesSpawned.increment(); }
+
+    /** A note was removed from the world. */
+    public static void noteDestroyed() { notesDestroyed.increment(); }
+
+    /** @return the spears made so far */
+    public static long getSpearsSpawned() { return spearsSpawned.sum(); }
+
+    /** @return the spears removed so far */
+    public static long getSpearsDestroyed() { return spearsDestroyed.sum(); }
+
+    /** @return the notes fired so far */
+    public static long getNotesSpawned() { return notesSpawned.sum(); }
+
+    /** @return the notes removed so far */
+    public static long getNotesDestroyed() { return notesDestroyed.sum(); }
+}
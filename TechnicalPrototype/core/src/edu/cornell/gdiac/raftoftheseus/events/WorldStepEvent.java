@@ -0,0 +1,30 @@
+package edu.cornell.gdiac.raftoftheseus.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One step of the Box2D world, for Java Flight Recorder. The counts are taken after the step.
+ *
+ * The world steps every tick, so check isRecorded() before making one: when nothing records it, no event
+ * needs to be made at all.
+ */
+@Name("edu.cornell.gdiac.raftoftheseus.WorldStep")
+@Label("World Step")
+@Category({"Raft of Theseus", "Physics"})
+public class WorldStepEvent extends Event {
+    @Label("Bodies")
+    public int bodies;
+
+    @Label("Contacts")
+    public int contacts;
+
+    /** The type of this event, which knows whether any recording takes it */
+    private static final EventType TYPE = EventType.getEventType(WorldStepEvent.class);
+
+    /** @return whether a recording is running that takes this event */
+    public static boolean isRecorded() { return TYPE.isEnabled(); }
+}
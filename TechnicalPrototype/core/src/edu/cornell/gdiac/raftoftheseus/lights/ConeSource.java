@@ -4,7 +4,7 @@
  * This is an subclass of ConeLight from Box2D.  As with ConeLight, it is a directional 
  * light that sweeps through a given angle.  
  *
- * This class is an implementation of LightSource, and so it exposes certain internals
+ * This class is an implementation of RayLightSource, and so it exposes certain internals
  * hidden in PointLight (e.g. protecteds that need direct access).  This helps with the
  * design as we can now treat this light as a proper model, as opposed to a poorly 
  * designed controller.
@@ -21,7 +21,7 @@ import com.badlogic.gdx.physics.box2d.Filter;
 /**
  * A light shaped as a circle's sector with a radius, direction and angle
  */
-public class ConeSource extends ConeLight implements LightSource {
+public class ConeSource extends ConeLight implements RayLightSource {
 	/** The default distance for a cone source light */
 	private static float DEFAULT_DISTANCE = 15.0f;
 	/** The default (half) cone witdth */
@@ -29,6 +29,8 @@ public class ConeSource extends ConeLight implements LightSource {
 	
 	/** Copy of the collision filter.  Necessary because the original version is private */
 	protected Filter collisions;
+	/** The number of rays the light was made with, which its meshes have room for */
+	protected int maxRays;
 	
 	/**
 	 * Creates light shaped as a circle with default radius, color and cone settings.
@@ -50,6 +52,7 @@ public class ConeSource extends ConeLight implements LightSource {
 	 */
 	public ConeSource(RayHandler rayHandler, int rays) {
 		super(rayHandler, rays, DEFAULT_COLOR, DEFAULT_DISTANCE, 0, 0, 0, DEFAULT_ANGLE);
+		maxRays = rayNum;
 	}
 	
 	/**
@@ -76,6 +79,7 @@ public class ConeSource extends ConeLight implements LightSource {
 	 */
 	public ConeSource(RayHandler rayHandler, int rays, float distance, float coneDegree) {
 		super(rayHandler, rays, DEFAULT_COLOR, distance, 0, 0, 0, coneDegree);
+		maxRays = rayNum;
 	}
 	
 	/**
@@ -104,6 +108,7 @@ public class ConeSource extends ConeLight implements LightSource {
 	public ConeSource(RayHandler rayHandler, int rays, Color color, float distance, 
 					  float x, float y, float direction, float coneDegree) {
 		super(rayHandler, rays, color, distance, x, y, direction, coneDegree);
+		maxRays = rayNum;
 	}
 	
 	@Override
@@ -156,4 +161,27 @@ public class ConeSource extends ConeLight implements LightSource {
 		collisions.maskBits = maskBits;
 		super.setContactFilter(collisions);
 	}
+
+	@Override
+	public int getMaxRays() {
+		return maxRays;
+	}
+
+	@Override
+	public void setRays(int rays) {
+		rays = Math.max(MIN_RAYS, Math.min(maxRays, rays));
+		if (rays == rayNum) { return; }
+		setRayNum(rays);
+		dirty = true; // the end points of the rays are spread out again on the next update
+	}
+
+	@Override
+	public void invalidate() {
+		dirty = true;
+	}
+
+	@Override
+	public float getReach() {
+		return distance + softShadowLength;
+	}
 }
@@ -0,0 +1,199 @@
+/*
+ * LightManager.java
+ *
+ * Box2DLights casts every ray of every light it has each time the RayHandler is updated,
+ * whether the light can be seen or not, and always with the number of rays the light was
+ * made with. This class decides how many rays each light gets each frame instead.
+ */
+package edu.cornell.gdiac.raftoftheseus.lights;
+
+import box2dLight.RayHandler;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+
+/**
+ * Sets the number of rays of each light from how it is seen, within a budget of rays per frame.
+ *
+ * The shadows of a light are as sharp as its rays are close together, and they are furthest apart
+ * where the light reaches the edge of its circle, or the edge of the screen if that is closer. So a
+ * light is given enough rays for them to be a few pixels apart there, but never more than it was made
+ * with. A light that reaches into the view from outside it gets fewer, the further away it is, and a
+ * light that does not reach into the view at all is culled by the RayHandler and casts none. If all
+ * the lights together want more rays than the budget, they all get the same share less.
+ *
+ * How many pixels apart the rays are, the budget and the fewest rays a seen light may have are set
+ * by the quality tier, from the light settings. So are the size of the light map, as a share of the
+ * screen, and how many times it is blurred. A smaller light map is cheaper to fill and comes out
+ * softer when it is stretched over the screen, so it needs fewer blur passes.
+ *
+ * Changing the rays of a light makes it allocate new arrays, so the number of rays only goes up in
+ * steps of STEP, and only comes down once it is at least two steps too many.
+ */
+public class LightManager {
+	/** Ray counts are multiples of this */
+	private static final int STEP = 16;
+
+	/** The lights managed */
+	private final Array<LightSource> lights = new Array<>();
+	/** The lights managed that cast rays */
+	private final Array<RayLightSource> rayLights = new Array<>();
+	/** The rays each light that casts rays wants this frame */
+	private float[] wanted = new float[4];
+
+	/** How far apart the rays of a light may be where they end on screen, in pixels */
+	private float pixelsPerRay;
+	/** The most rays cast by all lights each frame */
+	private int budget;
+	/** The fewest rays of a light that is seen */
+	private int minRays;
+	/** The size of the light map, as a share of the size of the screen */
+	private float lightMapScale;
+	/** How many times the light map is blurred */
+	private int blur;
+
+	/**
+	 * Creates a manager with the quality tier chosen in the light settings.
+	 *
+	 * @param settings the light settings, with a "quality" and the "tiers" it names
+	 */
+	public LightManager(JsonValue settings) {
+		JsonValue tiers = settings.get("tiers");
+		setTier(tiers.get(settings.getString("quality", tiers.child().name())));
+	}
+
+	/**
+	 * Sets the quality tier.
+	 *
+	 * @param tier	the "pixels per ray", "budget", "min rays", "lightmap scale" and "blur" of the tier
+	 */
+	public void setTier(JsonValue tier) {
+		pixelsPerRay = tier.getFloat("pixels per ray");
+		budget = tier.getInt("budget");
+		minRays = Math.max(RayLightSource.MIN_RAYS, tier.getInt("min rays"));
+		lightMapScale = MathUtils.clamp(tier.getFloat("lightmap scale", 1), 0.0625f, 1);
+		blur = tier.getInt("blur", 0);
+	}
+
+	/**
+	 * @param screen	the width or height of the screen, in pixels
+	 * @return the width or height of the light map for that screen
+	 */
+	public int lightMapSize(int screen) {
+		return Math.max(1, MathUtils.round(screen * lightMapScale));
+	}
+
+	/**
+	 * Sizes the light map of a RayHandler for the screen and sets its blur, from the quality tier.
+	 * The light map is only made again if its size changed.
+	 *
+	 * @param rayHandler	the RayHandler of the lights
+	 * @param width			the width of the screen, in pixels
+	 * @param height		the height of the screen, in pixels
+	 */
+	public void resize(RayHandler rayHandler, int width, int height) {
+		int w = lightMapSize(width), h = lightMapSize(height);
+		if (rayHandler.getLightMapBuffer().getWidth() != w || rayHandler.getLightMapBuffer().getHeight() != h) {
+			rayHandler.resizeFBO(w, h);
+		}
+		// the light map is stretched over the screen, so it must be filtered to not look blocky
+		rayHandler.getLightMapTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+		rayHandler.setBlur(blur > 0);
+		rayHandler.setBlurNum(Math.max(1, blur));
+	}
+
+	/**
+	 * Manages a light from now on. If it casts rays, it may have no more than it was made with;
+	 * otherwise it is only invalidated.
+	 *
+	 * @param light	the light
+	 */
+	public void add(LightSource light) {
+		lights.add(light);
+		if (light instanceof RayLightSource) {
+			rayLights.add((RayLightSource) light);
+			if (wanted.length < rayLights.size) { wanted = new float[rayLights.size * 2]; }
+		}
+	}
+
+	/**
+	 * Makes the static lights that reach an area cast their rays again, e.g. when an obstacle
+	 * there is destroyed.
+	 *
+	 * @param x			the horizontal center of the area, in Box2D units
+	 * @param y			the vertical center of the area, in Box2D units
+	 * @param radius	the radius of the area, in Box2D units
+	 */
+	public void invalidate(float x, float y, float radius) {
+		for (LightSource light : lights) {
+			if (!light.isStaticLight()) { continue; }
+			float dx = light.getX() - x, dy = light.getY() - y;
+			float reach = light.getReach() + radius;
+			if (dx * dx + dy * dy < reach * reach) { light.invalidate(); }
+		}
+	}
+
+	/** Forgets every light, e.g. when the level is over. */
+	public void clear() {
+		lights.clear();
+		rayLights.clear();
+	}
+
+	/**
+	 * Sets the rays of each light for this frame. Must be called before the RayHandler is updated,
+	 * and the RayHandler must cull with the same view (@see cull()).
+	 *
+	 * @param view				the part of the world on screen, in Box2D units
+	 * @param pixelsPerUnit		the pixels on screen per Box2D unit
+	 */
+	public void update(Rectangle view, float pixelsPerUnit) {
+		float total = 0;
+		for (int i = 0; i < rayLights.size; i++) {
+			RayLightSource light = rayLights.get(i);
+			wanted[i] = light.isActive() ? wantedRays(light, view, pixelsPerUnit) : 0;
+			total += wanted[i];
+		}
+		float share = total > budget ? budget / total : 1;
+		for (int i = 0; i < rayLights.size; i++) {
+			if (wanted[i] == 0) { continue; } // culled or off; keep its rays for when it is back
+			RayLightSource light = rayLights.get(i);
+			int rays = MathUtils.clamp((int) (wanted[i] * share) / STEP * STEP, minRays, light.getMaxRays());
+			if (rays > light.getRayNum() || rays <= light.getRayNum() - 2 * STEP) { light.setRays(rays); }
+		}
+	}
+
+	/**
+	 * @return the rays a light needs this frame, before the budget, or 0 if it cannot be seen
+	 */
+	private float wantedRays(RayLightSource light, Rectangle view, float pixelsPerUnit) {
+		float x = light.getX(), y = light.getY();
+		float reach = light.getReach();
+		// how far the light is from the view, and how far it is to the furthest corner of the view
+		float dx = Math.max(0, Math.max(view.x - x, x - view.x - view.width));
+		float dy = Math.max(0, Math.max(view.y - y, y - view.y - view.height));
+		float gap = (float) Math.sqrt(dx * dx + dy * dy);
+		if (gap >= reach) { return 0; }
+		float fx = Math.max(Math.abs(view.x - x), Math.abs(view.x + view.width - x));
+		float fy = Math.max(Math.abs(view.y - y), Math.abs(view.y + view.height - y));
+		float radius = Math.min(reach, (float) Math.sqrt(fx * fx + fy * fy));
+		float rays = MathUtils.PI2 * radius * pixelsPerUnit / pixelsPerRay;
+		rays *= 1 - gap / reach; // the further away, the less of the light is seen
+		return Math.max(minRays, Math.min(light.getMaxRays(), rays));
+	}
+
+	/**
+	 * Makes a RayHandler cull the lights that do not reach into the view, instead of all the level.
+	 *
+	 * @param rayHandler	the RayHandler of the lights
+	 * @param combined		the matrix the lights are drawn with
+	 * @param view			the part of the world on screen, in Box2D units
+	 */
+	public static void cull(RayHandler rayHandler, Matrix4 combined, Rectangle view) {
+		rayHandler.setCulling(true);
+		rayHandler.setCombinedMatrix(combined, view.x + view.width / 2, view.y + view.height / 2,
+				view.width, view.height);
+	}
+}
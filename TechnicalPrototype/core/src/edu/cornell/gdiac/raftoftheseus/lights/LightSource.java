@@ -10,13 +10,14 @@
  * In fact, you will notice that most of the methods are get/set/attach.  This allows
  * us to consider lights as models.  However, we do have to have immediate access to
  * the RayHandler when we construct a light, so this limits some of our decoupling.
+ * The methods about rays and the RayHandler are in RayLightSource, so that lights
+ * drawn some other way can implement this interface too.
  *
  * Author: Walker M. White
  * Initial version, 3/12/2016
  */
  package edu.cornell.gdiac.raftoftheseus.lights;
 
-import box2dLight.*;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
@@ -25,13 +26,11 @@ import com.badlogic.gdx.physics.box2d.Filter;
 /**
  * Interface representing a single light source.
  * 
- * The light source is attached to a rayhandler on creation and cannot reassigned.  The
- * light source should be removed (which has an implicit dispose) when it is no longer
- * needed.
+ * The light source is attached to whatever draws it (a RayHandler or a ShadowMapRenderer)
+ * on creation and cannot reassigned.  The light source should be removed (which has an
+ * implicit dispose) when it is no longer needed.
  */
 public interface LightSource {
-	/** The minimum number of rays to function properly */
-	public static final int MIN_RAYS = 3;	
 	/** The default color for all lights */
 	public static final Color DEFAULT_COLOR = new Color(0.75f, 0.75f, 0.5f, 0.75f);
 	
@@ -196,6 +195,14 @@ public interface LightSource {
 	 */
 	public boolean isStaticLight();
 
+	/**
+	 * Recomputes the shadows of this light on the next update
+	 *
+	 * A static light only casts its rays again when one of its parameters is
+	 * set, so this must be called when the geometry around it changes.
+	 */
+	public void invalidate();
+
 	/**
 	 * Sets whether this light has static behavior
 	 * 
@@ -249,27 +256,16 @@ public interface LightSource {
 	 */
 	public void setSoftnessLength(float softShadowLength);
 
-	/** 
-	 * Returns the number of rays set for this light
-	 *
-	 * The number of rays determines how realistic the light looks.  More rays will
-	 * decrease performance.  The number of rays cannot be less than MIN_RAYS.
-	 *
-	 * @return the number of rays set for this light
-	 */
-	public int getRayNum();
-
-	/// MEMORY MANAGEMENT
 	/**
-	 * Adds a light to specified RayHandler
+	 * Returns how far this light reaches, with its soft shadows
 	 *
-	 * It is only safe to attach a rayhandler if (1) there is no rayhandler 
-	 * currently attached and (2) this light has not been disposed.
+	 * This is the radius the light is culled with, after gamma correction.
 	 *
-	 * @param rayHandler the RayHandler
+	 * @return how far this light reaches, with its soft shadows
 	 */
-	public void add(RayHandler rayHandler);
+	public float getReach();
 
+	/// MEMORY MANAGEMENT
 	/**
 	 * Removes the light from the active RayHandler and disposes it
 	 *
@@ -4,7 +4,7 @@
  * This is an subclass of PointLight from Box2D.  As with PointLight, it is a light
  * that travels in all directions to a given radius.
  *
- * This class is an implementation of LightSource, and so it exposes certain internals
+ * This class is an implementation of RayLightSource, and so it exposes certain internals
  * hidden in PointLight (e.g. protecteds that need direct access).  This helps with the
  * design as we can now treat this light as a proper model, as opposed to a poorly 
  * designed controller.
@@ -21,12 +21,14 @@ import com.badlogic.gdx.physics.box2d.Filter;
 /**
  * A light shaped as a circle with a given radius
  */
-public class PointSource extends PointLight implements LightSource {
+public class PointSource extends PointLight implements RayLightSource {
 	/** The default distance for a point source light */
 	public static float DEFAULT_DISTANCE = 15.0f;
 
 	/** Copy of the collision filter.  Necessary because the original version is private */
 	protected Filter collisions;
+	/** The number of rays the light was made with, which its meshes have room for */
+	protected int maxRays;
 	
 	/**
 	 * Creates light shaped as a circle with default radius, color and position.
@@ -47,6 +49,7 @@ public class PointSource extends PointLight implements LightSource {
 	 */
 	public PointSource(RayHandler rayHandler, int rays) {
 		super(rayHandler, rays, DEFAULT_COLOR, DEFAULT_DISTANCE, 0f, 0f);
+		maxRays = rayNum;
 	}
 	
 	
@@ -70,6 +73,7 @@ public class PointSource extends PointLight implements LightSource {
 	 */
 	public PointSource(RayHandler rayHandler, int rays, Color color, float distance, float x, float y) {
 		super(rayHandler, rays, color, distance, x, y);
+		maxRays = rayNum;
 	}
 
 	@Override
@@ -125,4 +129,27 @@ public class PointSource extends PointLight implements LightSource {
 
 	/** Sets light distance; MIN value capped to 0.1f meter; Actual recalculations will be done only on update() cal */
 	public void setDistance(float dist){ super.setDistance(dist); }
-}
\ No newline at end of file
+
+	@Override
+	public int getMaxRays() {
+		return maxRays;
+	}
+
+	@Override
+	public void setRays(int rays) {
+		rays = Math.max(MIN_RAYS, Math.min(maxRays, rays));
+		if (rays == rayNum) { return; }
+		setRayNum(rays);
+		dirty = true; // the end points of the rays are spread out again on the next update
+	}
+
+	@Override
+	public void invalidate() {
+		dirty = true;
+	}
+
+	@Override
+	public float getReach() {
+		return distance + softShadowLength;
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * RayLightSource.java
+ *
+ * This is the part of LightSource that only makes sense for the lights of Box2DLights,
+ * which cast their shadows with rays on the CPU and are drawn by a RayHandler. Lights
+ * drawn some other way, like a ShadowMapLight, only implement LightSource.
+ */
+package edu.cornell.gdiac.raftoftheseus.lights;
+
+import box2dLight.RayHandler;
+
+/**
+ * A light source that casts rays, and is attached to a RayHandler.
+ */
+public interface RayLightSource extends LightSource {
+	/** The minimum number of rays to function properly */
+	public static final int MIN_RAYS = 3;
+
+	/**
+	 * Returns the number of rays set for this light
+	 *
+	 * The number of rays determines how realistic the light looks.  More rays will
+	 * decrease performance.  The number of rays cannot be less than MIN_RAYS.
+	 *
+	 * @return the number of rays set for this light
+	 */
+	public int getRayNum();
+
+	/**
+	 * Returns the most rays this light may have, which is the number it was made with
+	 *
+	 * @return the most rays this light may have
+	 */
+	public int getMaxRays();
+
+	/**
+	 * Sets the number of rays of this light, from MIN_RAYS to getMaxRays()
+	 *
+	 * The rays are spread out again on the next update of the rayhandler. As this allocates
+	 * new arrays for the rays, it should not be done every frame.
+	 *
+	 * @param rays	the number of rays
+	 */
+	public void setRays(int rays);
+
+	/**
+	 * Adds a light to specified RayHandler
+	 *
+	 * It is only safe to attach a rayhandler if (1) there is no rayhandler
+	 * currently attached and (2) this light has not been disposed.
+	 *
+	 * @param rayHandler the RayHandler
+	 */
+	public void add(RayHandler rayHandler);
+}
@@ -0,0 +1,302 @@
+/*
+ * ShadowMapLight.java
+ *
+ * This is a point light whose shadows are drawn on the GPU by a ShadowMapRenderer,
+ * instead of being cast with rays on the CPU by a RayHandler. It implements LightSource
+ * so that the level can make and move its lights the same way with either one.
+ */
+package edu.cornell.gdiac.raftoftheseus.lights;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Filter;
+
+/**
+ * A light shaped as a circle with a given radius, whose shadows come from a shadow map.
+ *
+ * The light is only a model: the ShadowMapRenderer it was made with draws it. It casts no
+ * rays, so it is not a RayLightSource.
+ *
+ * A light is dirty when its shadow map has to be drawn again. A light that is not static is
+ * always dirty; a static light is only dirty after it is moved, resized or invalidated.
+ */
+public class ShadowMapLight implements LightSource {
+	/** The renderer that draws this light, or null once it is removed */
+	private ShadowMapRenderer renderer;
+
+	/** The color of this light, with its intensity as alpha */
+	private final Color color = new Color(DEFAULT_COLOR);
+	/** The position of this light, in world coordinates */
+	private final Vector2 position = new Vector2();
+	/** The radius of this light */
+	private float distance;
+	/** The direction of this light in degrees */
+	private float direction;
+	/** How far light goes past the edge of a shadow */
+	private float softShadowLength;
+	/** Whether this light has soft shadows */
+	private boolean soft = true;
+	private boolean active = true;
+	private boolean xray;
+	private boolean staticLight;
+	/** Whether the shadow map of this light has to be drawn again */
+	private boolean dirty = true;
+
+	/** The body this light follows, or null */
+	private Body body;
+	private float bodyOffsetX;
+	private float bodyOffsetY;
+	private float bodyAngleOffset;
+	/** Whether the fixtures of the attached body cast no shadows */
+	private boolean ignoreBody;
+	/** Which fixtures cast shadows, as with Box2D collisions */
+	private final Filter filter = new Filter();
+
+	/**
+	 * Creates light shaped as a circle with the given radius, color and position.
+	 *
+	 * @param renderer		the renderer that draws this light
+	 * @param color			the light color, or null for default
+	 * @param distance		the light radius
+	 * @param x				the horizontal position in world coordinates
+	 * @param y				the vertical position in world coordinates
+	 */
+	public ShadowMapLight(ShadowMapRenderer renderer, Color color, float distance, float x, float y) {
+		if (color != null) { this.color.set(color); }
+		setDistance(distance);
+		softShadowLength = this.distance * 0.1f;
+		position.set(x, y);
+		this.renderer = renderer;
+		renderer.add(this);
+	}
+
+	/**
+	 * Moves this light with its body, if it is attached to one and not static.
+	 */
+	void update() {
+		if (body == null || staticLight) { return; }
+		Vector2 p = body.getPosition();
+		float angle = body.getAngle();
+		float cos = MathUtils.cos(angle), sin = MathUtils.sin(angle);
+		position.set(p.x + bodyOffsetX * cos - bodyOffsetY * sin, p.y + bodyOffsetX * sin + bodyOffsetY * cos);
+		direction = bodyAngleOffset + angle * MathUtils.radiansToDegrees;
+		dirty = true;
+	}
+
+	/** @return whether the shadow map of this light has to be drawn again */
+	boolean isDirty() {
+		return dirty || !staticLight;
+	}
+
+	/** Marks the shadow map of this light as drawn */
+	void clean() {
+		dirty = false;
+	}
+
+	@Override
+	public boolean isActive() {
+		return active;
+	}
+
+	@Override
+	public void setActive(boolean active) {
+		this.active = active;
+	}
+
+	@Override
+	public Color getColor() {
+		return color;
+	}
+
+	@Override
+	public void setColor(Color newColor) {
+		color.set(newColor == null ? DEFAULT_COLOR : newColor);
+	}
+
+	@Override
+	public void setColor(float r, float g, float b, float a) {
+		color.set(r, g, b, a);
+	}
+
+	@Override
+	public float getDistance() {
+		return distance;
+	}
+
+	@Override
+	public void setDistance(float dist) {
+		distance = Math.max(0.1f, dist);
+		dirty = true;
+	}
+
+	@Override
+	public float getDirection() {
+		return direction;
+	}
+
+	@Override
+	public void setDirection(float directionDegree) {
+		direction = directionDegree;
+	}
+
+	@Override
+	public Vector2 getPosition() {
+		return position.cpy();
+	}
+
+	@Override
+	public float getX() {
+		return position.x;
+	}
+
+	@Override
+	public float getY() {
+		return position.y;
+	}
+
+	@Override
+	public void setPosition(float x, float y) {
+		position.set(x, y);
+		dirty = true;
+	}
+
+	@Override
+	public void setPosition(Vector2 position) {
+		setPosition(position.x, position.y);
+	}
+
+	@Override
+	public boolean isXray() {
+		return xray;
+	}
+
+	@Override
+	public void setXray(boolean xray) {
+		this.xray = xray;
+		dirty = true;
+	}
+
+	@Override
+	public boolean isStaticLight() {
+		return staticLight;
+	}
+
+	@Override
+	public void invalidate() {
+		dirty = true;
+	}
+
+	@Override
+	public void setStaticLight(boolean staticLight) {
+		this.staticLight = staticLight;
+		dirty = true;
+	}
+
+	@Override
+	public boolean isSoft() {
+		return soft;
+	}
+
+	@Override
+	public void setSoft(boolean soft) {
+		this.soft = soft;
+	}
+
+	@Override
+	public float getSoftShadowLength() {
+		return softShadowLength;
+	}
+
+	@Override
+	public void setSoftnessLength(float softShadowLength) {
+		this.softShadowLength = softShadowLength;
+	}
+
+	@Override
+	public float getReach() {
+		return distance;
+	}
+
+	@Override
+	public void remove() {
+		remove(true);
+	}
+
+	@Override
+	public void remove(boolean doDispose) {
+		if (renderer != null) {
+			renderer.remove(this);
+			renderer = null;
+		}
+		body = null;
+	}
+
+	@Override
+	public Body getBody() {
+		return body;
+	}
+
+	@Override
+	public void attachToBody(Body body) {
+		attachToBody(body, 0f, 0f, 0f);
+	}
+
+	@Override
+	public void attachToBody(Body body, float dx, float dy) {
+		attachToBody(body, dx, dy, 0f);
+	}
+
+	@Override
+	public void attachToBody(Body body, float offsetX, float offSetY, float degrees) {
+		this.body = body;
+		bodyOffsetX = offsetX;
+		bodyOffsetY = offSetY;
+		bodyAngleOffset = degrees;
+		dirty = true;
+	}
+
+	@Override
+	public boolean getIgnoreAttachedBody() {
+		return ignoreBody;
+	}
+
+	@Override
+	public void setIgnoreAttachedBody(boolean flag) {
+		ignoreBody = flag;
+		dirty = true;
+	}
+
+	@Override
+	public Filter getContactFilter() {
+		return filter;
+	}
+
+	@Override
+	public void setContactFilter(Filter filter) {
+		if (filter == null) {
+			this.filter.categoryBits = 0x0001;
+			this.filter.maskBits = -1;
+			this.filter.groupIndex = 0;
+		} else {
+			this.filter.categoryBits = filter.categoryBits;
+			this.filter.maskBits = filter.maskBits;
+			this.filter.groupIndex = filter.groupIndex;
+		}
+		dirty = true;
+	}
+
+	@Override
+	public void setContactFilter(short categoryBits, short groupIndex, short maskBits) {
+		filter.categoryBits = categoryBits;
+		filter.groupIndex = groupIndex;
+		filter.maskBits = maskBits;
+		dirty = true;
+	}
+
+	@Override
+	public boolean contains(float x, float y) {
+		return position.dst2(x, y) <= distance * distance;
+	}
+}
@@ -0,0 +1,335 @@
+/*
+ * ShadowMapRenderer.java
+ *
+ * Box2DLights casts hundreds of rays per light on the CPU, against every fixture they pass.
+ * This class draws the shadows of ShadowMapLights on the GPU instead: the CPU only has to
+ * draw the shapes of the fixtures around a light, and only when the light moved.
+ */
+package edu.cornell.gdiac.raftoftheseus.lights;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Draws point lights with soft shadows from 1D shadow maps, and lays them over the screen.
+ *
+ * For each light that has to be drawn again, the fixtures that block it are drawn into an
+ * occlusion map: a square around the light, as big as the light. A shader then walks out
+ * from the center of that map in every direction, and writes how far it got before it hit
+ * something to the row of the light in the shadow maps. Static lights keep their row until
+ * they are invalidated, so most frames only the lights that move are done again.
+ *
+ * The lights are then added up over the ambient light in a light map the size of the screen
+ * (or a share of it), each light looking up its row to know where its shadows start, and the
+ * screen is multiplied by the light map, as with the diffuse lighting of Box2DLights.
+ *
+ * A fixture blocks a light if their filters would let them collide, as with Box2DLights.
+ */
+public class ShadowMapRenderer implements Disposable {
+	/** The number of lights the shadow maps have rows for at first */
+	private static final int INITIAL_ROWS = 8;
+	/** The segments of a circle drawn in the occlusion map */
+	private static final int CIRCLE_SEGMENTS = 16;
+	/** How many texels of the shadow map a soft shadow is blurred over at the edge of the light */
+	private static final float SOFT_BLUR = 3;
+
+	/** The world the fixtures that cast shadows are in */
+	private final World world;
+	/** The lights drawn, in the order of their rows in the shadow maps */
+	private final Array<ShadowMapLight> lights = new Array<>();
+	/** The width and height of the occlusion map, and the width of the shadow maps */
+	private final int size;
+
+	/** Draws the shadow map of a light from its occlusion map */
+	private final ShaderProgram shadowShader;
+	/** Draws a light from its shadow map */
+	private final ShaderProgram lightShader;
+	private final SpriteBatch batch;
+	/** Draws the fixtures into the occlusion map */
+	private final ShapeRenderer shapes;
+
+	/** The fixtures around a light, blocking it, in white */
+	private final FrameBuffer occlusionBuffer;
+	/** The shadow maps, a row per light */
+	private FrameBuffer shadowBuffer;
+	/** The number of rows of the shadow maps */
+	private int rows;
+	/** The lights, added up over the ambient light; null until resized */
+	private FrameBuffer lightBuffer;
+
+	/** The color of places no light reaches */
+	private final Color ambient = new Color(0, 0, 0, 1);
+	/** Cache of a projection */
+	private final Matrix4 projection = new Matrix4();
+	/** Cache of a vertex of a fixture */
+	private final Vector2 vertex = new Vector2();
+	/** Cache of the vertices of a polygon */
+	private final float[] polygon = new float[16];
+	/** Cache of the fixtures around a light */
+	private final Array<Fixture> fixtures = new Array<>();
+	/** Collects the fixtures around a light */
+	private final QueryCallback collect = new QueryCallback() {
+		@Override
+		public boolean reportFixture(Fixture fixture) {
+			fixtures.add(fixture);
+			return true;
+		}
+	};
+
+	/**
+	 * Creates a renderer for the lights of a world.
+	 *
+	 * @param world	the world with the fixtures that cast shadows
+	 * @param size	the width and height of the occlusion map, and the width of the shadow maps
+	 *
+	 * @throws GdxRuntimeException if the shaders could not be loaded or compiled
+	 */
+	public ShadowMapRenderer(World world, int size) {
+		this.world = world;
+		this.size = size;
+		String vertexShader = Gdx.files.internal("shaders/shadow_map_vertex.glsl").readString();
+		shadowShader = compile(vertexShader, Gdx.files.internal("shaders/shadow_map_fragment.glsl").readString());
+		try {
+			lightShader = compile(vertexShader, Gdx.files.internal("shaders/shadow_light_fragment.glsl").readString());
+		} catch (GdxRuntimeException e) {
+			// the caller falls back to other lights, maybe on every level, so the first shader must not leak
+			shadowShader.dispose();
+			throw e;
+		}
+		batch = new SpriteBatch(4);
+		shapes = new ShapeRenderer();
+		occlusionBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, size, size, false);
+		resizeShadows(INITIAL_ROWS);
+	}
+
+	private static ShaderProgram compile(String vertexShader, String fragmentShader) {
+		ShaderProgram shader = new ShaderProgram(vertexShader, fragmentShader);
+		if (!shader.isCompiled()) {
+			String log = shader.getLog();
+			shader.dispose();
+			throw new GdxRuntimeException("Could not compile shadow map shader: " + log);
+		}
+		return shader;
+	}
+
+	/** Makes room in the shadow maps for the given number of lights. Every light is drawn again. */
+	private void resizeShadows(int rows) {
+		if (shadowBuffer != null) { shadowBuffer.dispose(); }
+		this.rows = rows;
+		shadowBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, size, rows, false);
+		shadowBuffer.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+		shadowBuffer.getColorBufferTexture().setWrap(Texture.TextureWrap.Repeat, Texture.TextureWrap.ClampToEdge);
+		for (ShadowMapLight light : lights) { light.invalidate(); }
+	}
+
+	/**
+	 * Sizes the light map. This must be done before the lights are rendered.
+	 *
+	 * @param width		the width of the light map, in pixels
+	 * @param height	the height of the light map, in pixels
+	 */
+	public void resize(int width, int height) {
+		if (lightBuffer != null) {
+			if (lightBuffer.getWidth() == width && lightBuffer.getHeight() == height) { return; }
+			lightBuffer.dispose();
+		}
+		lightBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+		// the light map is stretched over the screen, so it must be filtered to not look blocky
+		lightBuffer.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+	}
+
+	/**
+	 * Sets the color of places no light reaches.
+	 *
+	 * @param r	red component
+	 * @param g	green component
+	 * @param b	blue component
+	 * @param a	alpha component
+	 */
+	public void setAmbientLight(float r, float g, float b, float a) {
+		ambient.set(r, g, b, a);
+	}
+
+	/** Draws a light from now on. Called by the light. */
+	void add(ShadowMapLight light) {
+		lights.add(light);
+	}
+
+	/** Stops drawing a light. Called by the light. */
+	void remove(ShadowMapLight light) {
+		int row = lights.indexOf(light, true);
+		if (row < 0) { return; }
+		lights.removeIndex(row);
+		// the lights after it move up a row
+		for (int i = row; i < lights.size; i++) { lights.get(i).invalidate(); }
+	}
+
+	/** Moves the lights with their bodies. Call after the physics step, as with a RayHandler. */
+	public void update() {
+		for (ShadowMapLight light : lights) { light.update(); }
+	}
+
+	/**
+	 * Draws the shadow maps of the lights that need it, then the lights, over the screen.
+	 * The screen must not be drawn to when this is called.
+	 *
+	 * @param combined	the matrix the world is drawn with
+	 * @param view		the part of the world on screen, in Box2D units; lights outside it are skipped
+	 */
+	public void render(Matrix4 combined, Rectangle view) {
+		if (lightBuffer == null) { return; }
+		if (lights.size > rows) { resizeShadows(Math.max(lights.size, rows * 2)); }
+
+		for (int row = 0; row < lights.size; row++) {
+			ShadowMapLight light = lights.get(row);
+			if (light.isActive() && light.isDirty() && isVisible(light, view)) {
+				drawOcclusion(light);
+				drawShadows(row);
+				light.clean();
+			}
+		}
+
+		lightBuffer.begin();
+		Gdx.gl.glClearColor(ambient.r, ambient.g, ambient.b, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		batch.setProjectionMatrix(combined);
+		batch.setShader(lightShader);
+		batch.enableBlending();
+		batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE);
+		batch.begin();
+		Texture shadows = shadowBuffer.getColorBufferTexture();
+		for (int row = 0; row < lights.size; row++) {
+			ShadowMapLight light = lights.get(row);
+			if (!light.isActive() || !isVisible(light, view)) { continue; }
+			float d = light.getDistance();
+			boolean soft = light.isSoft();
+			lightShader.setUniformf("u_row", (row + 0.5f) / rows);
+			lightShader.setUniformf("u_soft", soft ? light.getSoftShadowLength() / d : 0);
+			lightShader.setUniformf("u_blur", soft ? SOFT_BLUR / size : 0);
+			batch.setColor(light.getColor());
+			batch.draw(shadows, light.getX() - d, light.getY() - d, 2 * d, 2 * d, 0, 0, 1, 1);
+			batch.flush(); // the next light has other uniforms
+		}
+		batch.end();
+		lightBuffer.end();
+
+		// multiply the screen by the light map
+		projection.idt();
+		batch.setProjectionMatrix(projection);
+		batch.setShader(null);
+		batch.setColor(Color.WHITE);
+		batch.setBlendFunction(GL20.GL_DST_COLOR, GL20.GL_ZERO);
+		batch.begin();
+		batch.draw(lightBuffer.getColorBufferTexture(), -1, -1, 2, 2, 0, 0, 1, 1);
+		batch.end();
+		batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+	}
+
+	/** @return whether the circle of a light reaches into the view */
+	private static boolean isVisible(ShadowMapLight light, Rectangle view) {
+		float d = light.getDistance();
+		float dx = Math.max(0, Math.max(view.x - light.getX(), light.getX() - view.x - view.width));
+		float dy = Math.max(0, Math.max(view.y - light.getY(), light.getY() - view.y - view.height));
+		return dx * dx + dy * dy < d * d;
+	}
+
+	/** Draws the fixtures that block a light into the occlusion map, with the light at its center. */
+	private void drawOcclusion(ShadowMapLight light) {
+		float x = light.getX(), y = light.getY(), d = light.getDistance();
+		fixtures.clear();
+		if (!light.isXray()) { world.QueryAABB(collect, x - d, y - d, x + d, y + d); }
+
+		occlusionBuffer.begin();
+		Gdx.gl.glClearColor(0, 0, 0, 0);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		if (fixtures.size > 0) {
+			projection.setToOrtho2D(x - d, y - d, 2 * d, 2 * d);
+			shapes.setProjectionMatrix(projection);
+			shapes.begin(ShapeRenderer.ShapeType.Filled);
+			shapes.setColor(Color.WHITE);
+			for (Fixture fixture : fixtures) {
+				if (blocks(fixture, light)) { drawFixture(fixture); }
+			}
+			shapes.end();
+		}
+		occlusionBuffer.end();
+		fixtures.clear();
+	}
+
+	/** @return whether a fixture casts a shadow from a light, as with the contact filter of Box2DLights */
+	private static boolean blocks(Fixture fixture, ShadowMapLight light) {
+		if (light.getIgnoreAttachedBody() && fixture.getBody() == light.getBody()) { return false; }
+		Filter f = fixture.getFilterData();
+		Filter l = light.getContactFilter();
+		if (l.groupIndex != 0 && l.groupIndex == f.groupIndex) { return l.groupIndex > 0; }
+		return (l.maskBits & f.categoryBits) != 0 && (f.maskBits & l.categoryBits) != 0;
+	}
+
+	/** Draws the shape of a fixture where it is in the world. Only polygons and circles cast shadows. */
+	private void drawFixture(Fixture fixture) {
+		Transform transform = fixture.getBody().getTransform();
+		Shape shape = fixture.getShape();
+		switch (shape.getType()) {
+			case Polygon:
+				PolygonShape poly = (PolygonShape) shape;
+				int n = poly.getVertexCount();
+				for (int i = 0; i < n; i++) {
+					poly.getVertex(i, vertex);
+					transform.mul(vertex);
+					polygon[2 * i] = vertex.x;
+					polygon[2 * i + 1] = vertex.y;
+				}
+				for (int i = 1; i < n - 1; i++) {
+					shapes.triangle(polygon[0], polygon[1], polygon[2 * i], polygon[2 * i + 1],
+							polygon[2 * i + 2], polygon[2 * i + 3]);
+				}
+				break;
+			case Circle:
+				CircleShape circle = (CircleShape) shape;
+				transform.mul(vertex.set(circle.getPosition()));
+				shapes.circle(vertex.x, vertex.y, circle.getRadius(), CIRCLE_SEGMENTS);
+				break;
+			default:
+				break;
+		}
+	}
+
+	/** Draws the shadow map of a light into its row, from the occlusion map. */
+	private void drawShadows(int row) {
+		shadowBuffer.begin();
+		projection.setToOrtho2D(0, 0, size, rows);
+		batch.setProjectionMatrix(projection);
+		batch.setShader(shadowShader);
+		batch.disableBlending();
+		batch.begin();
+		batch.draw(occlusionBuffer.getColorBufferTexture(), 0, row, size, 1, 0, 0, 1, 1);
+		batch.end();
+		shadowBuffer.end();
+	}
+
+	@Override
+	public void dispose() {
+		batch.dispose();
+		shapes.dispose();
+		shadowShader.dispose();
+		lightShader.dispose();
+		occlusionBuffer.dispose();
+		shadowBuffer.dispose();
+		if (lightBuffer != null) { lightBuffer.dispose(); }
+		lights.clear();
+	}
+}
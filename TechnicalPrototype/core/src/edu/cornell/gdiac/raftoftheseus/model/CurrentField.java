@@ -5,10 +5,16 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.ai.steer.behaviors.FollowFlowField.FlowField;
 
 public class CurrentField implements FlowField<Vector2> {
-    Vector2[][] field;
+    /** The x and y components of the current velocity in each grid, at index column * rows + row */
+    final float[] fieldX, fieldY;
     int rows, columns;
     int resolution;
 
+    /** Cache for the vector returned by lookup */
+    private final Vector2 lookupCache = new Vector2();
+    /** Cache for the displacement applied by updateCurrentEffects */
+    private final Vector2 displacementCache = new Vector2();
+
     /** Create current field grid-by-grid mode. Initialize an empty array and populate the other fields.
      * @param height the number of grid rows (y) in the level world
      * @param width the number of grid column (x) in the level world
@@ -17,64 +23,70 @@ public class CurrentField implements FlowField<Vector2> {
         this.resolution = resolution;
         this.columns = MathUtils.ceil(width / resolution);
         this.rows = MathUtils.ceil(height / resolution);
-        this.field = new Vector2[columns][rows];
+        this.fieldX = new float[columns * rows];
+        this.fieldY = new float[columns * rows];
+    }
+
+    /** Set the current velocity of one grid
+     * @param column the grid column
+     * @param row the grid row
+     * @param velocity the current velocity, which is copied */
+    public void set(int column, int row, Vector2 velocity) {
+        fieldX[column * rows + row] = velocity.x;
+        fieldY[column * rows + row] = velocity.y;
     }
 
+    /** @return the current velocity of the grid at position. The vector is reused by the next lookup. */
     @Override
     public Vector2 lookup (Vector2 position) {
         int column = (int)MathUtils.clamp(position.x / resolution, 0, columns - 1);
         int row = (int)MathUtils.clamp(position.y / resolution, 0, rows - 1);
-        return field[column][row];
+        return lookupCache.set(fieldX[column * rows + row], fieldY[column * rows + row]);
     }
 
-    Vector2 temp_cpy;
-    Vector2 temp_sum = new Vector2(0, 0);
-
     /** Calculate and apply the linear displacement of gameObject o at its location due to current for time dt
      * @param dt time period
      * @param o the game object to act upon */
     public void updateCurrentEffects (GameObject o, float dt) {
-        // Define the grid-wise location of the player
-        calculateCurrentVelocity(o.getPosition());
+        Vector2 position = o.getPosition();
+        sample(position.x, position.y, displacementCache);
         // displacement = velocity * time elapsed
-        o.setPosition(o.getPosition().add(temp_sum.scl(dt)));
-        temp_sum.setZero();
+        o.setPosition(position.add(displacementCache.scl(dt)));
     }
 
-    /** Calculate the linear velocity at position and store it in temp_sum
-     * @param position the position to compute the linear velocity due to current */
-    public void calculateCurrentVelocity(Vector2 position){
-        int column = MathUtils.clamp((int)(position.x - 0.5f * resolution) / resolution, 0, columns - 1);
-        int row = MathUtils.clamp((int)(position.y - 0.5f * resolution) / resolution, 0, rows - 1);
+    /** Calculate the linear velocity at (x, y), blending the four nearest grid centers bilinearly.
+     * @param x the x position to compute the linear velocity due to current
+     * @param y the y position to compute the linear velocity due to current
+     * @param out the vector to store the velocity in
+     * @return out, for chaining */
+    public Vector2 sample(float x, float y, Vector2 out) {
+        int column = MathUtils.clamp((int)(x - 0.5f * resolution) / resolution, 0, columns - 1);
+        int row = MathUtils.clamp((int)(y - 0.5f * resolution) / resolution, 0, rows - 1);
         float lx = (column + 0.5f) * resolution;
         float ly = (row + 0.5f) * resolution;
         float rx = (column + 1.5f) * resolution;
         float ry = (row + 1.5f) * resolution;
+        int i = column * rows + row;
 
         // To the velocity vector, add the scaled lower-left corner contribution
-        temp_cpy = field[column][row].cpy();
-        temp_sum.add(temp_cpy.scl(rx - position.x).scl(ry - position.y));
+        float w = (rx - x) * (ry - y);
+        float vx = fieldX[i] * w;
+        float vy = fieldY[i] * w;
         if(column + 1 < columns){ // add the scaled lower-right corner contribution
-            temp_cpy = field[column + 1][row].cpy();
-            temp_sum.add(temp_cpy.scl(position.x - lx).scl(ry - position.y));
+            w = (x - lx) * (ry - y);
+            vx += fieldX[i + rows] * w;
+            vy += fieldY[i + rows] * w;
         }
         if(row + 1 < rows){ // add the scaled upper-left corner contribution
-            temp_cpy = field[column][row + 1].cpy();
-            temp_sum.add(temp_cpy.scl(rx - position.x).scl(position.y - ly));
+            w = (rx - x) * (y - ly);
+            vx += fieldX[i + 1] * w;
+            vy += fieldY[i + 1] * w;
         }
         if((column + 1 < columns) && (row + 1 < rows)){ // add the scaled upper-right corner contribution
-            temp_cpy = field[column + 1][row + 1].cpy();
-            temp_sum.add(temp_cpy.scl(position.x - lx).scl(position.y - ly));
+            w = (x - lx) * (y - ly);
+            vx += fieldX[i + rows + 1] * w;
+            vy += fieldY[i + rows + 1] * w;
         }
-        temp_sum.scl(0.12f);
-    }
-
-    /** @return the linear velocity at the position input
-     * @param position the position to compute the linear velocity due to current */
-    public Vector2 getCurrentVelocity(Vector2 position){
-        calculateCurrentVelocity(position);
-        Vector2 result = temp_sum.cpy();
-        temp_sum.setZero();
-        return result;
+        return out.set(vx, vy).scl(0.12f);
     }
 }
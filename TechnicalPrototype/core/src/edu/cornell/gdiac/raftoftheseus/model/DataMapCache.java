@@ -0,0 +1,215 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonValue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Baked flow and surf maps on disk, so a level does not have to draw them again every time it loads.
+ *
+ * Maps are found by a key: a hash of the content of the level json, together with everything else that
+ * decides what the maps look like (the surf resolution, the strongest current and the version of the
+ * file format). A level whose json changed gets a new key, so it never loads maps baked for the old one.
+ *
+ * The maps of a level are first looked for among the baked maps shipped next to the levels, which the
+ * headless launcher writes with --bake. Failing that, they are looked for in the local cache, which the
+ * game fills itself the first time it loads a level, e.g. one made by a player.
+ *
+ * A file is a header of the magic number, the version, the key and the size of both maps, followed by
+ * the raw RGBA pixels of the flow map and then of the surf map, deflated.
+ */
+public class DataMapCache {
+    /** The first four bytes of every file */
+    private static final int MAGIC = 0x5241464d; // "RAFM"
+    /** The format of the file, and of the maps; to be raised whenever either changes */
+    private static final int VERSION = 1;
+    /** Where the maps baked for the shipped levels are, as an internal path */
+    public static final String BAKED_DIR = "levels/maps";
+    /** Where the game keeps the maps it baked itself, as a local path */
+    public static final String CACHE_DIR = "cache/maps";
+    /** The file extension of baked maps */
+    public static final String EXTENSION = "maps";
+
+    private DataMapCache() {}
+
+    /**
+     * @param level the Tiled json of the level
+     * @return the key of the maps of the level with the current settings
+     */
+    public static long key(JsonValue level) {
+        long h = 0xcbf29ce484222325L; // 64-bit FNV-1a
+        h = hash(h, VERSION);
+        h = hash(h, SurfMap.getResolution());
+        h = hash(h, Float.floatToIntBits(Current.getMaxMagnitude()));
+        return hash(h, level);
+    }
+
+    /** @return the name of the file holding the maps of a key */
+    public static String fileName(long key) {
+        return String.format("%016x.%s", key, EXTENSION);
+    }
+
+    /**
+     * Read the maps of a key into the given pixmaps, from the baked maps or else the local cache.
+     * @param key the key of the maps, from key()
+     * @param flow the pixmap to read the flow map into, of the size of the level
+     * @param surf the pixmap to read the surf map into, of the size of the level
+     * @return whether the maps were found; the pixmaps are unchanged if not
+     */
+    public static boolean load(long key, Pixmap flow, Pixmap surf) {
+        String name = fileName(key);
+        return read(Gdx.files.internal(BAKED_DIR).child(name), key, flow, surf)
+                || read(Gdx.files.local(CACHE_DIR).child(name), key, flow, surf);
+    }
+
+    /**
+     * Keep the maps of a key in the local cache. A cache that cannot be written is only reported, as the
+     * maps can always be baked again.
+     * @param key the key of the maps, from key()
+     * @param flow the flow map
+     * @param surf the surf map
+     */
+    public static void store(long key, Pixmap flow, Pixmap surf) {
+        try {
+            write(Gdx.files.local(CACHE_DIR).child(fileName(key)), key, flow, surf);
+        } catch (GdxRuntimeException e) {
+            System.out.println("Could not cache the maps of the level: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write maps to a file, replacing it.
+     * @param file the file to write
+     * @param key the key of the maps, from key()
+     * @param flow the flow map
+     * @param surf the surf map
+     */
+    public static void write(FileHandle file, long key, Pixmap flow, Pixmap surf) {
+        DataOutputStream out = new DataOutputStream(file.write(false, 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(key);
+            out.writeInt(flow.getWidth());
+            out.writeInt(flow.getHeight());
+            out.writeInt(surf.getWidth());
+            out.writeInt(surf.getHeight());
+            DeflaterOutputStream pixels = new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED), 1 << 16);
+            byte[] buffer = new byte[1 << 16];
+            copy(flow.getPixels(), pixels, buffer);
+            copy(surf.getPixels(), pixels, buffer);
+            pixels.finish();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write maps to " + file, e);
+        } finally {
+            try { out.close(); } catch (IOException ignored) {}
+        }
+    }
+
+    /**
+     * Read maps from a file, if it holds the maps of the key at the size of the pixmaps.
+     * @return whether the maps were read
+     */
+    private static boolean read(FileHandle file, long key, Pixmap flow, Pixmap surf) {
+        if (!file.exists()) { return false; }
+        DataInputStream in = new DataInputStream(file.read(1 << 16));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != key
+                    || in.readInt() != flow.getWidth() || in.readInt() != flow.getHeight()
+                    || in.readInt() != surf.getWidth() || in.readInt() != surf.getHeight()) {
+                return false;
+            }
+            InflaterInputStream pixels = new InflaterInputStream(in, new Inflater(), 1 << 16);
+            // read both before touching either pixmap, so a broken file leaves them as they were
+            byte[] flowBytes = readFully(pixels, flow.getPixels().capacity());
+            byte[] surfBytes = readFully(pixels, surf.getPixels().capacity());
+            put(flow.getPixels(), flowBytes);
+            put(surf.getPixels(), surfBytes);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Ignoring broken maps in " + file + ": " + e.getMessage());
+            return false;
+        } finally {
+            try { in.close(); } catch (IOException ignored) {}
+        }
+    }
+
+    /** Write all the bytes of a buffer to a stream, without moving the buffer. */
+    private static void copy(ByteBuffer pixels, OutputStream out, byte[] buffer) throws IOException {
+        ByteBuffer src = pixels.duplicate();
+        src.clear();
+        while (src.hasRemaining()) {
+            int n = Math.min(buffer.length, src.remaining());
+            src.get(buffer, 0, n);
+            out.write(buffer, 0, n);
+        }
+    }
+
+    /** @return the next n bytes of a stream; throws EOFException if there are fewer */
+    private static byte[] readFully(InputStream in, int n) throws IOException {
+        byte[] bytes = new byte[n];
+        new DataInputStream(in).readFully(bytes);
+        return bytes;
+    }
+
+    /** Overwrite all the bytes of a buffer, without moving it. */
+    private static void put(ByteBuffer pixels, byte[] bytes) {
+        ByteBuffer dst = pixels.duplicate();
+        dst.clear();
+        dst.put(bytes);
+    }
+
+    /** @return the hash h followed by an int */
+    private static long hash(long h, int v) {
+        for (int i = 0; i < 4; i++, v >>>= 8) {
+            h = (h ^ (v & 0xff)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** @return the hash h followed by a string */
+    private static long hash(long h, String s) {
+        if (s == null) { return hash(h, -1); }
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return hash(h, s.length());
+    }
+
+    /** @return the hash h followed by a json value: its name, type and value, then its children in order */
+    private static long hash(long h, JsonValue v) {
+        h = hash(h, v.name());
+        h = hash(h, v.type().ordinal());
+        switch (v.type()) {
+            case object:
+            case array:
+                h = hash(h, v.size);
+                for (JsonValue child = v.child(); child != null; child = child.next()) {
+                    h = hash(h, child);
+                }
+                return h;
+            case doubleValue:
+                long d = Double.doubleToLongBits(v.asDouble());
+                return hash(hash(h, (int) d), (int) (d >>> 32));
+            case longValue:
+                long l = v.asLong();
+                return hash(hash(h, (int) l), (int) (l >>> 32));
+            default:
+                return hash(h, v.asString());
+        }
+    }
+}
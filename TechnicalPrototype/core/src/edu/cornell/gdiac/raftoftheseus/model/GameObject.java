@@ -74,6 +74,21 @@ public abstract class GameObject {
     /** The texture origin for drawing */
     protected Vector2 origin = new Vector2();
 
+    /** Position at the start of the most recent simulation tick (for render interpolation) */
+    private final Vector2 previousPosition = new Vector2();
+    /** Angle at the start of the most recent simulation tick (for render interpolation) */
+    private float previousAngle;
+    /** Interpolated position to render at, valid only if interpolated is true */
+    private final Vector2 renderPosition = new Vector2();
+    /** Interpolated angle to render at, valid only if interpolated is true */
+    private float renderAngle;
+    /** Whether a previous transform has been captured for this object */
+    private boolean snapshotted = false;
+    /** Whether the render transform should be used instead of the body transform */
+    private boolean interpolated = false;
+    /** The SpatialHash cell this object is in, or -1 if it is not in one */
+    int spatialCell = -1;
+
     // ABSTRACT METHODS
 
     /**
@@ -135,6 +150,42 @@ public abstract class GameObject {
 
     public Body getBody(){ return physicsObject.getBody(); }
 
+    // RENDER INTERPOLATION
+
+    /**
+     * Stores the current body transform as the previous transform. Called at the start of every fixed
+     * simulation tick, so that drawing can blend between the last two ticks.
+     */
+    public void snapshotTransform() {
+        previousPosition.set(getX(), getY());
+        previousAngle = getAngle();
+        snapshotted = true;
+    }
+
+    /**
+     * Computes the render transform by blending the previous and current body transforms.
+     * @param alpha how far the render time is between the previous tick (0) and the current tick (1)
+     */
+    public void interpolateTransform(float alpha) {
+        if (!snapshotted) { interpolated = false; return; }
+        renderPosition.set(previousPosition).lerp(physicsObject.getPosition(), alpha);
+        renderAngle = previousAngle + (getAngle() - previousAngle) * alpha;
+        interpolated = true;
+    }
+
+    /** Forget any interpolation state, so that drawing uses the body transform directly. */
+    public void clearInterpolation() {
+        snapshotted = false;
+        interpolated = false;
+    }
+
+    /** @return the x-coordinate to draw this object at */
+    public float getRenderX() { return interpolated ? renderPosition.x : getX(); }
+    /** @return the y-coordinate to draw this object at */
+    public float getRenderY() { return interpolated ? renderPosition.y : getY(); }
+    /** @return the angle to draw this object at */
+    public float getRenderAngle() { return interpolated ? renderAngle : getAngle(); }
+
     public void deactivatePhysics(World world) {
         physicsObject.deactivatePhysics(world);
     }
@@ -172,7 +223,7 @@ public abstract class GameObject {
      */
     public void draw(GameCanvas canvas, Color color) {
         if (texture != null) {
-            canvas.draw(texture, color, origin.x, origin.y, getX() + textureOffset.x, getY() + textureOffset.y, getAngle(), textureScale.x, textureScale.y);
+            canvas.draw(texture, color, origin.x, origin.y, getRenderX() + textureOffset.x, getRenderY() + textureOffset.y, getRenderAngle(), textureScale.x, textureScale.y);
         }
     }
 
@@ -184,8 +235,8 @@ public abstract class GameObject {
     public void draw(GameCanvas canvas, TextureHolder holder) {
         if (holder.getTexture() != null) {
             canvas.draw(holder.getTexture(), holder.getColor(), holder.getOrigin().x, holder.getOrigin().y,
-                    getX() + holder.getTextureOffset().x, getY() + holder.getTextureOffset().y,
-                    getAngle(), holder.getTextureScale().x, holder.getTextureScale().y);
+                    getRenderX() + holder.getTextureOffset().x, getRenderY() + holder.getTextureOffset().y,
+                    getRenderAngle(), holder.getTextureScale().x, holder.getTextureScale().y);
         }
     }
 
@@ -0,0 +1,192 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.raftoftheseus.events.LevelLoadEvent;
+
+import java.util.HashMap;
+
+/**
+ * The objects of a level, read from its Tiled json, in the order LevelModel adds them.
+ *
+ * Walking the layers of the json and working out what each tile holds touches no Box2D, GL or
+ * game state, so a layout can be made on a worker thread while the loading screen is drawn.
+ * LevelModel then makes the objects it describes a few at a time on the main thread.
+ */
+public class LevelLayout {
+    /** What a placement adds to the level */
+    enum Kind { ROCK, RAFT, GOAL, WRECK, CURRENT, TREASURE, SHARK, HYDRA, SIREN, WOOD }
+
+    /** One object to add to the level */
+    static class Placement {
+        final Kind kind;
+        /** The grid row of the object */
+        final int row;
+        /** The grid column of the object */
+        final int col;
+        /** The rock int of a rock, the value of wood, or 1 for a strong current */
+        final int value;
+        /** The type of a rock, or null */
+        final Stationary.StationaryType type;
+        /** The direction of a current, or null */
+        final Current.Direction direction;
+        /** The grid position a siren starts at, or null */
+        final Vector2 start;
+        /** The grid position a siren flies to, or null if it stays where it is */
+        final Vector2 end;
+
+        private Placement(Kind kind, int row, int col, int value, Stationary.StationaryType type,
+                          Current.Direction direction, Vector2 start, Vector2 end) {
+            this.kind = kind;
+            this.row = row;
+            this.col = col;
+            this.value = value;
+            this.type = type;
+            this.direction = direction;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /** The number of grid columns */
+    final int cols;
+    /** The number of grid rows */
+    final int rows;
+    /** The key of the data maps of the level, from DataMapCache */
+    final long dataMapKey;
+    /** The objects of the level, in the order they are added */
+    final Array<Placement> placements = new Array<>();
+
+    private LevelLayout(int cols, int rows, long dataMapKey) {
+        this.cols = cols;
+        this.rows = rows;
+        this.dataMapKey = dataMapKey;
+    }
+
+    /**
+     * Reads the layout of a level. Safe to call from any thread, as long as the json is not changed meanwhile.
+     *
+     * @param level_int the level id, for the flight recorder
+     * @param level_data the Tiled json of the level
+     * @param defaultCols the number of columns if the json has no width
+     * @param defaultRows the number of rows if the json has no height
+     * @return the layout of the level
+     */
+    public static LevelLayout parse(int level_int, JsonValue level_data, int defaultCols, int defaultRows) {
+        LevelLoadEvent event = LevelLoadEvent.start(level_int, "layout");
+        LevelLayout layout = new LevelLayout(level_data.getInt("width", defaultCols),
+                level_data.getInt("height", defaultRows), DataMapCache.key(level_data));
+        JsonValue layers = level_data.get("layers");
+        JsonValue environment = layers.get(Tiled.LAYER_ENV);
+        JsonValue collectables = layers.get(Tiled.LAYER_COL);
+        JsonValue sirenLayer = layers.get(Tiled.LAYER_SIREN);
+        for(JsonValue layer : layers){
+            if(layer.getString("name").equals("Environment")){ environment = layer;}
+            else if(layer.getString("name").equals("Collectable")){ collectables = layer;}
+            else if(layer.getString("name").equals("Siren")){ sirenLayer = layer;}
+            else { System.out.println("Un-parse-able information: layer name not recognized." + layer.getString("name"));}
+        }
+
+        int[] env_array = environment.get("data").asIntArray();
+        int[] col_array = collectables.get("data").asIntArray();
+        // Loop through all index: for(int index = 0; index < map_size.x * map_size.y; index++)
+        for(int row_reversed = 0; row_reversed < layout.rows; row_reversed ++){
+            int row = layout.rows - row_reversed - 1;
+            for(int col = 0; col < layout.cols; col ++){
+                int index = row_reversed * layout.cols + col;
+                layout.readEnv(row, col, env_array[index], row_reversed == 0);
+                layout.readCollect(row, col, col_array[index]);
+            }
+        }
+        layout.readSirens(sirenLayer.get("objects"));
+        event.commit();
+        return layout;
+    }
+
+    private void add(Kind kind, int row, int col) { add(kind, row, col, 0); }
+
+    private void add(Kind kind, int row, int col, int value) {
+        placements.add(new Placement(kind, row, col, value, null, null, null, null));
+    }
+
+    private void addSiren(Vector2 start, Vector2 end) {
+        placements.add(new Placement(Kind.SIREN, 0, 0, 0, null, null, start, end));
+    }
+
+    /** This is the level editor JSON parser that reads the environment layer */
+    private void readEnv(int row, int col, int tile_int, boolean top_row) {
+        int rockInt = Tiled.computeRockInt(tile_int);
+        if(rockInt != Stationary.NON_ROCK){
+            Stationary.StationaryType type = Tiled.computeRockType(tile_int);
+            if(top_row) {
+                // Extend land and terrain into the top invisible border
+                int extend = Tiled.computeExtend(rockInt);
+                if(extend != Stationary.NON_ROCK){ addRock(row + 1, col, type, extend); }
+            }
+            addRock(row, col, type, rockInt);
+        }else{
+            if (tile_int == Tiled.DEFAULT || tile_int == Tiled.SEA){ return; }
+            if (tile_int == Tiled.START) { add(Kind.RAFT, row, col); return; }
+            if (tile_int == Tiled.GOAL){ add(Kind.GOAL, row, col); return; }
+            if (tile_int == Tiled.WRECK){ add(Kind.WRECK, row, col); return; }
+            if (tile_int < Tiled.TREASURE) {addCurrent(row, col, Tiled.compute_direction(tile_int), false); return;}
+            if (Tiled.isStrongCurrent(tile_int)) {addCurrent(row, col, Tiled.compute_direction(tile_int - Tiled.STRONG_CURRENT), true); return; }
+            System.out.println("Un-parse-able information detected in environment layer:" + tile_int);
+        }
+    }
+
+    private void addRock(int row, int col, Stationary.StationaryType type, int rock_int) {
+        placements.add(new Placement(Kind.ROCK, row, col, rock_int, type, null, null, null));
+    }
+
+    private void addCurrent(int row, int col, Current.Direction direction, boolean isStrong) {
+        placements.add(new Placement(Kind.CURRENT, row, col, isStrong ? 1 : 0, null, direction, null, null));
+    }
+
+    /** This is the level editor JSON parser that reads the collectable layer */
+    private void readCollect(int row, int col, int tile_int) {
+        if (tile_int == Tiled.DEFAULT){ return; }
+        if (tile_int == Tiled.TREASURE){ add(Kind.TREASURE, row, col); return; }
+        if (tile_int == Tiled.ENEMY_SHARK){ add(Kind.SHARK, row, col); return; }
+        if (tile_int == Tiled.ENEMY_SIREN){ addSiren(new Vector2(col, row), null); return; }
+        if (tile_int == Tiled.HYDRA){ add(Kind.HYDRA, row, col); return; }
+        if (tile_int == Tiled.WRECK){ add(Kind.WRECK, row, col); return; }
+        if (tile_int == Tiled.WOOD_LOW){ add(Kind.WOOD, row, col, Wood.LOW_WOOD); return; }
+        if (tile_int == Tiled.WOOD_MIDDLE){ add(Kind.WOOD, row, col, Wood.MIDDLE_WOOD); return; }
+        if (tile_int == Tiled.WOOD_DEFAULT){ add(Kind.WOOD, row, col, Wood.REGULAR_WOOD); return; }
+        if (tile_int == Tiled.WOOD_HIGH){ add(Kind.WOOD, row, col, Wood.HIGH_WOOD); return; }
+        // This function should never reach here.
+        System.out.println("Un-parse-able information detected in collectable layer:" + tile_int);
+    }
+
+    /** Read the siren layer. Sirens with the same ID are paired up into one siren flying between them */
+    private void readSirens(JsonValue objects) {
+        HashMap<Integer, Vector2> existingPositions = new HashMap<>();
+        for(JsonValue obj : objects){
+            JsonValue properties = obj.get("properties");
+            int id = 0;
+            boolean isStart = false;
+            if(properties != null){
+                for(JsonValue property : properties){
+                    if(property.getString("name").equals("ID")){
+                        id = property.getInt("value");
+                    }else if(property.getString("name").equals("isStart")){
+                        isStart = property.getBoolean("value"); // always true
+                    }
+                }
+            }
+            Vector2 position = new Vector2((obj.getFloat("x") + 25f) / 50f, rows - 1 - ((obj.getFloat("y") - 25f) / 50f));
+
+            // Now, add this siren by finding another copy of it
+            if(existingPositions.containsKey(id)){
+                Vector2 altPosition = existingPositions.remove(id);
+                if(isStart){ addSiren(position, altPosition); }else{ addSiren(altPosition, position); }
+            }else{
+                existingPositions.put(id, position);
+            }
+        }
+        for(Vector2 vec : existingPositions.values()){ addSiren(vec, null); } // SUPPORT STATIONARY SIREN
+        existingPositions.clear();
+    }
+}
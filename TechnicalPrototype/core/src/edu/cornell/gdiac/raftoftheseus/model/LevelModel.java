@@ -2,30 +2,47 @@ package edu.cornell.gdiac.raftoftheseus.model;
 
 import box2dLight.RayHandler;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.Filter;
 import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.GridPoint2;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
 import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.raftoftheseus.lights.LightManager;
+import edu.cornell.gdiac.raftoftheseus.lights.LightSource;
 import edu.cornell.gdiac.raftoftheseus.lights.PointSource;
+import edu.cornell.gdiac.raftoftheseus.lights.ShadowMapLight;
+import edu.cornell.gdiac.raftoftheseus.lights.ShadowMapRenderer;
 import edu.cornell.gdiac.raftoftheseus.GameCanvas;
+import edu.cornell.gdiac.raftoftheseus.events.DataMapEvent;
+import edu.cornell.gdiac.raftoftheseus.events.LevelLoadEvent;
+import edu.cornell.gdiac.raftoftheseus.events.ProjectileCounters;
 import edu.cornell.gdiac.raftoftheseus.model.enemy.Hydra;
+import edu.cornell.gdiac.raftoftheseus.model.enemy.LineOfSight;
 import edu.cornell.gdiac.raftoftheseus.model.enemy.Shark;
 import edu.cornell.gdiac.raftoftheseus.model.enemy.Siren;
 import edu.cornell.gdiac.raftoftheseus.model.projectile.Note;
 import edu.cornell.gdiac.raftoftheseus.model.projectile.Spear;
+import edu.cornell.gdiac.raftoftheseus.singleton.FrameProfiler;
 import edu.cornell.gdiac.util.FilmStrip;
 import edu.cornell.gdiac.util.PooledList;
 
-import java.util.Comparator;
-import java.util.HashMap;
 
 import static edu.cornell.gdiac.raftoftheseus.model.Stationary.StationaryType.*;
 
@@ -40,6 +57,8 @@ public class LevelModel {
     private static final int DEFAULT_GRID_ROW = 12;
     /** Default num of columns in the map (x, width) NEW: MAXIMUM num of cols show on any screen. */
     private static final int DEFAULT_GRID_COL = 24;
+    /** The screen size the camera assumes when there is no canvas (headless simulation) */
+    private static final int HEADLESS_SCREEN_WIDTH = 1920, HEADLESS_SCREEN_HEIGHT = 1080;
     /** a final vector 2 with both x and y as 0, e.g. Top-down game with no gravity */
     private static final Vector2 ZERO_VECTOR_2 = new Vector2(0, 0);
     /** This is used as a level int representing restarting the level */
@@ -48,6 +67,29 @@ public class LevelModel {
     private static final int DIFFICULTY_COUNT = 3;
     /** How fast do you want to lerp this camera? Fast: 0.1 or 0.2; Slow: 0.01 or 0.005 */ // TODO: factor out
     private static final float LERP_FACTOR = 0.04f;
+    /** How far the sprite of each type of object may reach from its center, in Box2D units, by ObjectType ordinal */
+    private static final float[] CULL_PADDING = new float[GameObject.ObjectType.values().length];
+    /** The largest of CULL_PADDING */
+    private static float MAX_CULL_PADDING;
+    /** Number of tile columns in a chunk of terrain */
+    private static int CHUNK_COLUMNS = 8;
+
+    /**
+     * Load the constants for culling objects that are off screen
+     * @param objParams is the "culling" child of object_settings.json
+     */
+    public static void setConstants(JsonValue objParams) {
+        float padding = objParams.getFloat("padding", GRID_SIZE);
+        CHUNK_COLUMNS = objParams.getInt("chunk columns", 8);
+        JsonValue types = objParams.get("type padding");
+        MAX_CULL_PADDING = 0;
+        for (GameObject.ObjectType type : GameObject.ObjectType.values()) {
+            String name = type.name().toLowerCase();
+            float p = types != null ? types.getFloat(name, padding) : padding;
+            CULL_PADDING[type.ordinal()] = p;
+            MAX_CULL_PADDING = Math.max(MAX_CULL_PADDING, p);
+        }
+    }
 
     private int ticks;
 
@@ -74,7 +116,9 @@ public class LevelModel {
     private PooledList<Spear> spears = new PooledList<>();
     private PooledList<GameObject> floatingObjectDrawList = new PooledList<>();
     private PooledList<GameObject> currents  = new PooledList<>();
-    private PooledList<GameObject> standardDrawList = new PooledList<>();
+    PooledList<GameObject> standardDrawList = new PooledList<>();
+    /** Puts the objects in the order they are drawn, every frame */
+    private final RenderQueue renderQueue = new RenderQueue();
     /** List of treasure in this world */
     private Treasure[] treasure = new Treasure[3];
     private int treasureCount = 0;
@@ -82,6 +126,22 @@ public class LevelModel {
     /*=*=*=*=*=*=*=*=*=* LEVEL Information (clear after each level dispose) *=*=*=*=*=*=*=*=*=*/
     /** The read-in level data */
     private JsonValue level_data;
+    /** The objects of the level data, or null until they are read */
+    private LevelLayout layout;
+    /** The layout being read on the loader thread, or null */
+    private AsyncResult<LevelLayout> pendingLayout;
+    /** Reads level layouts in the background; null until a level is loaded in the background, and after dispose() */
+    private AsyncExecutor loader;
+    /** The stages of loading a level after its setup, in order */
+    private enum LoadStage { LAYOUT, POPULATE, LIGHTS, DATA_MAPS, SORT, DONE }
+    /** The stage the level being loaded is at */
+    private LoadStage loadStage = LoadStage.DONE;
+    /** The level id being loaded */
+    private int loadingLevel;
+    /** How many placements of the layout have been added to the level */
+    private int placed;
+    /** How many placements to add between checks of the time budget */
+    private static final int PLACEMENT_BATCH = 16;
     /** The boundary of the world */
     private Rectangle bounds;
     /** The difficulty of the level (0 = easy, 1 = medium, 2 = hard) */
@@ -91,15 +151,47 @@ public class LevelModel {
     /** The map size in grid */
     protected GridPoint2 map_size = new GridPoint2(DEFAULT_GRID_COL, DEFAULT_GRID_ROW);
     /** Reference to the current field */
-    private CurrentField currentField;
+    CurrentField currentField;
+    /** Cache for the current velocity at the player */
+    private final Vector2 playerCurrentCache = new Vector2();
+    /** Every object in the world, bucketed by grid, for proximity queries */
+    private SpatialHash spatialIndex;
+    /** Which grid tiles block enemy sight */
+    private LineOfSight lineOfSight;
+    /** The terrain, cliffs and rocks, drawn a chunk at a time */
+    private TerrainChunks terrainChunks;
+    /** How far each grid tile is from the raft, for enemies to find their way around terrain */
+    private NavigationField navigation;
+    /** The current of every tile, for the water shader; null until the shader first needs it */
+    private Texture flowMap;
+    /** How close every part of the water is to shore, for the water shader; null until the shader first needs it */
+    private SurfMap surfMap;
+    /** The key of the flow and surf maps of the level in the DataMapCache */
+    private long dataMapKey;
+    /** Cache for the area of the objects whose surf needs to be drawn again */
+    private final Rectangle surfSourceCache = new Rectangle();
+    /** Cache for the objects whose surf needs to be drawn again */
+    private final Array<GameObject> surfCache = new Array<>();
     /** The light source coming from the player */
-    private PointSource raftLight;
+    private LightSource raftLight;
     /** The light source coming from the goal */
-    private PointSource goalLight;
+    private LightSource goalLight;
     /** The light source coming from the goal */
-    private PointSource[] treasureLight = new PointSource[3];
+    private LightSource[] treasureLight = new LightSource[3];
+    /** The lights that move with an object, placed where the object is drawn rather than where its body is */
+    private final Array<LightSource> movingLights = new Array<>();
+    /** The object each moving light moves with */
+    private final Array<GameObject> movingLightTargets = new Array<>();
+    /** The x and y offset and the angle offset in degrees of each moving light from its object, three per light */
+    private final FloatArray movingLightOffsets = new FloatArray();
     /** The ray-handler for storing lights, and drawing them (SIGH) */
     protected RayHandler rayhandler;
+    /** Draws the lights with shadow maps on the GPU instead, if the "backend" of the light settings says so */
+    private ShadowMapRenderer shadowRenderer;
+    /** Sets the rays of the lights each frame */
+    private LightManager lightManager;
+    /** The matrix the lights were last drawn with */
+    private final Matrix4 lightMatrix = new Matrix4();
 
     /*=*=*=*=*=*=*=*=*=* Temp vector used for computation (not saved) *=*=*=*=*=*=*=*=*=*/
     /** Vector 2 holding the temp position vector for the game object to create */
@@ -120,6 +212,18 @@ public class LevelModel {
     private JsonValue lightSettings;
     /** Transform from Box2D coordinates to screen coordinates */
     private Affine2 cameraTransform;
+    /** The part of the world on screen, in Box2D units */
+    private final Rectangle viewBounds = new Rectangle();
+    /** The part of the world whose objects may be on screen, in Box2D units */
+    private final Rectangle cullBounds = new Rectangle();
+    /** The objects that may be on screen, found again for every draw */
+    private final Array<GameObject> visibleCache = new Array<>();
+    /** The chunks of terrain that may be on screen, found again for every draw */
+    private final Array<TerrainChunks.Chunk> visibleChunks = new Array<>();
+    /** The walls around the level, which are drawn without culling when shaders are off */
+    private final Array<GameObject> walls = new Array<>();
+    /** How far rendering is between the previous and current simulation tick. Negative if not interpolating. */
+    private float interpolationAlpha = -1;
 
     private GameObject[][] obstacles;
 
@@ -230,59 +334,59 @@ public class LevelModel {
 
     /** This gather the assets required for initializing the objects. Should be called after directory is set. */
     public void gatherAssets() {
-        raftTexture = new FilmStrip(directory.getEntry("raft", Texture.class), 8, 5, 40);// TODO: use data-driven design for rows/cols/size
-        raftAura = new FilmStrip(directory.getEntry("raft_aura", Texture.class), 2, 5);
-        topAura = new FilmStrip(directory.getEntry("top_aura", Texture.class), 2, 4);
-        woodSTexture = new TextureRegion(directory.getEntry("woodS", Texture.class));
-        woodMTexture = new TextureRegion(directory.getEntry("woodM", Texture.class));
-        woodRTexture = new TextureRegion(directory.getEntry("woodR", Texture.class));
-        woodLTexture = new TextureRegion(directory.getEntry("woodL", Texture.class));
-        targetTexture = new TextureRegion(directory.getEntry("target", Texture.class));
-        regularRockTexture = new TextureRegion(directory.getEntry("regular_rock", Texture.class));
-        sharpRockTexture = new TextureRegion(directory.getEntry("sharp_rock", Texture.class));
-        treasureTexture = new FilmStrip(directory.getEntry("treasure", Texture.class), 1, 7);
-        starburstTexture = new FilmStrip(directory.getEntry("treasure_starburst", Texture.class), 2, 5);
-        currentTexture = new TextureRegion(directory.getEntry("current", Texture.class));
-        stunTexture = new FilmStrip(directory.getEntry("stun_overlay", Texture.class), 1, 4);
-        sharkTexture = new FilmStrip(directory.getEntry("shark", Texture.class), 1, 17);
-        sirenTexture = new FilmStrip(directory.getEntry("siren", Texture.class), 4, 5);
-        earthTile = new TextureRegion(directory.getEntry("earth", Texture.class));
-        splashTexture = new FilmStrip(directory.getEntry("splash", Texture.class), 1, 15);
-        spearTexture = new FilmStrip(directory.getEntry("spear", Texture.class), 5, 5);
-        noteTexture = new TextureRegion(directory.getEntry("note", Texture.class));
+        raftTexture = directory.getFilmStrip("raft", 8, 5, 40);// TODO: use data-driven design for rows/cols/size
+        raftAura = directory.getFilmStrip("raft_aura", 2, 5, 10);
+        topAura = directory.getFilmStrip("top_aura", 2, 4, 8);
+        woodSTexture = directory.getRegion("woodS");
+        woodMTexture = directory.getRegion("woodM");
+        woodRTexture = directory.getRegion("woodR");
+        woodLTexture = directory.getRegion("woodL");
+        targetTexture = directory.getRegion("target");
+        regularRockTexture = directory.getRegion("regular_rock");
+        sharpRockTexture = directory.getRegion("sharp_rock");
+        treasureTexture = directory.getFilmStrip("treasure", 1, 7, 7);
+        starburstTexture = directory.getFilmStrip("treasure_starburst", 2, 5, 10);
+        currentTexture = directory.getRegion("current");
+        stunTexture = directory.getFilmStrip("stun_overlay", 1, 4, 4);
+        sharkTexture = directory.getFilmStrip("shark", 1, 17, 17);
+        sirenTexture = directory.getFilmStrip("siren", 4, 5, 20);
+        earthTile = directory.getRegion("earth");
+        splashTexture = directory.getFilmStrip("splash", 1, 15, 15);
+        spearTexture = directory.getFilmStrip("spear", 5, 5, 25);
+        noteTexture = directory.getRegion("note");
         mapBackground = directory.getEntry("map_background", Texture.class);
 //        blueTexture = directory.getEntry("blue_texture", Texture.class);
         seaBackground = directory.getEntry("background", Texture.class);
         waterTexture = directory.getEntry("water_diffuse", Texture.class);
-        greyBar = new TextureRegion(directory.getEntry( "grey_bar", Texture.class ));
-        reticleTexture = new TextureRegion(directory.getEntry("reticle", Texture.class));
+        greyBar = directory.getRegion("grey_bar");
+        reticleTexture = directory.getRegion("reticle");
         lightSettings = directory.getEntry("lights", JsonValue.class);
-        canvas.setRadialHealth(directory.getEntry("radial_bar",Texture.class), directory.getEntry( "top_bar", Texture.class ));
-        fuelTexture = new TextureRegion(directory.getEntry("fuel", Texture.class));
-        shipwreckTexture = new FilmStrip(directory.getEntry("shipwreck", Texture.class), 3, 1);
-        gatherTerrainAssets(directory.getEntry("terrain",Texture.class));
+        if (canvas != null) { canvas.setRadialHealth(directory.getEntry("radial_bar",Texture.class), directory.getEntry( "top_bar", Texture.class )); }
+        fuelTexture = directory.getRegion("fuel");
+        shipwreckTexture = directory.getFilmStrip("shipwreck", 3, 1, 3);
+        gatherTerrainAssets(directory.getRegion("terrain"));
         gatherPlantAssets();
     }
 
     /** gather the plants assets for 4 kinds of plants (2 daises, 2 grasses) corresponding to level difficulty */
     private void gatherPlantAssets() {
-        transGrass[0] = new FilmStrip(directory.getEntry("grassTransGreen", Texture.class), 2, 4);
-        transGrass[1] = new FilmStrip(directory.getEntry("grassTransYellow", Texture.class), 2, 4);
-        transGrass[2] = new FilmStrip(directory.getEntry("grassTransPurple", Texture.class), 2, 4);
-        rotGrass[0] = new FilmStrip(directory.getEntry("grassRotGreen", Texture.class), 2, 4);
-        rotGrass[1] = new FilmStrip(directory.getEntry("grassRotYellow", Texture.class), 2, 4);
-        rotGrass[2] = new FilmStrip(directory.getEntry("grassRotPurple", Texture.class), 2, 4);
-        redDaisy[0] = new FilmStrip(directory.getEntry("daisyRedGreen", Texture.class), 4, 4);
-        redDaisy[1] = new FilmStrip(directory.getEntry("daisyRedYellow", Texture.class), 4, 4);
-        redDaisy[2] = new FilmStrip(directory.getEntry("daisyRedPurple", Texture.class), 4, 4);
-        oraDaisy[0] = new FilmStrip(directory.getEntry("daisyOraGreen", Texture.class), 4, 4);
-        oraDaisy[1] = new FilmStrip(directory.getEntry("daisyOraYellow", Texture.class), 4, 4);
-        oraDaisy[2] = new FilmStrip(directory.getEntry("daisyOraPurple", Texture.class), 4, 4);
-    }
-
-    private void gatherTerrainAssets(Texture terrainTexture) {
+        transGrass[0] = directory.getFilmStrip("grassTransGreen", 2, 4, 8);
+        transGrass[1] = directory.getFilmStrip("grassTransYellow", 2, 4, 8);
+        transGrass[2] = directory.getFilmStrip("grassTransPurple", 2, 4, 8);
+        rotGrass[0] = directory.getFilmStrip("grassRotGreen", 2, 4, 8);
+        rotGrass[1] = directory.getFilmStrip("grassRotYellow", 2, 4, 8);
+        rotGrass[2] = directory.getFilmStrip("grassRotPurple", 2, 4, 8);
+        redDaisy[0] = directory.getFilmStrip("daisyRedGreen", 4, 4, 16);
+        redDaisy[1] = directory.getFilmStrip("daisyRedYellow", 4, 4, 16);
+        redDaisy[2] = directory.getFilmStrip("daisyRedPurple", 4, 4, 16);
+        oraDaisy[0] = directory.getFilmStrip("daisyOraGreen", 4, 4, 16);
+        oraDaisy[1] = directory.getFilmStrip("daisyOraYellow", 4, 4, 16);
+        oraDaisy[2] = directory.getFilmStrip("daisyOraPurple", 4, 4, 16);
+    }
+
+    private void gatherTerrainAssets(TextureRegion terrainTexture) {
         terrain = new TextureRegion[2 * DIFFICULTY_COUNT][Tiled.TERRAIN_TYPES];
-        int width = terrainTexture.getWidth() / Tiled.TERRAIN_TYPES;
+        int width = terrainTexture.getRegionWidth() / Tiled.TERRAIN_TYPES;
         int height = width; // known to be square
         for(int row = 0; row < DIFFICULTY_COUNT; row ++) {
             for(int col = 0; col < Tiled.TERRAIN_TYPES; col++){
@@ -310,6 +414,16 @@ public class LevelModel {
         GRID_PIXELS = Math.max(STANDARD_GRID_PIXELS, Math.max(height_req, width_req));
         PIXELS_PER_UNIT = GRID_PIXELS/GRID_SIZE;
         BAR_PLAYER_OFFSET = 0.65f * GRID_PIXELS;
+        resizeLightMap();
+    }
+
+    /** Size the light map for the screen, at the scale of the light quality */
+    public void resizeLightMap(){
+        if(canvas == null || lightManager == null){ return; }
+        if(rayhandler != null){ lightManager.resize(rayhandler, canvas.getWidth(), canvas.getHeight()); }
+        if(shadowRenderer != null){
+            shadowRenderer.resize(lightManager.lightMapSize(canvas.getWidth()), lightManager.lightMapSize(canvas.getHeight()));
+        }
     }
 
     /*=*=*=*=*=*=* Level Parser: bounds of the world *=*=*=*=*=*=*=*/
@@ -384,8 +498,15 @@ public class LevelModel {
     /*=*=*=*=*=*=*=*=*=* Level selection: dispose, reset, and select a level *=*=*=*=*=*=*=*=*=*/
     /** Dispose of all (non-static) resources allocated to this mode. Clear up all list of this singleton class. */
     public void dispose() {
+        // wait out a layout still being read, and drop the unfinished load; beginLoad() makes a new loader
+        if (loader != null) { loader.dispose(); loader = null; }
+        pendingLayout = null;
+        loadStage = LoadStage.DONE;
         for(GameObject obj : objects) { obj.deactivatePhysics(world); }
         objects.clear();
+        walls.clear();
+        visibleCache.clear();
+        if (spatialIndex != null) { spatialIndex.clear(); }
         addQueue.clear();
         sharks.clear();
         hydras.clear();
@@ -401,7 +522,14 @@ public class LevelModel {
         if (raftLight != null) { raftLight.remove(); raftLight = null; }
         if (goalLight != null) { goalLight.remove(); goalLight = null; }
         for(int i = 0; i < 3; i ++){if (treasureLight[i] != null) { treasureLight[i].remove(); treasureLight[i] = null; }}
+        movingLights.clear();
+        movingLightTargets.clear();
+        movingLightOffsets.clear();
         if (rayhandler != null) { rayhandler.dispose(); rayhandler = null; }
+        if (shadowRenderer != null) { shadowRenderer.dispose(); shadowRenderer = null; }
+        if (lightManager != null) { lightManager.clear(); lightManager = null; }
+        if (flowMap != null) { flowMap.dispose(); flowMap = null; }
+        if (surfMap != null) { surfMap.dispose(); surfMap = null; }
     }
 
     /** Resets the status of the game so that we can play again.
@@ -417,9 +545,24 @@ public class LevelModel {
      *
      * @param level_int an integer representing the level selection, i.e. which json file to read from. */
     public void loadLevel(int level_int, JsonValue level_data){
+        beginLoad(level_int, level_data, false);
+        continueLoad(Long.MAX_VALUE);
+    }
+
+    /** Start loading the level representing by the parameter level_int, to be finished by continueLoad().
+     * The size of the level and its walls are set up at once. Its layout is read on the loader thread if
+     * background is true, and the objects are then added a batch at a time by continueLoad().
+     * Precondition: gameObject list has been cleared.
+     *
+     * @param level_int an integer representing the level selection, i.e. which json file to read from.
+     * @param level_data the Tiled json of the level
+     * @param background whether to read the layout on the loader thread */
+    public void beginLoad(int level_int, JsonValue level_data, boolean background){
+        LevelLoadEvent event = LevelLoadEvent.start(level_int, "setup");
         resizeScreen();
         if(level_int != LEVEL_RESTART_CODE && level_data != null){
-            // Load in new level
+            // Load in new level, reusing the layout if it is the same one
+            if(level_data != this.level_data){ layout = null; }
             this.level_data = level_data;
             // Read in the grid map size
             map_size.x = level_data.getInt("width", DEFAULT_GRID_COL);
@@ -431,20 +574,93 @@ public class LevelModel {
         }
         // set difficulty
         setDifficulty(level_int);
+        // Index objects by grid as they are added
+        spatialIndex = new SpatialHash(bounds, GRID_SIZE);
+        // Terrain marks its tiles as it is added
+        lineOfSight = new LineOfSight(cols(), rows(), GRID_SIZE);
+        terrainChunks = new TerrainChunks(cols(), rows(), GRID_SIZE, CHUNK_COLUMNS);
+        navigation = new NavigationField(cols(), rows(), GRID_SIZE);
         // Add wall to the world
         computeWall(bounds.width, bounds.height);
         // Set current field
-        currentField = new  CurrentField(bounds.width, bounds.height, 3);
-        // Populate game objects
-        populateLevel();
-        prepareLights(level_int);
+        currentField = new  CurrentField(bounds.width, bounds.height, 3); // still everywhere until the currents are added
+        event.commit();
+
+        loadingLevel = level_int;
+        loadStage = LoadStage.LAYOUT;
+        placed = 0;
+        if(layout == null){
+            final JsonValue data = this.level_data;
+            if(background){
+                if(loader == null){ loader = new AsyncExecutor(1, "level loader"); }
+                pendingLayout = loader.submit(() -> LevelLayout.parse(level_int, data, DEFAULT_GRID_COL, DEFAULT_GRID_ROW));
+            }else{
+                layout = LevelLayout.parse(level_int, data, DEFAULT_GRID_COL, DEFAULT_GRID_ROW);
+            }
+        }
+    }
 
-        // the following could be changed so that it only recalculates a flowmap the first time it loads a level, if
-        // this operation is found to be too slow. However, I've found that it's not that slow, so this is unnecessary.
-        if (canvas.USE_SHADER) {
-            canvas.setDataMaps(recalculateFlowMap(), recalculateSurfMap());
-            getObjects().sort(new renderOrderComparator()); // sort objects order on map. exclusive to shader bcz otherwise this list is sorted in draw()
+    /** Keep loading the level started by beginLoad(), for about as long as the budget.
+     * The objects are added in batches, and a stage that cannot be split, like preparing the lights, is always
+     * finished once it is started.
+     *
+     * @param budget how long to load for, in nanoseconds
+     * @return whether the level is loaded */
+    public boolean continueLoad(long budget){
+        long start = System.nanoTime();
+        while(loadStage != LoadStage.DONE){
+            switch(loadStage){
+                case LAYOUT:
+                    if(layout == null){
+                        if(!pendingLayout.isDone()){ return false; }
+                        layout = pendingLayout.get();
+                        pendingLayout = null;
+                    }
+                    dataMapKey = layout.dataMapKey;
+                    loadStage = LoadStage.POPULATE;
+                    break;
+                case POPULATE:
+                    LevelLoadEvent event = LevelLoadEvent.start(loadingLevel, "populate");
+                    populateLevel(start, budget);
+                    event.commit();
+                    if(placed < layout.placements.size){ return false; }
+                    // headless: no lights or shader maps to prepare
+                    loadStage = canvas == null ? LoadStage.DONE : LoadStage.LIGHTS;
+                    break;
+                case LIGHTS:
+                    event = LevelLoadEvent.start(loadingLevel, "lights");
+                    prepareLights(loadingLevel);
+                    event.commit();
+                    loadStage = canvas.USE_SHADER ? LoadStage.DATA_MAPS : LoadStage.DONE;
+                    break;
+                case DATA_MAPS:
+                    event = LevelLoadEvent.start(loadingLevel, "data maps");
+                    loadDataMaps();
+                    event.commit();
+                    loadStage = LoadStage.SORT;
+                    break;
+                case SORT:
+                    event = LevelLoadEvent.start(loadingLevel, "sort");
+                    renderQueue.sort(getObjects()); // sort objects order on map. exclusive to shader bcz otherwise the objects are sorted in draw()
+                    event.commit();
+                    loadStage = LoadStage.DONE;
+                    break;
+                default:
+                    break;
+            }
+            if(loadStage != LoadStage.DONE && System.nanoTime() - start >= budget){ return false; }
         }
+        return true;
+    }
+
+    /** @return how much of the level started by beginLoad() is loaded, from 0 to 1 */
+    public float getLoadProgress(){
+        if(loadStage == LoadStage.DONE){ return 1; }
+        if(layout == null){ return 0; }
+        // the objects, then the lights, data maps and sort as one step each
+        int steps = layout.placements.size + 3;
+        int done = placed + Math.max(0, loadStage.ordinal() - LoadStage.LIGHTS.ordinal());
+        return (float) done / steps;
     }
 
     /** easy, no star: 01234 (5 total); mid: 56789 10 11 12 (8 total); hard: 13 14 15 16 17 18 19 (7 total) **/
@@ -495,68 +711,45 @@ public class LevelModel {
         Stationary this_wall = new Stationary(polygonVertices); /* The wall of the level */
         this_wall.setTexture(earthTile);
         addObject(this_wall);
+        walls.add(this_wall);
     }
 
     /**
-     * Populate the level with the game objects.
-     * Precondition: gameObject list has been cleared. */
-    private void populateLevel() {
-        JsonValue layers = level_data.get("layers");
-        JsonValue environment = layers.get(Tiled.LAYER_ENV);
-        JsonValue collectables = layers.get(Tiled.LAYER_COL);
-        JsonValue sirenLayer = layers.get(Tiled.LAYER_SIREN);
-        for(JsonValue layer : layers){
-            if(layer.getString("name").equals("Environment")){ environment = layer;}
-            else if(layer.getString("name").equals("Collectable")){ collectables = layer;}
-            else if(layer.getString("name").equals("Siren")){ sirenLayer = layer;}
-            else { System.out.println("Un-parse-able information: layer name not recognized." + layer.getString("name"));}
-        }
-
-        int[] env_array = environment.get("data").asIntArray();
-        int[] col_array = collectables.get("data").asIntArray();
-        // Loop through all index: for(int index = 0; index < map_size.x * map_size.y; index++)
-        for(int row_reversed = 0; row_reversed < rows(); row_reversed ++){
-            int row = rows() - row_reversed - 1;
-            for(int col = 0; col < cols(); col ++){
-                int index = row_reversed * cols() + col;
-                populateEnv(row, col, env_array[index], row_reversed == 0);
-                populateCollect(row, col, col_array[index]);
-            }
+     * Populate the level with the game objects of the layout, for about as long as the budget.
+     * Precondition: gameObject list has been cleared.
+     *
+     * @param start when loading started, from System.nanoTime()
+     * @param budget how long to load for, in nanoseconds */
+    private void populateLevel(long start, long budget) {
+        Array<LevelLayout.Placement> placements = layout.placements;
+        while(placed < placements.size){
+            int end = Math.min(placements.size, placed + PLACEMENT_BATCH);
+            for(; placed < end; placed ++){ populate(placements.get(placed)); }
+            if(System.nanoTime() - start >= budget){ return; }
         }
-        populateSiren(sirenLayer.get("objects"));
-    }
-
-    /** Populate the new created siren layer. This is the level editor JSON parser that populate the enemy layer
-     * @param objects the list of sirens */
-    private void populateSiren(JsonValue objects) {
-        HashMap<Integer, Vector2> existingPositions = new HashMap<>();
-        for(JsonValue obj : objects){
-            JsonValue properties = obj.get("properties");
-            int id = 0;
-            boolean isStart = false;
-            if(properties != null){
-                for(JsonValue property : properties){
-                    if(property.getString("name").equals("ID")){
-                        id = property.getInt("value");
-                    }else if(property.getString("name").equals("isStart")){
-                        isStart = property.getBoolean("value"); // always true
-                    }
-                }
-            }
-            Vector2 position = new Vector2((obj.getFloat("x") + 25f) / 50f, rows() - 1 - ((obj.getFloat("y") - 25f) / 50f));
+    }
 
-            // Now, add this siren by finding another copy of it
-            if(existingPositions.containsKey(id)){
-                Vector2 altPosition = existingPositions.remove(id);
-                if(isStart){ addDoubleSiren(position, altPosition); }else{ addDoubleSiren(altPosition, position); }
-            }else{
-                existingPositions.put(id, position);
-            }
+    /** Add the object of a placement to the level */
+    private void populate(LevelLayout.Placement p) {
+        switch(p.kind){
+            case ROCK: addRock(p.row, p.col, p.type, p.value); break;
+            case RAFT: addRaft(p.row, p.col); break;
+            case GOAL: addGoal(p.row, p.col); break;
+            case WRECK: addWreck(p.row, p.col); break;
+            case CURRENT: addCurrent(p.row, p.col, p.direction, p.value != 0); break;
+            case TREASURE: addTreasure(p.row, p.col); break;
+            case SHARK: addEnemy(p.row, p.col, true); break;
+            case HYDRA: addEnemy(p.row, p.col, false); break;
+            case SIREN:
+                if(p.end == null){ addSingleSiren(p.start); }else{ addDoubleSiren(p.start, p.end); }
+                break;
+            case WOOD: addWood(p.row, p.col, p.value); break;
         }
-        for(Vector2 vec : existingPositions.values()){ addSingleSiren(vec); } // SUPPORT STATIONARY SIREN
-        existingPositions.clear();
     }
 
+    /*=*=*=*=*=*=*=*=*=* Level population: add objects *=*=*=*=*=*=*=*=*=*/
+
+
     /** Compute the position of the object in the world given the grid location.
      * Result stored in compute_temp.
      * @param x1 the x grid value of start position
@@ -589,54 +782,6 @@ public class LevelModel {
         addSiren(this_siren);
     }
 
-    /** This is the level editor JSON parser that populate the collectable layer
-     * @param row the row the collectable is in the world
-     * @param col the column the collectable is in the world
-     * @param tile_int whether this tile is a wood or treasure */
-    private void populateCollect(int row, int col, int tile_int) {
-        if (tile_int == Tiled.DEFAULT){ return; }
-        if (tile_int == Tiled.TREASURE){ addTreasure(row, col); return; }
-        if (tile_int == Tiled.ENEMY_SHARK){ addEnemy(row, col, true); return; }
-        if (tile_int == Tiled.ENEMY_SIREN){ addSingleSiren(new Vector2(col, row)); return; }
-        if (tile_int == Tiled.HYDRA){ addEnemy(row, col, false); return; }
-        if (tile_int == Tiled.WRECK){ addWreck(row, col); return; }
-        if (tile_int == Tiled.WOOD_LOW){ addWood(row, col, Wood.LOW_WOOD); return; }
-        if (tile_int == Tiled.WOOD_MIDDLE){ addWood(row, col, Wood.MIDDLE_WOOD); return; }
-        if (tile_int == Tiled.WOOD_DEFAULT){ addWood(row, col, Wood.REGULAR_WOOD); return; }
-        if (tile_int == Tiled.WOOD_HIGH){ addWood(row, col, Wood.HIGH_WOOD); return; }
-        // This function should never reach here.
-        System.out.println("Un-parse-able information detected in collectable layer:" + tile_int);
-    }
-
-    /** This is the level editor JSON parser that populate the environment layer
-     * @param row the row the environment element is in the world
-     * @param col the column the environment element is in the world
-     * @param tile_int whether this tile is a rock or a current or a goal */
-    private void populateEnv(int row, int col, int tile_int, boolean top_row) {
-        currentField.field[col][row] = ZERO_VECTOR_2;
-        int rockInt = Tiled.computeRockInt(tile_int);
-        if(rockInt != Stationary.NON_ROCK){
-            Stationary.StationaryType type = Tiled.computeRockType(tile_int);
-            if(top_row) { populateExtendLand(row, col, type, rockInt); }
-            addRock(row, col, type, rockInt);
-        }else{
-            if (tile_int == Tiled.DEFAULT || tile_int == Tiled.SEA){ return; }
-            if (tile_int == Tiled.START) { addRaft(row, col); return; }
-            if (tile_int == Tiled.GOAL){ addGoal(row, col); return; }
-            if (tile_int == Tiled.WRECK){ addWreck(row, col); return; }
-            if (tile_int < Tiled.TREASURE) {addCurrent(row, col, Tiled.compute_direction(tile_int), false); return;}
-            if (Tiled.isStrongCurrent(tile_int)) {addCurrent(row, col, Tiled.compute_direction(tile_int - Tiled.STRONG_CURRENT), true); return; }
-            System.out.println("Un-parse-able information detected in environment layer:" + tile_int);
-        }
-    }
-
-    /** Extend land and terrain into the top invisible border */
-    private void populateExtendLand(int row, int col, Stationary.StationaryType type, int rock_int) {
-        int extend = Tiled.computeExtend(rock_int);
-        if(extend != Stationary.NON_ROCK){ addRock(row + 1, col, type, extend); }
-    }
-
-    /*=*=*=*=*=*=*=*=*=* Level population: add objects *=*=*=*=*=*=*=*=*=*/
 
     /** Compute the position of the object in the world given the grid location.
      * Result stored in compute_temp.
@@ -656,6 +801,7 @@ public class LevelModel {
             Shark this_shark = new Shark(compute_temp, getPlayer());
             this_shark.setTexture(sharkTexture);
             this_shark.setStunTexture(stunTexture);
+            this_shark.setNavigation(navigation);
             addSharkObject(this_shark);
         } else {
             Hydra h = new Hydra(compute_temp, getPlayer());
@@ -694,6 +840,8 @@ public class LevelModel {
             this_rock.setTexture(terrain[(type == Stationary.StationaryType.TERRAIN ? difficulty : difficulty + DIFFICULTY_COUNT)][rock_int - 1]);
         }
         if(row < obstacles[0].length){obstacles[col][row] = this_rock;}
+        navigation.setBlocked(col, row, true);
+        if(this_rock.blocksSight()){ lineOfSight.setTile(col, row, this_rock.fillsTile() ? LineOfSight.SOLID : LineOfSight.PARTIAL); }
         addObject(this_rock);
         standardDrawList.add(this_rock);
     }
@@ -757,6 +905,8 @@ public class LevelModel {
         computePosition(col, row);
         Shipwreck sw = new Shipwreck(compute_temp);
         sw.setTexture(shipwreckTexture);
+        lineOfSight.setTile(col, row, LineOfSight.PARTIAL); // the wreck blocks sight and movement until it is destroyed
+        navigation.setBlocked(col, row, true);
         addObject(sw);
         standardDrawList.add(sw);
     }
@@ -772,7 +922,7 @@ public class LevelModel {
         this_current.setTexture(currentTexture);
 
         // Initialize the current field, used for current vector field
-        currentField.field[col][row] = this_current.getDirectionVector();
+        currentField.set(col, row, this_current.getDirectionVector());
 
         // Update the obstacles, used for enemy AI
         obstacles[col][row] = this_current;
@@ -817,6 +967,9 @@ public class LevelModel {
         assert inBounds(obj) : "Object is not in bounds";
         objects.add(obj);
         obj.activatePhysics(world);
+        spatialIndex.insert(obj);
+        if (surfMap != null && SurfMap.hasSurf(obj)) { surfMap.markDirty(obj); }
+        if (TerrainChunks.isBaked(obj)) { terrainChunks.add((Stationary) obj); }
     }
 
     /** Immediately adds the object to the physics world and the enemy list
@@ -825,6 +978,7 @@ public class LevelModel {
         assert inBounds(obj) : "Object is not in bounds";
         objects.add(obj);
         obj.activatePhysics(world);
+        spatialIndex.insert(obj);
         sharks.add(obj);
         standardDrawList.add(obj);
     }
@@ -835,6 +989,7 @@ public class LevelModel {
         assert inBounds(obj) : "Object is not in bounds";
         objects.add(obj);
         obj.activatePhysics(world);
+        spatialIndex.insert(obj);
         hydras.add(obj);
         standardDrawList.add(obj);
     }
@@ -846,6 +1001,7 @@ public class LevelModel {
         this_siren.setStunTexture(stunTexture);
         objects.add(this_siren);
         this_siren.activatePhysics(world);
+        spatialIndex.insert(this_siren);
         sirens.add(this_siren);
         standardDrawList.add(this_siren);
     }
@@ -853,6 +1009,14 @@ public class LevelModel {
     /** remove the deactivated object
      * @param obj The object to delete */
     public void removeObj(GameObject obj) {
+        spatialIndex.remove(obj);
+        if (surfMap != null && SurfMap.hasSurf(obj)) { surfMap.markDirty(obj); }
+        if (TerrainChunks.isBaked(obj)) { terrainChunks.remove((Stationary) obj); }
+        if(obj.getType() == GameObject.ObjectType.SHIPWRECK){
+            lineOfSight.setTile((int) (obj.getX() / GRID_SIZE), (int) (obj.getY() / GRID_SIZE), LineOfSight.CLEAR);
+            navigation.setBlocked((int) (obj.getX() / GRID_SIZE), (int) (obj.getY() / GRID_SIZE), false);
+            if (lightManager != null) { lightManager.invalidate(obj.getX(), obj.getY(), Math.max(obj.getWidth(), obj.getHeight())); }
+        }
         if(obj.getType() == GameObject.ObjectType.TREASURE || obj.getType() == GameObject.ObjectType.WOOD){
             floatingObjectDrawList.remove(obj);
         } else if(obj.getType() != GameObject.ObjectType.CURRENT){
@@ -864,28 +1028,41 @@ public class LevelModel {
 
     /** Prepare the box2d light settings once raft is ready */
     private void prepareLights(int level){
+        lightManager = new LightManager(lightSettings);
         initLighting(lightSettings.get("init"), level); // Box-2d lights initialization
         raftLight = createPointLights(lightSettings.get(difficulty == 2 ? "hard_raft" : "raft")); // One light over the player
         goalLight = createPointLights(lightSettings.get("goal")); // Another light over the goal
         attachLights(raftLight, raft);
         attachLights(goalLight, goal);
+        lightManager.add(raftLight);
+        lightManager.add(goalLight);
         for(int i = 0; i < treasureCount; i ++ ) {
             treasureLight[i] = createPointLights(lightSettings.get("treasure"));
             attachLights(treasureLight[i], treasure[i]);
+            lightManager.add(treasureLight[i]);
         }
         lastLevelShadowTracker = 0.02f;
     }
 
-    /** Update the light effect of the world */
-    public void updateLights(){ if (rayhandler != null) { rayhandler.update(); } }
+    /** Update the light effect of the world, only casting the rays of the lights that reach into the view */
+    public void updateLights(){
+        if (shadowRenderer != null) { shadowRenderer.update(); }
+        if (rayhandler != null) {
+            LightManager.cull(rayhandler, lightMatrix, viewBounds);
+            lightManager.update(viewBounds, PIXELS_PER_UNIT);
+            rayhandler.update();
+        }
+    }
 
     /** Render the shadow effects. This function should be called after all objects are drawn,
      * but before any health-bar, map, or de-bug information is drawn.
      * Precondition and Post-condition: canvas is closed */
-    public void renderLights(){ if (rayhandler != null) {
+    public void renderLights(){ if (rayhandler != null || shadowRenderer != null) {
         canvas.begin(cameraTransform);
         canvas.end();
-        rayhandler.setCombinedMatrix(canvas.getCameraMatrix(), bounds.width/2.0f, bounds.height/2.0f, bounds.width, bounds.height);
+        lightMatrix.set(canvas.getCameraMatrix());
+        if (shadowRenderer != null) { shadowRenderer.render(lightMatrix, viewBounds); return; }
+        LightManager.cull(rayhandler, lightMatrix, viewBounds);
         rayhandler.render();
     } }
 
@@ -902,13 +1079,15 @@ public class LevelModel {
      *
      * @param  lightJson	the JSON tree defining the list of point lights
      */
-    private PointSource createPointLights(JsonValue lightJson) {
+    private LightSource createPointLights(JsonValue lightJson) {
         float[] color = lightJson.get("color").asFloatArray();
         float[] pos = lightJson.get("pos").asFloatArray();
         float dist  = lightJson.getFloat("distance");
         int rays = lightJson.getInt("rays");
 
-        PointSource point = new PointSource(rayhandler, rays, Color.WHITE, dist, pos[0], pos[1]);
+        LightSource point;
+        if (shadowRenderer != null) { point = new ShadowMapLight(shadowRenderer, Color.WHITE, dist, pos[0], pos[1]); }
+        else { point = new PointSource(rayhandler, rays, Color.WHITE, dist, pos[0], pos[1]); }
         point.setColor(color[0],color[1],color[2],color[3]);
         point.setSoft(lightJson.getBoolean("soft"));
         point.setSoftnessLength(lightJson.getInt("softLength"));
@@ -918,6 +1097,7 @@ public class LevelModel {
         if(lightJson.getBoolean("block")){ f.categoryBits = GameObject.CATEGORY_LIGHT_BLOCK; }
         else{ f.categoryBits = GameObject.CATEGORY_LIGHT_NON; }
         point.setContactFilter(f);
+        point.setStaticLight(lightJson.getBoolean("static", false)); // only cast its rays again when the terrain changes
         point.setActive(true); // TURN ON NOW
         return point;
     }
@@ -932,27 +1112,64 @@ public class LevelModel {
      * @param  lightJson	the JSON tree defining the light
      */
     private void initLighting(JsonValue lightJson, int level) {
-        RayHandler.setGammaCorrection(lightJson.getBoolean("gamma"));
-        RayHandler.useDiffuseLight(lightJson.getBoolean("diffuse"));
-        rayhandler = new RayHandler(world, (int) bounds.width, (int) bounds.height);
         float[] colorArray = lightJson.get("array").asFloatArray();
         float color = colorArray[Math.max(0, Math.min(level, colorArray.length - 1))];
-        rayhandler.setAmbientLight(color, color, color, color);
-        int blur = lightJson.getInt("blur");
-        rayhandler.setBlur(blur > 0);
-        rayhandler.setBlurNum(blur);
+        if (lightSettings.getString("backend", "rays").equals("shadow map")) {
+            try {
+                shadowRenderer = new ShadowMapRenderer(world, lightSettings.getInt("shadow map size"));
+                shadowRenderer.resize(lightManager.lightMapSize(canvas.getWidth()), lightManager.lightMapSize(canvas.getHeight()));
+                setAmbientLight(color);
+                return;
+            } catch (GdxRuntimeException e) {
+                System.out.println("Couldn't load shadow map lights, casting rays instead: " + e.getMessage());
+            }
+        }
+        RayHandler.setGammaCorrection(lightJson.getBoolean("gamma"));
+        RayHandler.useDiffuseLight(lightJson.getBoolean("diffuse"));
+        rayhandler = new RayHandler(world, lightManager.lightMapSize(canvas.getWidth()), lightManager.lightMapSize(canvas.getHeight()));
+        lightManager.resize(rayhandler, canvas.getWidth(), canvas.getHeight());
+        setAmbientLight(color);
+    }
+
+    /** Sets the light of places no light source reaches, the same in every channel */
+    private void setAmbientLight(float strength) {
+        if (shadowRenderer != null) { shadowRenderer.setAmbientLight(strength, strength, strength, 1); }
+        if (rayhandler != null) { rayhandler.setAmbientLight(strength, strength, strength, strength); }
     }
 
     /**
      * Attaches all lights to the avatar.
      * Lights are offset form the center of the avatar according to the initial position.
-     * By default, a light ignores the body.  This means that putting the light inside
-     * of these bodies fixtures will not block the light.  However, if a light source is
-     * offset outside the bodies fixtures, then they will cast a shadow.
-     * The activeLight is set to be the first element of lights, assuming it is not empty.
+     * A static light is put where the body is once. Any other light follows the object where it
+     * is drawn, so that it moves as smoothly as the object does between simulation ticks; see
+     * placeMovingLights(). The bodies the lights are on do not block light, so these lights are
+     * not attached to the bodies themselves.
      */
-    public void attachLights(PointSource source, GameObject go) {
-        source.attachToBody(go.physicsObject.getBody(), source.getX(), source.getY(), source.getDirection());
+    public void attachLights(LightSource source, GameObject go) {
+        if (source.isStaticLight()) {
+            Body body = go.physicsObject.getBody();
+            source.attachToBody(body, source.getX(), source.getY(), source.getDirection());
+            source.setPosition(body.getWorldPoint(source.getPosition()));
+            return;
+        }
+        movingLights.add(source);
+        movingLightTargets.add(go);
+        movingLightOffsets.add(source.getX(), source.getY(), source.getDirection());
+        placeMovingLights();
+    }
+
+    /** Put each light that moves with an object where the object is drawn, offset as it was attached. */
+    private void placeMovingLights() {
+        for (int i = 0; i < movingLights.size; i++) {
+            LightSource light = movingLights.get(i);
+            if (!light.isActive()) { continue; } // its object may be gone
+            GameObject go = movingLightTargets.get(i);
+            float dx = movingLightOffsets.get(3 * i), dy = movingLightOffsets.get(3 * i + 1);
+            float angle = go.getRenderAngle();
+            float cos = MathUtils.cos(angle), sin = MathUtils.sin(angle);
+            light.setPosition(go.getRenderX() + dx * cos - dy * sin, go.getRenderY() + dx * sin + dy * cos);
+            light.setDirection(movingLightOffsets.get(3 * i + 2) + angle * MathUtils.radiansToDegrees);
+        }
     }
 
     /*=*=*=*=*=*=*=*=*=* in-game current and wood methods *=*=*=*=*=*=*=*=*=*/
@@ -971,10 +1188,18 @@ public class LevelModel {
      These components are scaled so that the range [-1.0, 1.0] maps linearly to [0, 255].
      The B and A values of the texture are unused.
      */
-    private Texture recalculateFlowMap() {
+    Texture recalculateFlowMap() {
+        Pixmap pix = new Pixmap(extraCols(), extraRows(),  Pixmap.Format.RGBA8888);
+        drawFlowMap(pix);
+        Texture t = flowMapTexture(pix);
+        pix.dispose();
+        return t;
+    }
+
+    /** Draws the flow map described in recalculateFlowMap() into a pixmap of the level's size in tiles. */
+    private void drawFlowMap(Pixmap pix) {
         float gamma = 1.5f; // used to better differentiate slow and fast currents. 1.0f = no adjustment; >1 = more differentiation; <1 = less; 0 = all currents look the same.
         float g = (gamma-1.0f)*0.5f;
-        Pixmap pix = new Pixmap(extraCols(), extraRows(),  Pixmap.Format.RGBA8888);
         pix.setColor(0.5f, 0.5f, 0.5f, 1); // 0.5 = no current
         pix.fill();
         for (GameObject o : getObjects()) {
@@ -990,158 +1215,137 @@ public class LevelModel {
                 pix.drawPixel((int)p.x, (int)p.y);
             }
         }
+    }
+
+    /** @return the flow map texture of the pixels */
+    private static Texture flowMapTexture(Pixmap pix) {
         Texture t = new Texture(pix);
         t.setWrap(Texture.TextureWrap.ClampToEdge, Texture.TextureWrap.ClampToEdge);
         return t;
     }
 
     /**
-     * Creates a texture with pixel dimensions which are [res] times the size of the level in tiles.
-     * Groups of res x res pixels map to their corresponding tile in the level.
-     * Each pixel's R value represents the "rough average" distance to the nearest shore, across all points in the area
-     * of the level covered by that pixel. This can be approximate, because the texture is interpolated later.
-     * Distances are clamped to the range [0, 1] in tile space, and mapped to pixel values [0, 255]. A distance of 0
-     * means the pixel is inside terrain. A distance of 1 means the pixel is at least 1 tile away from the nearest
-     * terrain, so no surf is added.
-     * The G, B, and A values of the texture are unused.
+     * Takes the flow map and the surf map of a freshly populated level from the DataMapCache, or draws them
+     * from scratch and caches them if they are not there, and hands them to the canvas.
      */
-    private Texture recalculateSurfMap() {
-        int res = 5;
-        float sqrt2 = 1.414f; // for 3/4 perspective
-        Pixmap pix = new Pixmap(res*extraCols(), res*extraRows(),  Pixmap.Format.RGBA8888);
-        pix.setColor(1.0f, 1.0f, 0.5f, 1.0f); // R = 1 = no terrain nearby
-        pix.fill();
-        for (GameObject o : getObjects()) {
-            // figure out whether this object should create a surf pattern
-            GameObject.ObjectType oType = o.getType();
-            boolean isStationary = (oType == GameObject.ObjectType.STATIONARY);
-            boolean isGoal = (oType == GameObject.ObjectType.GOAL);
-            boolean isShipwreck = (oType == GameObject.ObjectType.SHIPWRECK);
-            boolean isRock = false;
-            boolean isTerrain = false;
-            // which corner of the tile is the terrain's center of curvature in (or, -1 if not a corner terrain tile)
-            boolean isCornerTerrain = false;
-            int terrainCornerX = -1;
-            int terrainCornerY = -1;
-            if (isStationary) {
-                Stationary.StationaryType st = ((Stationary)o).getStationaryType();
-                if (st == SHARP_ROCK || st == REGULAR_ROCK)
-                    isRock = true;
-                if (st == TERRAIN || st == CLIFF_TERRAIN) {
-                    isTerrain = true;
-                    int tt = ((Stationary)o).getTerrainType();
-                    switch (tt) {
-                        case 1:
-                            isCornerTerrain = true;
-                            terrainCornerX = 1;
-                            terrainCornerY = 0;
-                            break;
-                        case 2:
-                            isCornerTerrain = true;
-                            terrainCornerX = 0;
-                            terrainCornerY = 0;
-                            break;
-                        case 8:
-                            isCornerTerrain = true;
-                            terrainCornerX = 1;
-                            terrainCornerY = 1;
-                            break;
-                        case 9:
-                            isCornerTerrain = true;
-                            terrainCornerX = 0;
-                            terrainCornerY = 1;
-                            break;
-                        default:
-                            break;
-                    }
-                }
-            }
-            boolean hasSurf = isGoal || isShipwreck || isRock || isTerrain;
-            // add the surf pattern to the texture
-            if (hasSurf) {
-                Vector2 pos = o.getPosition().scl(1.0f/GRID_SIZE).add(1, 1); // in tiles, offset
-                // int position, in tiles:
-                int rx = (int)pos.x;
-                int ry = (int)pos.y;
-                // object center, in tile coords:
-                float cx = rx + 0.5f;
-                float cy = ry + 0.5f;
-                if (isShipwreck)
-                    cy -= 0.15f;
-                else if (isCornerTerrain) {
-                    cx += (terrainCornerX - 0.5f);
-                    cy += (terrainCornerY - 0.5f)*(2.0f - sqrt2)*0.9f;
-                }
+    private void loadDataMaps() {
+        DataMapEvent event = DataMapEvent.start("load", extraCols(), extraRows());
+        Pixmap flow = new Pixmap(extraCols(), extraRows(), Pixmap.Format.RGBA8888);
+        if (surfMap != null) { surfMap.dispose(); }
+        surfMap = new SurfMap(extraCols(), extraRows(), GRID_SIZE, SurfMap.getResolution());
+        event.cached = DataMapCache.load(dataMapKey, flow, surfMap.getPixmap());
+        if (!event.cached) {
+            drawFlowMap(flow);
+            surfMap.bake(getObjects());
+            DataMapCache.store(dataMapKey, flow, surfMap.getPixmap());
+        }
+        if (flowMap != null) { flowMap.dispose(); }
+        flowMap = flowMapTexture(flow);
+        flow.dispose();
+        surfMap.upload();
+        canvas.setDataMaps(flowMap, surfMap.getTexture());
+        event.commit();
+    }
 
-                // determine surf shape
-                boolean isRound = isGoal || isRock || isShipwreck;
-                // object radius (only used if isRound is true)
-                float rockRadius = isGoal ? 0.97f : 0.6f;
-
-                // iterate through neighboring tiles (but don't go OOB)
-                for (int tx = Math.max(0, rx-1); tx <= Math.min(map_size.x+1, rx+1); tx++) {
-                    for (int ty = Math.max(0, ry-1); ty <= Math.min(map_size.y+1, ry+1); ty++) {
-                        // iterate through the pixels covering that tile
-                        for (int px = tx*res; px < (tx+1)*res; px ++) {
-                            for (int py = ty*res; py < (ty+1)*res; py ++) {
-                                // center of pixel, in tile coords
-                                float x = (px+0.5f)/res;
-                                float y = (py+0.5f)/res;
-                                float d = 0.0f;
-                                if (isRound) {
-                                    float dx = x - cx;
-                                    float dy = (y - cy)*sqrt2;
-                                    d = (float)Math.sqrt(dx*dx+dy*dy);
-                                    d = Math.max(0.0f, d - rockRadius);
-                                } else if (isCornerTerrain) {
-                                    float dx = x - cx;
-                                    float dy = (y - cy)*sqrt2;
-                                    d = (float)Math.sqrt(dx*dx+dy*dy);
-                                    d = Math.max(0.0f, d - 1.0f);
-                                } else {
-                                    // nearest point in the rock to (x, y)
-                                    float nx = Math.min(Math.max(cx-0.5f, x), cx+0.5f);
-                                    float ny = Math.min(Math.max(cy-0.5f, y), cy+0.5f);
-                                    // distance from pixel to nearest point in rock
-                                    float dx = x - nx;
-                                    float dy = y - ny;
-                                    dy *= sqrt2;
-                                    d = (float)Math.sqrt(dx*dx+dy*dy);
-                                }
-                                d = Math.min(1.0f, d); // clamp to 1
-
-                                // if this distance is smaller than what's already in the texture, replace it
-                                float d_old = (pix.getPixel(px, py) >>> 24)/255.0f; // red value only
-                                d = Math.min(d, d_old);
-
-                                pix.setColor(d, 0.5f, 0.5f, 1.0f);
-                                pix.drawPixel(px, py);
-                            }
-                        }
-                    }
-                }
-            }
+    /**
+     * Draws the flow map and the surf map of the level as loaded and writes them to a directory, named by
+     * their key, for DataMapCache to find. Needs no canvas.
+     * @param dir the directory to write to
+     * @return the file written
+     */
+    public FileHandle bakeDataMaps(FileHandle dir) {
+        DataMapEvent event = DataMapEvent.start("bake", extraCols(), extraRows());
+        Pixmap flow = new Pixmap(extraCols(), extraRows(), Pixmap.Format.RGBA8888);
+        SurfMap surf = new SurfMap(extraCols(), extraRows(), GRID_SIZE, SurfMap.getResolution());
+        drawFlowMap(flow);
+        surf.bake(getObjects());
+        FileHandle file = dir.child(DataMapCache.fileName(dataMapKey));
+        DataMapCache.write(file, dataMapKey, flow, surf.getPixmap());
+        flow.dispose();
+        surf.dispose();
+        event.commit();
+        return file;
+    }
+
+    /** Draws the flow map and the surf map from scratch and hands them to the canvas. */
+    private void recalculateDataMaps() {
+        DataMapEvent event = DataMapEvent.start("recalculate", extraCols(), extraRows());
+        if (flowMap != null) { flowMap.dispose(); }
+        flowMap = recalculateFlowMap();
+        if (surfMap == null) { surfMap = new SurfMap(extraCols(), extraRows(), GRID_SIZE, SurfMap.getResolution()); }
+        surfMap.bake(getObjects());
+        surfMap.upload();
+        canvas.setDataMaps(flowMap, surfMap.getTexture());
+        event.commit();
+    }
+
+    /** Draws the surf again around the objects that came or went since the last frame, and uploads only that. */
+    private void updateSurfMap() {
+        if (surfMap == null || !surfMap.isDirty()) { return; }
+        DataMapEvent event = DataMapEvent.start("update surf", extraCols(), extraRows());
+        surfCache.clear();
+        spatialIndex.queryRect(surfMap.getDirtySources(surfSourceCache), null, surfCache);
+        surfMap.update(surfCache);
+        surfCache.clear();
+        event.commit();
+    }
+
+    /*=*=*=*=*=*=*=*=*=* fixed timestep render interpolation *=*=*=*=*=*=*=*=*=*/
+
+    /** Store the transform of every moving object before a fixed simulation tick runs. */
+    public void snapshotTransforms() {
+        for(GameObject o : objects) {
+            if(o.getBody() != null && o.getBody().getType() != BodyDef.BodyType.StaticBody) { o.snapshotTransform(); }
+        }
+    }
+
+    /** Move every non-static object to the grid of its current position in the spatial index.
+     * Should be called after all movement of a simulation tick. */
+    public void updateSpatialIndex() {
+        for(GameObject o : objects) {
+            if(o.getBody() != null && o.getBody().getType() != BodyDef.BodyType.StaticBody) { spatialIndex.update(o); }
         }
-        Texture t = new Texture(pix);
-//        t.setAnisotropicFilter(1.0f);
-        t.setWrap(Texture.TextureWrap.ClampToEdge, Texture.TextureWrap.ClampToEdge);
-        return t;
+    }
+
+    /** @return the index of every object in the world by position */
+    public SpatialHash getSpatialIndex() { return spatialIndex; }
+
+    /** @return which grid tiles block enemy sight */
+    public LineOfSight getLineOfSight() { return lineOfSight; }
+
+    /** @return how far each grid tile is from the raft */
+    public NavigationField getNavigationField() { return navigation; }
+
+    /** @param alpha how far rendering is between the previous tick (0) and the current tick (1), negative to disable */
+    public void setInterpolationAlpha(float alpha) { interpolationAlpha = alpha; }
+
+    /** Blend moving objects between their last two tick transforms, and move their lights with them.
+     * Should be called once per frame before the lights are updated and drawn. */
+    public void interpolateTransforms() {
+        if(interpolationAlpha >= 0) {
+            for(GameObject o : objects) { o.interpolateTransform(interpolationAlpha); }
+        }
+        placeMovingLights();
     }
 
     /** Apply current effect to all applicable objects. Linear Combination Model */
     public void updateAllCurrentEffects(float dt){
         for(GameObject o : objects){ if(o.AffectedByCurrent()){ currentField.updateCurrentEffects(o, dt); } }
     }
-    /** @return the current velocity that the player is experiencing */
-    public Vector2 getPlayerCurrentVelocity(){ return currentField.getCurrentVelocity(raft.getPosition()); }
+    /** @return the current velocity that the player is experiencing. The vector is reused by the next call. */
+    public Vector2 getPlayerCurrentVelocity(){
+        Vector2 position = raft.getPosition();
+        return currentField.sample(position.x, position.y, playerCurrentCache);
+    }
     /** @return true if the current velocity where the player is non-zero. */
-    public boolean playerOnCurrent(){ return !getPlayerCurrentVelocity().equals(Vector2.Zero); }
+    public boolean playerOnCurrent(){ return !getPlayerCurrentVelocity().isZero(); }
     // PROJECTILE MANIPULATION
 
     /**
      * Add a new bullet to the world based on clicked point.
      */
     public void createSpear() {
+        ProjectileCounters.spearSpawned();
         Spear s = new Spear(raft.getPosition());
         s.setTexture(spearTexture);
         spears.add(s);
@@ -1180,6 +1384,7 @@ public class LevelModel {
      * @param dir the direction towards to player.
      */
     public void createNote(Vector2 pos, Vector2 dir){
+        ProjectileCounters.noteSpawned();
         Note n = new Note(pos, dir);
         n.setTexture(noteTexture);
         addObject(n);
@@ -1197,28 +1402,38 @@ public class LevelModel {
     }
 
     /*=*=* DRAWING *=*=*/
-    /** Set the animation frame for all objects in the level model
+    /** Set the animation frame for all objects whose animations gameplay waits on. Called once per simulation tick.
      * @param dt the time slice */
     public void setAnimationFrame(float dt) {
         getPlayer().setAnimationFrame(dt);
         for(Spear s : getSpears()){ s.setAnimationFrame(dt); }
         for(Siren s : getSirens()){ s.setAnimationFrame(dt); }
         for(Shark s : getSharks()){ s.setAnimationFrame(dt); }
+    }
+
+    /** Advance the animations of the treasure and plants, which only change how they are drawn. Called once per frame. */
+    public void animateScenery(float dt) {
         if(getTreasureCount() == 3){ for(Treasure s: getTreasure() ){ if(s != null){ s.setAnimationFrame(dt); } } }
         for(Plant s: getPlants()){ s.setAnimationFrame(dt); }
     }
 
     public void draw(float time, boolean isTutorial, boolean isLastLevel) {
+        FrameProfiler profiler = FrameProfiler.getInstance();
+        profiler.begin(FrameProfiler.Phase.WATER);
         canvas.begin(cameraTransform);
         drawWater(time);
+        profiler.end(FrameProfiler.Phase.WATER);
+        profiler.begin(FrameProfiler.Phase.OBJECTS);
         drawObjects(time);
         canvas.end();
+        profiler.end(FrameProfiler.Phase.OBJECTS);
+        profiler.begin(FrameProfiler.Phase.HUD);
 
         // reset camera transform for other player-centered texture (because health bar isn't in game units)
         canvas.begin();
         ticks++;
 
-        Vector2 playerPosOnScreen = getPlayer().getPosition().cpy().add(0, BOB_AMP * (float) Math.sin((ticks % BOB_TIME)/BOB_TIME * 2 * Math.PI));
+        Vector2 playerPosOnScreen = new Vector2(getPlayer().getRenderX(), getPlayer().getRenderY()).add(0, BOB_AMP * (float) Math.sin((ticks % BOB_TIME)/BOB_TIME * 2 * Math.PI));
         cameraTransform.applyTo(playerPosOnScreen);
         drawHealthBar(playerPosOnScreen);
         canvas.end();
@@ -1234,8 +1449,11 @@ public class LevelModel {
         canvas.end();
 
         drawHealthCircle(playerPosOnScreen);
+        profiler.end(FrameProfiler.Phase.HUD);
+        profiler.begin(FrameProfiler.Phase.LIGHTS);
         if(!isTutorial){ renderLights(); } // Draw the light effects
         if(isLastLevel){ fadeOutShadows(); }
+        profiler.end(FrameProfiler.Phase.LIGHTS);
     }
 
     float lastLevelShadowTracker = 0f;
@@ -1243,7 +1461,8 @@ public class LevelModel {
     private void fadeOutShadows() {
         lastLevelShadowTracker = lastLevelShadowTracker + (1 - lastLevelShadowTracker) * 0.0005f;
         float strength = Math.max(0, Math.min(1, lastLevelShadowTracker));
-        rayhandler.setAmbientLight(strength, strength, strength, 1);
+        if (shadowRenderer != null) { shadowRenderer.setAmbientLight(strength, strength, strength, 1); }
+        if (rayhandler != null) { rayhandler.setAmbientLight(strength, strength, strength, 1); }
     }
 
     public void drawMap(){
@@ -1286,8 +1505,10 @@ public class LevelModel {
     public void drawWater(float time) {
         // check whether recalculation of the map is required
         if(canvas.recalculation_required){
-            canvas.setDataMaps(recalculateFlowMap(), recalculateSurfMap());
+            recalculateDataMaps();
             canvas.recalculation_required = false;
+        } else {
+            updateSurfMap();
         }
         Rectangle eg = extraGrid(); // invisible border on top: use extra gird to don't mess up the scaling in the shader
         if (canvas.USE_SHADER) {
@@ -1298,92 +1519,123 @@ public class LevelModel {
             canvas.draw(seaBackground, Color.BLUE, eg.x,  eg.y, eg.width, eg.height);
     }
 
-    private static class renderOrderComparator implements Comparator<GameObject>{
-        public int compare(GameObject a, GameObject b) {
-            // Put spear on terrain
-            if (a.getType() == GameObject.ObjectType.SPEAR && b.getType() == GameObject.ObjectType.STATIONARY){
-                return 1;
-            } else if (b.getType() == GameObject.ObjectType.SPEAR && a.getType() == GameObject.ObjectType.STATIONARY){
-                return -1;
-            }
-            // Put spear in front of everything else.
-            else if(a.getType() == GameObject.ObjectType.SPEAR){
-                return 1;
-            } else if(b.getType() == GameObject.ObjectType.SPEAR){
-                return -1;
-            } else if (a.getType() == GameObject.ObjectType.SIREN || a.getType() == GameObject.ObjectType.NOTE) {
-                return 1;
-            } else if (b.getType() == GameObject.ObjectType.SIREN || b.getType() == GameObject.ObjectType.NOTE){
-                return -1;
-            } else if (a.getType() == GameObject.ObjectType.STATIONARY && b.getType() == GameObject.ObjectType.STATIONARY){
-                Stationary sa = (Stationary) a; Stationary sb = (Stationary) b;
-                if(sa.isPlant() && !sb.isPlant()){return 1;} if(sb.isPlant() && !sa.isPlant()){return -1;}
-            } else if (a.getType() == GameObject.ObjectType.STATIONARY){
-                Stationary sa = (Stationary) a;
-                if(sa.isPlant()){ return 1; }
-            } else if (b.getType() == GameObject.ObjectType.STATIONARY){
-                Stationary sb = (Stationary) b;
-                if(sb.isPlant()){ return -1; }
-            }
-            return (int) Math.signum(b.getY() - a.getY());
-        }
-    }
-
     /**
-     *
+     * Draws the objects that may be on screen, floating objects first, each group in render order.
      */
     public void drawObjects(float time){
+        Array<GameObject> visible = queryVisible(false);
         if (canvas.USE_SHADER) {
-            for(GameObject obj : floatingObjectDrawList) { // id shader is on, draw floaty objects with shader
-                canvas.useItemShader(time);
-                switch(obj.getType()) {
-//                    case RAFT:
-//                        canvas.setItemShaderUniforms(8, 5, 0.38f, 0.10f);
-//                        break;
-                    case TREASURE:
-                        canvas.setItemShaderUniforms(1, 7, 0.1f, 0.25f);
-                        break;
-                    default:
-                        canvas.setItemShaderUniforms(1, 1, 0.0f, 0.25f);
-                        break;
+            // everything goes through the item shader in one pass; only floating objects are drawn floating
+            canvas.beginItems(time);
+            renderQueue.clear();
+            for(GameObject obj : visible) {
+                if (isFloating(obj)) { renderQueue.add(obj); }
+            }
+            renderQueue.sort();
+            for(int i = 0; i < renderQueue.size(); i++) { // floating objects first, under everything else
+                GameObject obj = renderQueue.get(i);
+                if (obj.getType() == GameObject.ObjectType.TREASURE) {
+                    canvas.setFloating(0.1f, 0.25f);
+                } else {
+                    canvas.setFloating(0.0f, 0.25f);
                 }
                 obj.draw(canvas);
-                canvas.stopUsingShader();
             }
-            // draw non-floaty objects
-            standardDrawList.sort(new renderOrderComparator()); // sort objects by y value, so that they are drawn in the correct order
-            // (note: almost-sorted lists are sorted in O(n) time by Java, so this isn't too slow, but it could still probably be improved.)
-            for(GameObject obj : standardDrawList) { // if shader is on, don't draw currents and floaty obj (wood and TR)
-                if (obj.getType() == GameObject.ObjectType.RAFT) {
-                    canvas.useItemShader(time);
-                    canvas.setItemShaderUniforms(8, 5, 0.38f, 0.10f);
+            canvas.setNotFloating();
+            // draw non-floaty objects, sorted by y value so that they are drawn in the correct order
+            renderQueue.clear();
+            for(GameObject obj : visible) {
+                if (!isFloating(obj) && obj.getType() != GameObject.ObjectType.CURRENT) { renderQueue.add(obj); }
+            }
+            addVisibleChunks();
+            renderQueue.sort();
+            for(int i = 0; i < renderQueue.size(); i++) { // if shader is on, don't draw currents and floaty obj (wood and TR)
+                GameObject obj = renderQueue.get(i);
+                if (obj == null) {
+                    renderQueue.getChunk(i).draw(canvas);
+                } else if (obj.getType() == GameObject.ObjectType.RAFT) {
+                    canvas.setFloating(0.38f, 0.10f);
                     ((Raft)obj).draw(canvas, ticks);
-                    canvas.stopUsingShader();
+                    canvas.setNotFloating();
                 } else {
                     obj.draw(canvas);
                 }
             }
+            canvas.endItems();
         } else {
-            getObjects().sort(new renderOrderComparator());
-            for(GameObject obj : getObjects())
-                if (obj.getType() == GameObject.ObjectType.RAFT){
+            renderQueue.clear();
+            renderQueue.addAll(walls);
+            renderQueue.addAll(visible);
+            addVisibleChunks();
+            renderQueue.sort();
+            for(int i = 0; i < renderQueue.size(); i++) {
+                GameObject obj = renderQueue.get(i);
+                if (obj == null) {
+                    renderQueue.getChunk(i).draw(canvas);
+                } else if (obj.getType() == GameObject.ObjectType.RAFT){
                     ((Raft)obj).draw(canvas, ticks);
                 }
-            else {
+                else {
                     obj.draw(canvas);
                 }
+            }
         }
     }
 
     private void drawStarbursts() {
-        // draw starbursts on top of everything else
-        for(GameObject obj : floatingObjectDrawList) { // id shader is on, draw floaty objects with shader
-            if(obj.getType() == GameObject.ObjectType.TREASURE) {
-                ((Treasure)obj).drawStar(canvas);
+        // draw starbursts on top of everything else; they are drawn over the raft, which is always on screen
+        for(int i = 0; i < treasureCount; i++) {
+            if(treasure[i] != null && !treasure[i].isDestroyed()) {
+                treasure[i].drawStar(canvas);
             }
         }
     }
 
+    /*=*=*=*=*=*=*=*=*=* view culling *=*=*=*=*=*=*=*=*=*/
+
+    /** @return whether an object is drawn with the floating item shader: wood and treasure */
+    private static boolean isFloating(GameObject obj) {
+        return obj.getType() == GameObject.ObjectType.WOOD || obj.getType() == GameObject.ObjectType.TREASURE;
+    }
+
+    /** Adds the chunks of terrain that may be on screen to the render queue. */
+    private void addVisibleChunks() {
+        visibleChunks.clear();
+        terrainChunks.query(viewBounds, CULL_PADDING[GameObject.ObjectType.STATIONARY.ordinal()], visibleChunks);
+        for (TerrainChunks.Chunk c : visibleChunks) { renderQueue.add(c); }
+    }
+
+    /**
+     * Finds the objects that may be on screen, in no particular order. Only the cells of the spatial index
+     * near the view are visited, so this costs as much as the objects on screen, not in the level.
+     * Walls are never returned, as they reach far from their centers.
+     * @param withTerrain whether to return terrain drawn by the terrain chunks too
+     * @return the objects; the array is reused by the next call
+     */
+    private Array<GameObject> queryVisible(boolean withTerrain) {
+        visibleCache.clear();
+        cullBounds.set(viewBounds.x - MAX_CULL_PADDING, viewBounds.y - MAX_CULL_PADDING,
+                viewBounds.width + 2 * MAX_CULL_PADDING, viewBounds.height + 2 * MAX_CULL_PADDING);
+        spatialIndex.queryRect(cullBounds, null, visibleCache);
+        int n = 0;
+        for (int i = 0; i < visibleCache.size; i++) {
+            GameObject o = visibleCache.get(i);
+            if (isVisible(o) && (withTerrain || !TerrainChunks.isBaked(o))) { visibleCache.set(n++, o); }
+        }
+        visibleCache.truncate(n);
+        return visibleCache;
+    }
+
+    /** @return whether the sprite of an object may reach into the view, going by the padding of its type */
+    private boolean isVisible(GameObject o) {
+        if (o.getType() == GameObject.ObjectType.STATIONARY
+                && ((Stationary) o).getStationaryType() == Stationary.StationaryType.WALL) { return false; }
+        float pad = CULL_PADDING[o.getType().ordinal()];
+        float x = o.getRenderX(), y = o.getRenderY();
+        return x + pad >= viewBounds.x && x - pad <= viewBounds.x + viewBounds.width
+                && y + pad >= viewBounds.y && y - pad <= viewBounds.y + viewBounds.height;
+    }
+
     /** Precondition & post-condition: the game canvas is open
      * @param player_position the on-screen position of player */
     private void drawHealthBar(Vector2 player_position) {
@@ -1424,7 +1676,10 @@ public class LevelModel {
 
     public void drawDebug() {
         canvas.beginDebug(cameraTransform);
-        for(GameObject obj : getObjects()) {
+        for(GameObject obj : walls) {
+            obj.drawDebug(canvas);
+        }
+        for(GameObject obj : queryVisible(true)) {
             obj.drawDebug(canvas);
         }
         canvas.endDebug();
@@ -1437,21 +1692,32 @@ public class LevelModel {
         Affine2 a = new Affine2().setToScaling(PIXELS_PER_UNIT, PIXELS_PER_UNIT);
         if (Float.isFinite(lerpCamera.x) && Float.isFinite(lerpCamera.y)) {
             lerpCamera.scl(1 - LERP_FACTOR)
-                    .add(getPlayer().getPosition().add(0, 0.5f).scl(PIXELS_PER_UNIT).scl(LERP_FACTOR));
+                    .add(getPlayer().getRenderX() * PIXELS_PER_UNIT * LERP_FACTOR, (getPlayer().getRenderY() + 0.5f) * PIXELS_PER_UNIT * LERP_FACTOR);
         } else { lerpCamera.setZero(); }
 
         // "Moving Camera" calculate offset = (ship pos) - (canvas size / 2), in pixels
-        Vector2 translation = new Vector2((float)canvas.getWidth()/2, (float)canvas.getHeight()/2).sub(lerpCamera);
+        Vector2 translation = new Vector2(getScreenWidth()/2, getScreenHeight()/2).sub(lerpCamera);
 
         // "Capped Camera": bound x and y within walls
         Rectangle wallBounds = wallBounds();
         translation.x = Math.min(translation.x, - wallBounds.x * PIXELS_PER_UNIT);
-        translation.x = Math.max(translation.x, canvas.getWidth() - wallBounds.width * PIXELS_PER_UNIT);
+        translation.x = Math.max(translation.x, getScreenWidth() - wallBounds.width * PIXELS_PER_UNIT);
         translation.y = Math.min(translation.y, - wallBounds.y * PIXELS_PER_UNIT);
-        translation.y = Math.max(translation.y, canvas.getHeight() - wallBounds.height * PIXELS_PER_UNIT);
+        translation.y = Math.max(translation.y, getScreenHeight() - wallBounds.height * PIXELS_PER_UNIT);
         cameraTransform = a.preTranslate(translation);
+        viewBounds.set(-translation.x / PIXELS_PER_UNIT, -translation.y / PIXELS_PER_UNIT,
+                getScreenWidth() / PIXELS_PER_UNIT, getScreenHeight() / PIXELS_PER_UNIT);
     }
 
+    /** @return the part of the world on screen, in Box2D units, as of the last camera update */
+    public Rectangle getViewBounds() { return viewBounds; }
+
+    /** @return the screen width in pixels, or a 1080p screen when running without a canvas */
+    public float getScreenWidth() { return canvas == null ? HEADLESS_SCREEN_WIDTH : canvas.getWidth(); }
+
+    /** @return the screen height in pixels, or a 1080p screen when running without a canvas */
+    public float getScreenHeight() { return canvas == null ? HEADLESS_SCREEN_HEIGHT : canvas.getHeight(); }
+
     /** reset the most recent lerp position */
     public void resetLerp() { lerpCamera.set(getPlayer().getPosition().scl(PIXELS_PER_UNIT)); }
 
@@ -1470,7 +1736,7 @@ public class LevelModel {
     public void treasureCollected(Treasure g) {
         raft.halfLife();
         for(int i = 0; i < treasureCount; i ++){
-            if(treasure[i] == g){
+            if(treasure[i] == g && treasureLight[i] != null){
                 treasureLight[i].setActive(false);
                 treasureLight[i] = null;
             }
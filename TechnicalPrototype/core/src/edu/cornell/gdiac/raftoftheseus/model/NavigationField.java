@@ -0,0 +1,177 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.ai.steer.behaviors.FollowFlowField.FlowField;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Arrays;
+
+/**
+ * The number of grid steps from every tile of the level to the tile of a target, going around terrain.
+ *
+ * The field is rebuilt with a breadth-first search over the grid only when the target moves to another
+ * tile or a tile opens up, and then serves every enemy that pursues the target. Steps go to the eight
+ * neighbouring tiles, but never diagonally past the corner of a blocked tile.
+ */
+public class NavigationField implements FlowField<Vector2> {
+    /** The column and row offsets of the eight neighbouring tiles, orthogonal ones first */
+    private static final int[] NEIGHBOUR_C = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] NEIGHBOUR_R = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    /** Number of columns and rows of tiles */
+    private final int columns, rows;
+    /** The width and height of a tile, in Box2D units */
+    private final float tileSize;
+    /** Whether each tile blocks movement, at index column * rows + row */
+    private final boolean[] blocked;
+    /** The number of steps from each tile to the target tile, or -1 if it cannot be reached */
+    private final int[] distance;
+    /** The tiles still to visit in the search */
+    private final int[] queue;
+    /** The tile of the target, or -1 if there is none yet */
+    private int targetTile = -1;
+    /** Whether a tile changed since the field was built */
+    private boolean dirty = true;
+
+    /** Cache for the vector returned by lookup */
+    private final Vector2 lookupCache = new Vector2();
+
+    /**
+     * Create a field where every tile is open and no tile can reach a target yet.
+     * @param columns the number of grid columns (x) in the level
+     * @param rows the number of grid rows (y) in the level
+     * @param tileSize the width and height of a tile, in Box2D units
+     */
+    public NavigationField(int columns, int rows, float tileSize) {
+        this.columns = columns;
+        this.rows = rows;
+        this.tileSize = tileSize;
+        this.blocked = new boolean[columns * rows];
+        this.distance = new int[columns * rows];
+        this.queue = new int[columns * rows];
+        Arrays.fill(distance, -1);
+    }
+
+    /**
+     * Mark whether a tile blocks movement. Tiles outside the grid are ignored.
+     * @param column the grid column
+     * @param row the grid row
+     * @param value whether the tile is blocked
+     */
+    public void setBlocked(int column, int row, boolean value) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) { return; }
+        blocked[column * rows + row] = value;
+        dirty = true;
+    }
+
+    private int column(float x) { return MathUtils.clamp(MathUtils.floor(x / tileSize), 0, columns - 1); }
+    private int row(float y) { return MathUtils.clamp(MathUtils.floor(y / tileSize), 0, rows - 1); }
+
+    /**
+     * Move the target, rebuilding the field if it moved to another tile or a tile changed.
+     * @param x the x position of the target, in Box2D units
+     * @param y the y position of the target, in Box2D units
+     * @return whether the field was rebuilt
+     */
+    public boolean setTarget(float x, float y) {
+        int tile = column(x) * rows + row(y);
+        if (tile == targetTile && !dirty) { return false; }
+        targetTile = tile;
+        dirty = false;
+        rebuild();
+        return true;
+    }
+
+    /** Breadth-first search outward from the target tile. */
+    private void rebuild() {
+        Arrays.fill(distance, -1);
+        int head = 0, tail = 0;
+        distance[targetTile] = 0;
+        queue[tail++] = targetTile;
+        while (head < tail) {
+            int tile = queue[head++];
+            int c = tile / rows, r = tile % rows;
+            for (int n = 0; n < NEIGHBOUR_C.length; n++) {
+                int next = step(c, r, n);
+                if (next >= 0 && distance[next] < 0) {
+                    distance[next] = distance[tile] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param n which neighbour, as an index into NEIGHBOUR_C and NEIGHBOUR_R
+     * @return the neighbouring tile, or -1 if it is off the grid, blocked or only reachable past a blocked corner
+     */
+    private int step(int c, int r, int n) {
+        int nc = c + NEIGHBOUR_C[n], nr = r + NEIGHBOUR_R[n];
+        if (nc < 0 || nc >= columns || nr < 0 || nr >= rows || blocked[nc * rows + nr]) { return -1; }
+        if (n >= 4 && (blocked[nc * rows + r] || blocked[c * rows + nr])) { return -1; }
+        return nc * rows + nr;
+    }
+
+    /**
+     * @param column the grid column
+     * @param row the grid row
+     * @return the number of steps from the tile to the target tile, or -1 if it cannot be reached
+     */
+    public int getDistance(int column, int row) { return distance[column * rows + row]; }
+
+    /**
+     * How far it is from position to the target going around terrain, counting each step to a neighbouring
+     * tile as one tile wide. From inside a blocked tile, the way out through its nearest open neighbour is taken.
+     * @return the length of the way in Box2D units, or infinity if the target cannot be reached
+     */
+    public float getPathLength(Vector2 position) {
+        if (targetTile < 0) { return Float.POSITIVE_INFINITY; }
+        int c = column(position.x), r = row(position.y);
+        int steps = distance[c * rows + r];
+        if (steps < 0 && blocked[c * rows + r]) {
+            for (int n = 0; n < NEIGHBOUR_C.length; n++) {
+                int nc = c + NEIGHBOUR_C[n], nr = r + NEIGHBOUR_R[n];
+                if (nc < 0 || nc >= columns || nr < 0 || nr >= rows || distance[nc * rows + nr] < 0) { continue; }
+                if (steps < 0 || distance[nc * rows + nr] + 1 < steps) { steps = distance[nc * rows + nr] + 1; }
+            }
+        }
+        return steps < 0 ? Float.POSITIVE_INFINITY : steps * tileSize;
+    }
+
+    /**
+     * The direction to move in from position to get one tile closer to the target. Of equally close
+     * neighbours, the one nearest the target in a straight line is taken.
+     * @return a unit vector, or zero where terrain does not make the way to the target any longer than
+     * in open water (so heading straight for it is best), or the target cannot be reached. The vector is
+     * reused by the next lookup.
+     */
+    @Override
+    public Vector2 lookup(Vector2 position) {
+        lookupCache.setZero();
+        if (targetTile < 0) { return lookupCache; }
+        int c = column(position.x), r = row(position.y);
+        int here = distance[c * rows + r];
+        int tc = targetTile / rows, tr = targetTile % rows;
+        if (here >= 0 && here <= Math.max(Math.abs(c - tc), Math.abs(r - tr))) { return lookupCache; }
+        int best = -1, bestDistance = Integer.MAX_VALUE, bestStraight = Integer.MAX_VALUE;
+        for (int n = 0; n < NEIGHBOUR_C.length; n++) {
+            int next = step(c, r, n);
+            // from inside a blocked tile, any open neighbour is a way out
+            if (next < 0 && here < 0) {
+                int nc = c + NEIGHBOUR_C[n], nr = r + NEIGHBOUR_R[n];
+                if (nc >= 0 && nc < columns && nr >= 0 && nr < rows) { next = nc * rows + nr; }
+            }
+            if (next < 0 || distance[next] < 0) { continue; }
+            int dc = next / rows - tc, dr = next % rows - tr;
+            int straight = dc * dc + dr * dr;
+            if (distance[next] < bestDistance || (distance[next] == bestDistance && straight < bestStraight)) {
+                best = next;
+                bestDistance = distance[next];
+                bestStraight = straight;
+            }
+        }
+        if (best < 0 || (here >= 0 && bestDistance >= here)) { return lookupCache; }
+        lookupCache.set((best / rows + 0.5f) * tileSize - position.x, (best % rows + 0.5f) * tileSize - position.y);
+        return lookupCache.nor();
+    }
+}
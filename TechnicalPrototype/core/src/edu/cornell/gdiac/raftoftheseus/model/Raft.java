@@ -378,8 +378,8 @@ public class Raft extends GameObject implements Animated {
     public void draw(GameCanvas canvas, int ticks){
         ((FilmStrip) texture).setFrame(fc.getFrame());
         if (texture != null) {
-            canvas.draw(texture, Color.WHITE, origin.x, origin.y, getX() + textureOffset.x,
-                    getY() + textureOffset.y + BOB_AMP * (float) Math.sin((ticks % BOB_TIME)/BOB_TIME * 2 * Math.PI), getAngle(), textureScale.x, textureScale.y);
+            canvas.draw(texture, Color.WHITE, origin.x, origin.y, getRenderX() + textureOffset.x,
+                    getRenderY() + textureOffset.y + BOB_AMP * (float) Math.sin((ticks % BOB_TIME)/BOB_TIME * 2 * Math.PI), getRenderAngle(), textureScale.x, textureScale.y);
         }
         if(raftState == RaftState.CHARGING || canFire()){
             ((FilmStrip) attackAura.getTexture()).setFrame(aurafc.getFrame());
@@ -403,15 +403,18 @@ public class Raft extends GameObject implements Animated {
     }
     /** The amount of time that has elapsed for floating */
     float floatTime;
+    /** Cache for the position the held spear floats around */
+    private final Vector2 spearAnchorCache = new Vector2();
     /**
-     * Change the spear location based on the raft and mouse location
+     * Change the spear location based on the raft and mouse location. Called once per simulation tick,
+     * so the spear is placed from where the raft is, not where it is drawn.
      * @param dt the time elapsed.
      * @param dir the mouse location
      */
     public void updateSpear(float dt, Vector2 dir){
         if(!hasSpear()) return;
         floatTime += dt;
-        spear.setFloatPosition(getPosition(), floatTime, flip, dir);
+        spear.setFloatPosition(spearAnchorCache.set(getX(), getY()), floatTime, flip, dir);
     }
     /** The Spear the raft owns */
     public Spear getSpear(){ return spear; }
@@ -0,0 +1,202 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Puts game objects, and chunks of terrain, in the order they are drawn, without comparing them.
+ *
+ * Each object added gets a 64-bit sort key, from the most significant bits down:
+ * <ul>
+ *     <li>2 bits of layer: everything else, then sirens and notes, then spears on top</li>
+ *     <li>1 bit set for plants, which are drawn over everything else of their layer</li>
+ *     <li>29 bits of y, quantized to 1/64 of a Box2D unit and flipped, so higher objects are drawn first; for
+ *     objects this is the y they are drawn at, so moving objects are ordered where they are seen</li>
+ *     <li>16 bits of texture id, so objects in the same row that share a texture are drawn one after the
+ *     other and the sprite batch does not have to switch textures between them</li>
+ *     <li>16 bits of index, the position of the object in the order it was added</li>
+ * </ul>
+ * The keys are sorted as plain numbers by a least significant digit radix sort, a byte at a time, which
+ * is linear in the number of objects. The index bits are never sorted on, as the sort is stable: objects
+ * with the same key otherwise stay in the order they were added. Neither is a byte that is the same in
+ * every key, which is most of the high bytes in practice.
+ *
+ * The arrays only grow, so once the queue has held the largest list it is given, it allocates no more.
+ */
+public class RenderQueue {
+    /** The most objects the queue can hold, as set by the index bits */
+    public static final int CAPACITY = 1 << 16;
+    /** Layers, in the order they are drawn */
+    private static final long LAYER_DEFAULT = 0, LAYER_SIREN = 1, LAYER_SPEAR = 2;
+    /** Where the fields of the key start */
+    private static final int LAYER_SHIFT = 62, PLANT_SHIFT = 61, Y_SHIFT = 32, TEXTURE_SHIFT = 16;
+    /** The largest value of the y field */
+    private static final int Y_MASK = (1 << 29) - 1;
+    /** The steps per Box2D unit of the y field */
+    private static final float Y_SCALE = 64;
+    /** Added to the quantized y, so that objects a little below the world still get a positive value */
+    private static final int Y_OFFSET = 1 << 28;
+    /** The largest texture id; textures beyond it share it */
+    private static final int TEXTURE_MASK = 0xffff;
+    /** The first byte of the key that is sorted on; the bytes below are the index */
+    private static final int FIRST_DIGIT = 2;
+
+    /** The objects, in the order they were added; null where a chunk was added */
+    private GameObject[] objects = new GameObject[64];
+    /** The chunks, in the order they were added; null where an object was added */
+    private TerrainChunks.Chunk[] chunks = new TerrainChunks.Chunk[64];
+    /** The sort keys, sorted after sort() */
+    private long[] keys = new long[64];
+    /** Scratch space for the sort */
+    private long[] scratch = new long[64];
+    /** How many keys have each value of each sorted byte */
+    private final int[][] counts = new int[8][256];
+    /** Number of objects in the queue */
+    private int size;
+    /** An id for each texture seen, in the order they were first seen */
+    private final ObjectIntMap<Texture> textureIds = new ObjectIntMap<>();
+
+    /** Empty the queue, keeping its arrays. */
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        Arrays.fill(chunks, 0, size, null);
+        size = 0;
+    }
+
+    /** @param o an object to draw */
+    public void add(GameObject o) {
+        grow();
+        objects[size] = o;
+        keys[size] = key(o) | size;
+        size++;
+    }
+
+    /** @param c a chunk of terrain to draw, which is ordered like terrain at the height of its row */
+    public void add(TerrainChunks.Chunk c) {
+        grow();
+        chunks[size] = c;
+        keys[size] = key(LAYER_DEFAULT, 0, c.getY(), textureId(c.getTexture())) | size;
+        size++;
+    }
+
+    /** Make room for one more entry. */
+    private void grow() {
+        if (size == CAPACITY) { throw new GdxRuntimeException("More than " + CAPACITY + " objects to draw"); }
+        if (size == objects.length) {
+            objects = Arrays.copyOf(objects, size * 2);
+            chunks = Arrays.copyOf(chunks, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            scratch = new long[size * 2];
+        }
+    }
+
+    /** @param list objects to draw */
+    public void addAll(Iterable<GameObject> list) {
+        for (GameObject o : list) { add(o); }
+    }
+
+    /** Put the objects in the order to draw them. */
+    public void sort() {
+        for (int[] c : counts) { Arrays.fill(c, 0); }
+        for (int i = 0; i < size; i++) {
+            long k = keys[i];
+            for (int d = FIRST_DIGIT; d < 8; d++) {
+                counts[d][(int) (k >>> (d * 8)) & 0xff]++;
+            }
+        }
+        long[] from = keys, to = scratch;
+        for (int d = FIRST_DIGIT; d < 8; d++) {
+            int[] c = counts[d];
+            int shift = d * 8;
+            if (c[(int) (from[0] >>> shift) & 0xff] == size) { continue; } // every key has this byte
+            int sum = 0;
+            for (int b = 0; b < 256; b++) {
+                int n = c[b];
+                c[b] = sum;
+                sum += n;
+            }
+            for (int i = 0; i < size; i++) {
+                long k = from[i];
+                to[c[(int) (k >>> shift) & 0xff]++] = k;
+            }
+            long[] t = from; from = to; to = t;
+        }
+        keys = from;
+        scratch = to;
+    }
+
+    /** @return the number of objects in the queue */
+    public int size() { return size; }
+
+    /**
+     * @param i a position in the queue, from 0 to size() - 1
+     * @return the object at that position, or null if it is a chunk; in draw order after sort()
+     */
+    public GameObject get(int i) { return objects[(int) keys[i] & (CAPACITY - 1)]; }
+
+    /**
+     * @param i a position in the queue, from 0 to size() - 1
+     * @return the chunk at that position, or null if it is an object; in draw order after sort()
+     */
+    public TerrainChunks.Chunk getChunk(int i) { return chunks[(int) keys[i] & (CAPACITY - 1)]; }
+
+    /**
+     * Put a list of objects in the order to draw it, in place.
+     * @param list the list; it is also left in the queue
+     */
+    public void sort(List<GameObject> list) {
+        clear();
+        addAll(list);
+        sort();
+        ListIterator<GameObject> it = list.listIterator();
+        for (int i = 0; i < size; i++) {
+            it.next();
+            it.set(get(i));
+        }
+    }
+
+    /** @return the key of an object, with an index of 0 */
+    private long key(GameObject o) {
+        long layer = LAYER_DEFAULT;
+        long plant = 0;
+        switch (o.getType()) {
+            case SPEAR:
+                layer = LAYER_SPEAR;
+                break;
+            case SIREN:
+            case NOTE:
+                layer = LAYER_SIREN;
+                break;
+            case STATIONARY:
+                if (((Stationary) o).isPlant()) { plant = 1; }
+                break;
+            default:
+                break;
+        }
+        TextureRegion region = o.getTexture();
+        return key(layer, plant, o.getRenderY(), textureId(region == null ? null : region.getTexture()));
+    }
+
+    /** @return the key of the given fields, with an index of 0 */
+    private static long key(long layer, long plant, float y, int texture) {
+        long flipped = Y_MASK - Math.max(0, Math.min(Y_MASK, (int) Math.floor(y * Y_SCALE) + Y_OFFSET));
+        return layer << LAYER_SHIFT | plant << PLANT_SHIFT | flipped << Y_SHIFT | (long) texture << TEXTURE_SHIFT;
+    }
+
+    /** @return a small id for a texture, or 0 for none */
+    private int textureId(Texture t) {
+        if (t == null) { return 0; }
+        int id = textureIds.get(t, -1);
+        if (id == -1) {
+            id = Math.min(TEXTURE_MASK, textureIds.size + 1);
+            textureIds.put(t, id);
+        }
+        return id;
+    }
+}
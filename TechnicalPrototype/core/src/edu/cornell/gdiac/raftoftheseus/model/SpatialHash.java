@@ -0,0 +1,162 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A uniform grid over the level that buckets game objects by the cell their center is in.
+ *
+ * Proximity queries only visit the cells that can hold an answer, so their cost grows with the number
+ * of objects nearby rather than the number of objects in the level. Objects are placed by their center
+ * only; callers that care about extents should pad the query. Objects outside the grid are kept in the
+ * nearest edge cell.
+ */
+public class SpatialHash {
+    /** The lower-left corner of the grid, in Box2D units */
+    private final float originX, originY;
+    /** The width and height of a cell, in Box2D units */
+    private final float cellSize;
+    /** Number of columns and rows of cells */
+    private final int columns, rows;
+    /** The objects in each cell, at index column * rows + row */
+    private final Array<GameObject>[] cells;
+
+    /** The nearest object found so far by nearest() */
+    private GameObject nearestCache;
+    /** The squared distance to nearestCache */
+    private float nearestDst2;
+
+    /** Create an empty grid covering the given area.
+     * @param bounds the area to cover, in Box2D units
+     * @param cellSize the width and height of a cell, in Box2D units */
+    public SpatialHash(Rectangle bounds, float cellSize) {
+        this.originX = bounds.x;
+        this.originY = bounds.y;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, MathUtils.ceil(bounds.width / cellSize));
+        this.rows = Math.max(1, MathUtils.ceil(bounds.height / cellSize));
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Array<GameObject>[] grid = new Array[columns * rows];
+        for (int i = 0; i < grid.length; i++) { grid[i] = new Array<>(false, 4); }
+        this.cells = grid;
+    }
+
+    private int column(float x) { return MathUtils.clamp(MathUtils.floor((x - originX) / cellSize), 0, columns - 1); }
+    private int row(float y) { return MathUtils.clamp(MathUtils.floor((y - originY) / cellSize), 0, rows - 1); }
+
+    /** Add an object at its current position. */
+    public void insert(GameObject o) {
+        o.spatialCell = column(o.getX()) * rows + row(o.getY());
+        cells[o.spatialCell].add(o);
+    }
+
+    /** Remove an object, if it is in the grid. */
+    public void remove(GameObject o) {
+        if (o.spatialCell < 0) { return; }
+        cells[o.spatialCell].removeValue(o, true);
+        o.spatialCell = -1;
+    }
+
+    /** Move an object to the cell of its current position. Does nothing unless it changed cells. */
+    public void update(GameObject o) {
+        if (o.spatialCell < 0) { return; }
+        int cell = column(o.getX()) * rows + row(o.getY());
+        if (cell != o.spatialCell) {
+            cells[o.spatialCell].removeValue(o, true);
+            cells[cell].add(o);
+            o.spatialCell = cell;
+        }
+    }
+
+    /** Remove every object. */
+    public void clear() {
+        for (Array<GameObject> cell : cells) {
+            for (int i = 0; i < cell.size; i++) { cell.get(i).spatialCell = -1; }
+            cell.clear();
+        }
+    }
+
+    /** Find the objects whose centers are closer than radius to (x, y).
+     * @param type the type of object to find, or null for all types
+     * @param out the array to add the objects to; it is not cleared first
+     * @return out, for chaining */
+    public Array<GameObject> queryRadius(float x, float y, float radius, GameObject.ObjectType type, Array<GameObject> out) {
+        float r2 = radius * radius;
+        int c1 = column(x + radius), r0 = row(y - radius), r1 = row(y + radius);
+        for (int c = column(x - radius); c <= c1; c++) {
+            for (int r = r0; r <= r1; r++) {
+                Array<GameObject> cell = cells[c * rows + r];
+                for (int i = 0; i < cell.size; i++) {
+                    GameObject o = cell.get(i);
+                    if (type != null && o.getType() != type) { continue; }
+                    float dx = o.getX() - x, dy = o.getY() - y;
+                    if (dx * dx + dy * dy < r2) { out.add(o); }
+                }
+            }
+        }
+        return out;
+    }
+
+    /** Find the objects whose centers are inside rect.
+     * @param type the type of object to find, or null for all types
+     * @param out the array to add the objects to; it is not cleared first
+     * @return out, for chaining */
+    public Array<GameObject> queryRect(Rectangle rect, GameObject.ObjectType type, Array<GameObject> out) {
+        int c1 = column(rect.x + rect.width), r0 = row(rect.y), r1 = row(rect.y + rect.height);
+        for (int c = column(rect.x); c <= c1; c++) {
+            for (int r = r0; r <= r1; r++) {
+                Array<GameObject> cell = cells[c * rows + r];
+                for (int i = 0; i < cell.size; i++) {
+                    GameObject o = cell.get(i);
+                    if (type != null && o.getType() != type) { continue; }
+                    if (rect.contains(o.getX(), o.getY())) { out.add(o); }
+                }
+            }
+        }
+        return out;
+    }
+
+    /** Find the object of a type with the center nearest to (x, y), searching outward ring by ring.
+     * @param type the type of object to find, or null for any type
+     * @param maxRadius only objects closer than this are considered
+     * @return the nearest object, or null if there is none within maxRadius */
+    public GameObject nearest(float x, float y, GameObject.ObjectType type, float maxRadius) {
+        nearestCache = null;
+        nearestDst2 = maxRadius * maxRadius;
+        int col = column(x), row = row(y);
+        int maxRing = MathUtils.ceil(maxRadius / cellSize) + 1;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // nothing in this ring can be closer than the gap of (ring - 1) whole cells
+            float gap = Math.max(0, ring - 1) * cellSize;
+            if (gap * gap >= nearestDst2) { break; }
+            for (int c = col - ring; c <= col + ring; c++) {
+                scanCell(c, row - ring, x, y, type);
+                if (ring > 0) { scanCell(c, row + ring, x, y, type); }
+            }
+            for (int r = row - ring + 1; r <= row + ring - 1; r++) {
+                scanCell(col - ring, r, x, y, type);
+                scanCell(col + ring, r, x, y, type);
+            }
+        }
+        GameObject result = nearestCache;
+        nearestCache = null;
+        return result;
+    }
+
+    /** Check the objects in one cell against the nearest found so far. */
+    private void scanCell(int c, int r, float x, float y, GameObject.ObjectType type) {
+        if (c < 0 || c >= columns || r < 0 || r >= rows) { return; }
+        Array<GameObject> cell = cells[c * rows + r];
+        for (int i = 0; i < cell.size; i++) {
+            GameObject o = cell.get(i);
+            if (type != null && o.getType() != type) { continue; }
+            float dx = o.getX() - x, dy = o.getY() - y;
+            float d2 = dx * dx + dy * dy;
+            if (d2 < nearestDst2) {
+                nearestDst2 = d2;
+                nearestCache = o;
+            }
+        }
+    }
+}
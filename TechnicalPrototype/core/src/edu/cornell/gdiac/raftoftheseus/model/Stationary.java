@@ -54,6 +54,13 @@ public class Stationary extends GameObject {
     public boolean isSharp() { return stationaryType == StationaryType.SHARP_ROCK; }
     /** @return Whether this is a cliff terrain or not. */
     public boolean hasCliff() { return stationaryType == StationaryType.CLIFF_TERRAIN; }
+    /** @return Whether this blocks enemy sight, which only hit-boxes in the terrain category do. */
+    public boolean blocksSight() { return physicsObject.getFilterData().categoryBits == CATEGORY_TERRAIN; }
+    /** @return Whether the hit-box covers its whole grid tile, i.e. it is neither a rock nor a corner piece. */
+    public boolean fillsTile() {
+        return (stationaryType == StationaryType.TERRAIN || stationaryType == StationaryType.CLIFF_TERRAIN)
+                && terrainType != 1 && terrainType != 2 && terrainType != 8 && terrainType != 9;
+    }
     /** @return if the stationary type is a terrain type */
     public static boolean isPlant(int rock_int) { return rock_int < REGULAR; }
     @Override
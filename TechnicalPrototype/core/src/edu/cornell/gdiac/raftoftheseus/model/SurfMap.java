@@ -0,0 +1,423 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.JsonValue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static edu.cornell.gdiac.raftoftheseus.model.Stationary.StationaryType.*;
+
+/**
+ * The surf map of the water shader, kept up to date one region at a time.
+ *
+ * The map is a texture with res x res pixels per tile of the level (border included). Each pixel's R value
+ * is the distance from the center of the pixel to the nearest shore, in tiles, with vertical distances
+ * stretched by sqrt(2) for the 3/4 perspective. Distances are clamped to the range [0, 1] and mapped to
+ * pixel values [0, 255]. A distance of 0 means the pixel is inside terrain. A distance of 1 means the pixel
+ * is at least 1 tile away from the nearest terrain, so no surf is added. The G, B, and A values of the
+ * texture are unused.
+ *
+ * To bake it, the shape of every object with surf is drawn into a buffer of pixels as either shore or
+ * water, then a two-pass Euclidean distance transform finds the distance from every pixel to the nearest
+ * shore pixel, in time linear in the number of pixels. The passes work on whole columns and then whole
+ * rows, which are independent of each other, so large maps split them over the common fork-join pool.
+ *
+ * An object only adds surf within two tiles of its own, so when an object with surf comes or goes, only
+ * those tiles are marked dirty. The level model then bakes the dirty tiles again from the objects near them
+ * and uploads just that region to the texture already on the graphics card.
+ */
+public class SurfMap implements Disposable {
+    /** Number of pixels per tile for new maps, in each direction */
+    private static int RESOLUTION = 5;
+    /** Squash of vertical distances, for the 3/4 perspective */
+    private static final float SQRT2 = 1.414f;
+    /** The G, B and A values of every pixel, as in the color (d, 0.5, 0.5, 1) */
+    private static final int GBA = 0x007f7fff;
+    /** Number of tiles around its own an object draws shore on */
+    private static final int SHAPE_REACH = 1;
+    /** Number of tiles around its own an object adds surf to: its shape, then one tile of surf */
+    private static final int SURF_REACH = SHAPE_REACH + 1;
+    /** The squared distance of a pixel with no shore anywhere; large, but safe to add to */
+    private static final float FAR = 1e20f;
+    /** Regions with fewer pixels than this are baked on the calling thread alone */
+    private static final int PARALLEL_PIXELS = 1 << 16;
+
+    /**
+     * Load the constants for the surf map
+     * @param objParams is the "shader" child of object_settings.json
+     */
+    public static void setConstants(JsonValue objParams) {
+        RESOLUTION = Math.max(1, objParams.getInt("surf resolution", 5));
+    }
+
+    /** @return the number of pixels per tile for new maps, in each direction */
+    public static int getResolution() { return RESOLUTION; }
+
+    /** Number of columns and rows of tiles, border included */
+    private final int columns, rows;
+    /** The width and height of a tile, in Box2D units */
+    private final float tileSize;
+    /** Number of pixels per tile, in each direction */
+    private final int res;
+    /** The pixels of the map, kept to bake a region without reading back the texture */
+    private final Pixmap pixmap;
+    /** The map on the graphics card */
+    private final Texture texture;
+    /** The squared distance to shore of every pixel of the region being baked, grown when needed */
+    private float[] field = new float[0];
+    /** The pixels of the region to upload, grown when needed */
+    private ByteBuffer region;
+    /** The dirty tiles, inclusive; empty when dirtyX0 > dirtyX1 */
+    private int dirtyX0, dirtyY0, dirtyX1, dirtyY1;
+
+    /**
+     * Create a map with no surf anywhere.
+     * @param columns the number of grid columns (x) in the level, border included
+     * @param rows the number of grid rows (y) in the level, border included
+     * @param tileSize the width and height of a tile, in Box2D units
+     * @param res the number of pixels per tile, in each direction
+     */
+    public SurfMap(int columns, int rows, float tileSize, int res) {
+        this.columns = columns;
+        this.rows = rows;
+        this.tileSize = tileSize;
+        this.res = res;
+        pixmap = new Pixmap(res * columns, res * rows, Pixmap.Format.RGBA8888);
+        pixmap.setColor(1.0f, 0.5f, 0.5f, 1.0f); // R = 1 = no terrain nearby
+        pixmap.fill();
+        markClean();
+        texture = new Texture(pixmap);
+//        texture.setAnisotropicFilter(1.0f);
+        texture.setWrap(Texture.TextureWrap.ClampToEdge, Texture.TextureWrap.ClampToEdge);
+    }
+
+    /** @return the map on the graphics card */
+    public Texture getTexture() { return texture; }
+
+    /** @return the pixels of the map; after changing them directly, upload() them */
+    public Pixmap getPixmap() { return pixmap; }
+
+    /** @return whether an object adds surf to the water around it */
+    public static boolean hasSurf(GameObject o) {
+        switch (o.getType()) {
+            case GOAL:
+            case SHIPWRECK:
+                return true;
+            case STATIONARY:
+                Stationary.StationaryType st = ((Stationary) o).getStationaryType();
+                return st == SHARP_ROCK || st == REGULAR_ROCK || st == TERRAIN || st == CLIFF_TERRAIN;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Bake every pixel from scratch. The texture is not changed until upload().
+     * @param objects every object in the level; objects without surf are ignored
+     */
+    public void bake(Iterable<GameObject> objects) {
+        bake(objects, 0, 0, columns - 1, rows - 1);
+        markClean();
+    }
+
+    /** Upload all the pixels to the texture. */
+    public void upload() {
+        upload(0, 0, columns - 1, rows - 1);
+    }
+
+    /**
+     * Mark the tiles an object adds surf to as needing to be baked again, e.g. because it came or went.
+     * @param o the object
+     */
+    public void markDirty(GameObject o) {
+        int tx = tileX(o), ty = tileY(o);
+        dirtyX0 = Math.min(dirtyX0, Math.max(0, tx - SURF_REACH));
+        dirtyY0 = Math.min(dirtyY0, Math.max(0, ty - SURF_REACH));
+        dirtyX1 = Math.max(dirtyX1, Math.min(columns - 1, tx + SURF_REACH));
+        dirtyY1 = Math.max(dirtyY1, Math.min(rows - 1, ty + SURF_REACH));
+    }
+
+    /** @return whether some tiles need to be baked again */
+    public boolean isDirty() { return dirtyX0 <= dirtyX1; }
+
+    /**
+     * Find the area that holds every object that adds surf to the dirty tiles.
+     * @param out where to store the area, in Box2D units
+     * @return out, for chaining
+     */
+    public Rectangle getDirtySources(Rectangle out) {
+        // tile 0 is the border, one tile before the world
+        return out.set((dirtyX0 - 1 - SURF_REACH) * tileSize, (dirtyY0 - 1 - SURF_REACH) * tileSize,
+                (dirtyX1 - dirtyX0 + 1 + 2 * SURF_REACH) * tileSize, (dirtyY1 - dirtyY0 + 1 + 2 * SURF_REACH) * tileSize);
+    }
+
+    /**
+     * Bake the dirty tiles again, upload them to the texture and mark them clean.
+     * @param sources the objects in getDirtySources(), or more; objects without surf are ignored
+     */
+    public void update(Iterable<GameObject> sources) {
+        if (!isDirty()) { return; }
+        bake(sources, dirtyX0, dirtyY0, dirtyX1, dirtyY1);
+        upload(dirtyX0, dirtyY0, dirtyX1, dirtyY1);
+        markClean();
+    }
+
+    @Override
+    public void dispose() {
+        texture.dispose();
+        pixmap.dispose();
+        if (region != null) {
+            BufferUtils.disposeUnsafeByteBuffer(region);
+            region = null;
+        }
+    }
+
+    /** @return the tile column of an object, border included */
+    private int tileX(GameObject o) { return (int) (o.getX() / tileSize + 1); }
+
+    /** @return the tile row of an object, border included */
+    private int tileY(GameObject o) { return (int) (o.getY() / tileSize + 1); }
+
+    /** Mark every tile as baked. */
+    private void markClean() {
+        dirtyX0 = dirtyY0 = Integer.MAX_VALUE;
+        dirtyX1 = dirtyY1 = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Bake the pixels of the given tiles, inclusive.
+     * @param objects every object with surf near the tiles, and possibly others
+     */
+    private void bake(Iterable<GameObject> objects, int x0, int y0, int x1, int y1) {
+        // shore further than a tile from the tiles cannot change them, as distances stop at 1
+        int fx0 = Math.max(0, x0 - 1) * res, fy0 = Math.max(0, y0 - 1) * res;
+        int w = (Math.min(columns - 1, x1 + 1) + 1) * res - fx0, h = (Math.min(rows - 1, y1 + 1) + 1) * res - fy0;
+        if (field.length < w * h) { field = new float[w * h]; }
+        float[] f = field;
+        Arrays.fill(f, 0, w * h, FAR);
+        for (GameObject o : objects) { drawShore(o, f, fx0, fy0, w, h); }
+
+        // distances in pixels, scaled to tiles at the end; a vertical pixel is sqrt(2) times further
+        boolean parallel = w * h >= PARALLEL_PIXELS;
+        int n = Math.max(w, h);
+        bands(w, parallel, (x0b, x1b) -> {
+            float[] g = new float[n], z = new float[n + 1];
+            int[] v = new int[n];
+            for (int x = x0b; x < x1b; x++) { transform(f, x, w, h, SQRT2 * SQRT2, g, v, z); }
+        });
+        bands(h, parallel, (y0b, y1b) -> {
+            float[] g = new float[n], z = new float[n + 1];
+            int[] v = new int[n];
+            for (int y = y0b; y < y1b; y++) { transform(f, y * w, 1, w, 1, g, v, z); }
+        });
+
+        ByteBuffer pixels = pixmap.getPixels().duplicate().order(ByteOrder.BIG_ENDIAN); // RGBA, R first
+        int width = pixmap.getWidth();
+        int px0 = x0 * res, py0 = y0 * res, px1 = (x1 + 1) * res, py1 = (y1 + 1) * res;
+        bands(py1 - py0, parallel, (row0, row1) -> {
+            for (int py = py0 + row0; py < py0 + row1; py++) {
+                for (int px = px0; px < px1; px++) {
+                    float d2 = f[(py - fy0) * w + (px - fx0)];
+                    // the shore lies somewhere between the nearest shore pixel and the next, so take half a pixel off
+                    float d = d2 == 0 ? 0 : Math.max(0, ((float) Math.sqrt(d2) - 0.5f) / res);
+                    pixels.putInt((py * width + px) * 4, ((int) (Math.min(1.0f, d) * 255) << 24) | GBA);
+                }
+            }
+        });
+    }
+
+    /** Work on a band of lines, from the first (inclusive) to the last (exclusive) */
+    private interface Band {
+        void run(int first, int last);
+    }
+
+    /**
+     * Split lines into bands and work on each, in parallel on the common fork-join pool if asked.
+     * @param n the number of lines
+     */
+    private static void bands(int n, boolean parallel, Band band) {
+        if (!parallel) {
+            band.run(0, n);
+            return;
+        }
+        int count = Math.min(n, 4 * ForkJoinPool.getCommonPoolParallelism());
+        IntStream.range(0, count).parallel().forEach(b -> band.run(b * n / count, (b + 1) * n / count));
+    }
+
+    /**
+     * Mark the pixels inside the shape of an object as shore, within the tiles around its own.
+     * @param f the squared distance to shore of every pixel of the region, set to 0 inside the shape
+     * @param fx0 the first pixel column of the region
+     * @param fy0 the first pixel row of the region
+     * @param w the width of the region, in pixels
+     * @param h the height of the region, in pixels
+     */
+    private void drawShore(GameObject o, float[] f, int fx0, int fy0, int w, int h) {
+        // figure out whether this object should create a surf pattern
+        if (!hasSurf(o)) { return; }
+        GameObject.ObjectType oType = o.getType();
+        boolean isGoal = (oType == GameObject.ObjectType.GOAL);
+        boolean isShipwreck = (oType == GameObject.ObjectType.SHIPWRECK);
+        boolean isRock = false;
+        // which corner of the tile is the terrain's center of curvature in (or, -1 if not a corner terrain tile)
+        boolean isCornerTerrain = false;
+        int terrainCornerX = -1;
+        int terrainCornerY = -1;
+        if (oType == GameObject.ObjectType.STATIONARY) {
+            Stationary.StationaryType st = ((Stationary) o).getStationaryType();
+            if (st == SHARP_ROCK || st == REGULAR_ROCK)
+                isRock = true;
+            if (st == TERRAIN || st == CLIFF_TERRAIN) {
+                switch (((Stationary) o).getTerrainType()) {
+                    case 1:
+                        isCornerTerrain = true;
+                        terrainCornerX = 1;
+                        terrainCornerY = 0;
+                        break;
+                    case 2:
+                        isCornerTerrain = true;
+                        terrainCornerX = 0;
+                        terrainCornerY = 0;
+                        break;
+                    case 8:
+                        isCornerTerrain = true;
+                        terrainCornerX = 1;
+                        terrainCornerY = 1;
+                        break;
+                    case 9:
+                        isCornerTerrain = true;
+                        terrainCornerX = 0;
+                        terrainCornerY = 1;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        // int position, in tiles:
+        int rx = tileX(o);
+        int ry = tileY(o);
+        // object center, in tile coords:
+        float cx = rx + 0.5f;
+        float cy = ry + 0.5f;
+        if (isShipwreck)
+            cy -= 0.15f;
+        else if (isCornerTerrain) {
+            cx += (terrainCornerX - 0.5f);
+            cy += (terrainCornerY - 0.5f)*(2.0f - SQRT2)*0.9f;
+        }
+
+        // determine shore shape: round objects and corners are ellipses, other terrain fills its tile
+        boolean isRound = isGoal || isRock || isShipwreck;
+        // object radius (only used if isRound or isCornerTerrain)
+        float radius = isGoal ? 0.97f : isRound ? 0.6f : 1.0f;
+
+        // iterate through the pixels that can be inside the shape, within the neighboring tiles and the region
+        float reachX = isRound || isCornerTerrain ? radius : 0.5f, reachY = isRound || isCornerTerrain ? radius / SQRT2 : 0.5f;
+        int px0 = Math.max(Math.max(fx0, (rx - SHAPE_REACH) * res), (int) ((cx - reachX) * res));
+        int px1 = Math.min(Math.min(fx0 + w, (rx + SHAPE_REACH + 1) * res), (int) Math.ceil((cx + reachX) * res));
+        int py0 = Math.max(Math.max(fy0, (ry - SHAPE_REACH) * res), (int) ((cy - reachY) * res));
+        int py1 = Math.min(Math.min(fy0 + h, (ry + SHAPE_REACH + 1) * res), (int) Math.ceil((cy + reachY) * res));
+        for (int py = py0; py < py1; py++) {
+            // center of pixel, in tile coords
+            float y = (py + 0.5f) / res;
+            for (int px = px0; px < px1; px++) {
+                float x = (px + 0.5f) / res;
+                boolean inside;
+                if (isRound || isCornerTerrain) {
+                    float dx = x - cx;
+                    float dy = (y - cy)*SQRT2;
+                    inside = dx*dx + dy*dy <= radius*radius;
+                } else {
+                    inside = Math.abs(x - cx) <= 0.5f && Math.abs(y - cy) <= 0.5f;
+                }
+                if (inside) { f[(py - fy0) * w + (px - fx0)] = 0; }
+            }
+        }
+    }
+
+    /**
+     * One pass of the distance transform of Felzenszwalb and Huttenlocher: replace every value on a line of
+     * pixels by the lowest sum of the value and the squared distance of any pixel on the line.
+     * @param f the pixels of the region
+     * @param start the index of the first pixel of the line
+     * @param stride the index step from one pixel of the line to the next
+     * @param n the number of pixels on the line
+     * @param scale2 the squared length of a step along the line, in pixels
+     * @param g scratch for the values of the line, of length n
+     * @param v scratch for the pixels whose parabolas form the lower envelope, of length n
+     * @param z scratch for where each parabola of the envelope takes over, of length n + 1
+     */
+    private static void transform(float[] f, int start, int stride, int n, float scale2, float[] g, int[] v, float[] z) {
+        // in units of a step, so that the parabolas are the usual (q - p)^2 + g[p]
+        for (int q = 0; q < n; q++) { g[q] = f[start + q * stride] / scale2; }
+        int k = 0;
+        v[0] = 0;
+        z[0] = Float.NEGATIVE_INFINITY;
+        z[1] = Float.POSITIVE_INFINITY;
+        for (int q = 1; q < n; q++) {
+            float s = intersection(g, q, v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = intersection(g, q, v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = Float.POSITIVE_INFINITY;
+        }
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q) { k++; }
+            int p = v[k];
+            f[start + q * stride] = ((q - p) * (q - p) + g[p]) * scale2;
+        }
+    }
+
+    /** @return where the parabola of pixel q becomes lower than the parabola of pixel p, with p < q */
+    private static float intersection(float[] g, int q, int p) {
+        return ((g[q] + q * q) - (g[p] + p * p)) / (2 * (q - p));
+    }
+
+    /** Copy the pixels of the given tiles, inclusive, to the same place in the texture. */
+    private void upload(int x0, int y0, int x1, int y1) {
+        int px = x0 * res, py = y0 * res, w = (x1 - x0 + 1) * res, h = (y1 - y0 + 1) * res;
+        ByteBuffer pixels = pixmap.getPixels();
+        int width = pixmap.getWidth();
+        ByteBuffer data;
+        if (w == width) {
+            // whole rows are already laid out in the pixmap as the texture needs them
+            data = pixels.duplicate();
+            data.position(py * width * 4).limit((py + h) * width * 4);
+        } else {
+            // OpenGL ES 2 cannot skip pixels between rows, so gather the region's rows first
+            if (region == null || region.capacity() < w * h * 4) {
+                if (region != null) { BufferUtils.disposeUnsafeByteBuffer(region); }
+                region = BufferUtils.newUnsafeByteBuffer(w * h * 4);
+            }
+            region.clear();
+            ByteBuffer row = pixels.duplicate();
+            for (int y = py; y < py + h; y++) {
+                row.limit((y * width + px + w) * 4).position((y * width + px) * 4);
+                region.put(row);
+            }
+            region.flip();
+            data = region;
+        }
+        Gdx.gl.glActiveTexture(GL20.GL_TEXTURE2); // the unit the water shader reads the surf map from
+        texture.bind();
+        Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 1);
+        Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, px, py, w, h, GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE, data);
+        Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0);
+    }
+}
@@ -0,0 +1,172 @@
+package edu.cornell.gdiac.raftoftheseus.model;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import edu.cornell.gdiac.raftoftheseus.GameCanvas;
+
+/**
+ * The terrain, cliffs and rocks of a level, kept as sprite vertices ready to draw.
+ *
+ * These objects never move, so the vertices of their sprites are worked out once and kept, and drawing
+ * them is a copy of the vertices into the sprite batch, one call per texture, instead of a transform per
+ * object. Animated plants are not kept here; they are drawn as objects.
+ *
+ * The objects are grouped into chunks of one tile row and a fixed number of columns. A sprite is drawn
+ * after the objects above it and before those below it, so a chunk stands for all its sprites in the
+ * render order at the height of its row, which every object in it shares. The vertices of a chunk are
+ * only worked out again when an object in it comes or goes.
+ */
+public class TerrainChunks {
+    /** One row of a few tiles of objects, drawn together */
+    public static class Chunk {
+        /** The height of the centers of the objects, in Box2D units */
+        private final float y;
+        /** The lowest and highest x of the centers of the objects, in Box2D units */
+        private final float x0, x1;
+        /** The objects, in the order they came */
+        private final Array<Stationary> objects = new Array<>(false, 16);
+        /** Whether the vertices need to be worked out again */
+        private boolean dirty;
+        /** The vertices of every sprite, grouped by texture */
+        private float[] vertices = new float[0];
+        /** The texture of each group */
+        private final Array<Texture> textures = new Array<>(false, 2);
+        /** The index of the first float of each group, then the number of floats in use */
+        private int[] starts = new int[1];
+
+        Chunk(float y, float x0, float x1) {
+            this.y = y;
+            this.x0 = x0;
+            this.x1 = x1;
+        }
+
+        /** @return the height the chunk is drawn at in the render order, in Box2D units */
+        public float getY() { return y; }
+
+        /** @return the texture of the first sprites drawn, or null if the chunk is empty */
+        public Texture getTexture() {
+            if (dirty) { bake(); }
+            return textures.size > 0 ? textures.first() : null;
+        }
+
+        /**
+         * Draw every sprite of the chunk.
+         * @param canvas the canvas, inside begin()
+         */
+        public void draw(GameCanvas canvas) {
+            if (dirty) { bake(); }
+            for (int g = 0; g < textures.size; g++) {
+                canvas.draw(textures.get(g), vertices, starts[g], starts[g + 1] - starts[g]);
+            }
+        }
+
+        /** Work out the vertices of every sprite, grouped by texture. */
+        private void bake() {
+            textures.clear();
+            for (Stationary o : objects) {
+                if (!textures.contains(o.getTexture().getTexture(), true)) { textures.add(o.getTexture().getTexture()); }
+            }
+            if (vertices.length < objects.size * 20) { vertices = new float[objects.size * 20]; }
+            if (starts.length < textures.size + 1) { starts = new int[textures.size + 1]; }
+            int n = 0;
+            for (int g = 0; g < textures.size; g++) {
+                starts[g] = n;
+                Texture t = textures.get(g);
+                for (Stationary o : objects) {
+                    if (o.getTexture().getTexture() != t) { continue; }
+                    GameCanvas.spriteVertices(vertices, n, o.getTexture(), Color.WHITE, o.origin.x, o.origin.y,
+                            o.getX() + o.textureOffset.x, o.getY() + o.textureOffset.y, o.getAngle(),
+                            o.textureScale.x, o.textureScale.y);
+                    n += 20;
+                }
+            }
+            starts[textures.size] = n;
+            dirty = false;
+        }
+    }
+
+    /** Number of columns and rows of tiles */
+    private final int columns, rows;
+    /** The width and height of a tile, in Box2D units */
+    private final float tileSize;
+    /** Number of tile columns in a chunk */
+    private final int chunkColumns;
+    /** The chunks, at index row * (number of chunk columns) + chunk column; null until an object comes */
+    private final Chunk[] chunks;
+
+    /**
+     * Create a level with no terrain.
+     * @param columns the number of grid columns (x) in the level
+     * @param rows the number of grid rows (y) in the level
+     * @param tileSize the width and height of a tile, in Box2D units
+     * @param chunkColumns the number of tile columns in a chunk
+     */
+    public TerrainChunks(int columns, int rows, float tileSize, int chunkColumns) {
+        this.columns = columns;
+        this.rows = rows + 1; // land at the top edge extends one row past it
+        this.tileSize = tileSize;
+        this.chunkColumns = Math.max(1, chunkColumns);
+        chunks = new Chunk[this.rows * chunksPerRow()];
+    }
+
+    /** @return whether an object is drawn as part of a chunk rather than by itself */
+    public static boolean isBaked(GameObject o) {
+        if (o.getType() != GameObject.ObjectType.STATIONARY || o instanceof Plant) { return false; }
+        Stationary s = (Stationary) o;
+        return s.getStationaryType() != Stationary.StationaryType.WALL && s.getTexture() != null;
+    }
+
+    /** @param o an object that isBaked(), which just came into the level */
+    public void add(Stationary o) {
+        Chunk c = chunk(o);
+        c.objects.add(o);
+        c.dirty = true;
+    }
+
+    /** @param o an object that isBaked(), which just left the level */
+    public void remove(Stationary o) {
+        Chunk c = chunk(o);
+        if (c.objects.removeValue(o, true)) { c.dirty = true; }
+    }
+
+    /**
+     * Find the chunks with an object whose sprite may reach into an area.
+     * @param view the area, in Box2D units
+     * @param padding how far a sprite may reach from the center of its object, in Box2D units
+     * @param out the array to add the chunks to; it is not cleared first
+     * @return out, for chaining
+     */
+    public Array<Chunk> query(Rectangle view, float padding, Array<Chunk> out) {
+        int c0 = chunkColumn(view.x - padding), c1 = chunkColumn(view.x + view.width + padding);
+        int r0 = row(view.y - padding), r1 = row(view.y + view.height + padding);
+        int perRow = chunksPerRow();
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                Chunk chunk = chunks[r * perRow + c];
+                if (chunk == null || chunk.objects.size == 0) { continue; }
+                if (chunk.y + padding < view.y || chunk.y - padding > view.y + view.height
+                        || chunk.x1 + padding < view.x || chunk.x0 - padding > view.x + view.width) { continue; }
+                out.add(chunk);
+            }
+        }
+        return out;
+    }
+
+    private int chunksPerRow() { return (columns + chunkColumns - 1) / chunkColumns; }
+    private int row(float y) { return MathUtils.clamp(MathUtils.floor(y / tileSize), 0, rows - 1); }
+    private int chunkColumn(float x) { return MathUtils.clamp(MathUtils.floor(x / tileSize), 0, columns - 1) / chunkColumns; }
+
+    /** @return the chunk of an object, made if there is none yet */
+    private Chunk chunk(GameObject o) {
+        int r = row(o.getY()), c = chunkColumn(o.getX());
+        int i = r * chunksPerRow() + c;
+        if (chunks[i] == null) {
+            chunks[i] = new Chunk((r + 0.5f) * tileSize, (c * chunkColumns + 0.5f) * tileSize,
+                    (Math.min(columns, (c + 1) * chunkColumns) - 0.5f) * tileSize);
+        }
+        return chunks[i];
+    }
+}
@@ -120,7 +120,7 @@ public class Treasure extends GameObject {
     public void drawStar(GameCanvas canvas) {
         ((FilmStrip) sb.texture).setFrame(sb.fc.getFrame());
         if (collected) {
-            if(sb != null && raft != null) canvas.draw(sb.texture, Color.WHITE, sb.origin.x, sb.origin.y, raft.getX() + sb.textureOffset.x, raft.getY() + sb.textureOffset.y + STARBURST_OFFSET, getAngle(), sb.textureScale.x, sb.textureScale.y);
+            if(sb != null && raft != null) canvas.draw(sb.texture, Color.WHITE, sb.origin.x, sb.origin.y, raft.getRenderX() + sb.textureOffset.x, raft.getRenderY() + sb.textureOffset.y + STARBURST_OFFSET, getAngle(), sb.textureScale.x, sb.textureScale.y);
         }
     }
 
@@ -44,7 +44,7 @@ public class Wood extends GameObject {
 
     /** generate wood at random location */
     public Wood(Vector2 bound){
-        this(new Vector2(bound.x * (float) Math.random(), (float) Math.random() * bound.y), RANDOM_WOOD_GENERATION);
+        this(new Vector2(bound.x * MathUtils.random(), MathUtils.random() * bound.y), RANDOM_WOOD_GENERATION);
     }
 
     /** Realign the raft so thsat the bottom of it is at the bottom of the capsule object. */
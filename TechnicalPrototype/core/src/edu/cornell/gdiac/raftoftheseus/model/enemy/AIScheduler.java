@@ -0,0 +1,155 @@
+package edu.cornell.gdiac.raftoftheseus.model.enemy;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Decides which enemies run their AI on a simulation tick, by how far they are from the raft.
+ *
+ * Near enemies (close to the raft, on screen, or in the middle of something that needs every tick such
+ * as an attack) run every tick. Enemies a bit further away run once every few ticks, spread evenly over
+ * those ticks. The rest share a fixed time budget per tick, taking turns in order. Whenever an enemy
+ * runs, it is handed all the time that passed since it last ran. Only the decisions are throttled: every
+ * enemy steers every tick, the way its AI last decided.
+ *
+ * The time budget and the screen make the schedule depend on the machine and the window, so while input
+ * is recorded or replayed, or when running headless, the scheduler is made deterministic: the tiers go by
+ * distance alone and a fixed number of far enemies run per tick instead.
+ *
+ * Each tick, call begin(), then schedule() for every enemy, then end().
+ */
+public class AIScheduler {
+    /** Enemies this close to the raft always run, in Box2D units */
+    private static float NEAR_RANGE;
+    /** Enemies this close to the raft run every MID_INTERVAL ticks, in Box2D units */
+    private static float MID_RANGE;
+    /** How many ticks apart the enemies in the middle tier run */
+    private static int MID_INTERVAL;
+    /** Time the far enemies may take per tick, in nanoseconds; at least one of them runs regardless */
+    private static long FAR_BUDGET;
+    /** Number of far enemies that run per tick when deterministic */
+    private static int FAR_PER_TICK;
+
+    /**
+     * Load the constants for the scheduler
+     * @param objParams is the "ai" child of object_settings.json
+     */
+    public static void setConstants(JsonValue objParams) {
+        NEAR_RANGE = objParams.getFloat("near range");
+        MID_RANGE = objParams.getFloat("mid range");
+        MID_INTERVAL = Math.max(1, objParams.getInt("mid interval"));
+        FAR_BUDGET = (long) (objParams.getFloat("far budget ms") * 1e6);
+        FAR_PER_TICK = Math.max(1, objParams.getInt("far per tick"));
+    }
+
+    /** Which tiers the enemies are sorted into */
+    private enum Tier { NEAR, MID, FAR }
+
+    /** The far enemies found this tick, in the order they were scheduled */
+    private final Array<Enemy<?, ?>> far = new Array<>();
+    /** Which far enemy gets the first turn next tick */
+    private int farCursor;
+    /** Number of ticks begun, to spread the middle tier over ticks */
+    private int tick;
+    /** Number of middle tier enemies scheduled this tick */
+    private int midCount;
+    /** Where the raft is this tick */
+    private float raftX, raftY;
+    /** The part of the world on screen this tick */
+    private final Rectangle view = new Rectangle();
+    /** Number of enemies that ran and were scheduled on the last tick */
+    private int ranCount, scheduledCount;
+    /** Whether the schedule depends only on the simulation */
+    private boolean deterministic;
+
+    /**
+     * Make the schedule depend only on the simulation, so that replaying the same input runs the same AI.
+     * @param value whether the scheduler is deterministic
+     */
+    public void setDeterministic(boolean value) { deterministic = value; }
+
+    /** Start over for a new level, so the same level always starts with the same schedule. */
+    public void reset() {
+        tick = 0;
+        farCursor = 0;
+        far.clear();
+    }
+
+    /**
+     * Start a tick.
+     * @param raft where the raft is
+     * @param view the part of the world on screen, in Box2D units
+     */
+    public void begin(Vector2 raft, Rectangle view) {
+        tick++;
+        midCount = 0;
+        ranCount = 0;
+        scheduledCount = 0;
+        far.clear();
+        raftX = raft.x;
+        raftY = raft.y;
+        this.view.set(view);
+    }
+
+    /**
+     * Run the AI of an enemy now, later this tick or on a later tick, depending on its tier.
+     * @param e the enemy
+     * @param dt the length of this tick, in seconds
+     */
+    public void schedule(Enemy<?, ?> e, float dt) {
+        e.steer();
+        e.aiTime += dt;
+        scheduledCount++;
+        switch (tierOf(e)) {
+            case NEAR:
+                run(e);
+                break;
+            case MID:
+                if ((tick + midCount++) % MID_INTERVAL == 0) { run(e); }
+                break;
+            case FAR:
+                far.add(e);
+                break;
+        }
+    }
+
+    /** Finish a tick, running far enemies in turn until the time budget (or the fixed count) is used up. */
+    public void end() {
+        if (far.isEmpty()) { return; }
+        int start = farCursor % far.size;
+        int n = 0;
+        if (deterministic) {
+            for (int count = Math.min(FAR_PER_TICK, far.size); n < count; ) { run(far.get((start + n++) % far.size)); }
+        } else {
+            long deadline = TimeUtils.nanoTime() + FAR_BUDGET;
+            do {
+                run(far.get((start + n++) % far.size));
+            } while (n < far.size && TimeUtils.nanoTime() < deadline);
+        }
+        farCursor = start + n;
+        far.clear();
+    }
+
+    /** @return how many enemies ran on the last tick */
+    public int getRanCount() { return ranCount; }
+
+    /** @return how many enemies were scheduled on the last tick */
+    public int getScheduledCount() { return scheduledCount; }
+
+    private Tier tierOf(Enemy<?, ?> e) {
+        if (e.needsEveryTick() || (!deterministic && view.contains(e.getX(), e.getY()))) { return Tier.NEAR; }
+        float dx = e.getX() - raftX, dy = e.getY() - raftY;
+        float d2 = dx * dx + dy * dy;
+        if (d2 < NEAR_RANGE * NEAR_RANGE) { return Tier.NEAR; }
+        return d2 < MID_RANGE * MID_RANGE ? Tier.MID : Tier.FAR;
+    }
+
+    private void run(Enemy<?, ?> e) {
+        e.updateAI(e.aiTime);
+        e.aiTime = 0;
+        ranCount++;
+    }
+}
@@ -19,6 +19,9 @@ public abstract class Enemy<T, K extends State<T>> extends GameObject {
     protected Timer stateTimer = new Timer();
     protected Timer attackTimer = new Timer();
 
+    /** Simulation time since the AI last ran, in seconds (kept by AIScheduler) */
+    float aiTime;
+
     /** For stun animation. */
     protected FrameCalculator stunFC = new FrameCalculator();
     protected TextureHolder stunTexture;
@@ -34,6 +37,13 @@ public abstract class Enemy<T, K extends State<T>> extends GameObject {
      * @param dt the time increment
      */
     public abstract void updateAI(float dt);
+    /**
+     * Keep moving the way the AI last decided. Called every tick, also on the ticks the AI does not run,
+     * so enemies whose AI runs less often still move and slow down like the others.
+     */
+    public void steer() {}
+    /** @return whether the AI must run every tick right now, wherever this enemy is. */
+    public boolean needsEveryTick(){ return false; }
     /** @return whether the player is in a given range of this Shark. */
     public boolean inRange(float dist){ return getTargetDistance() < dist; }
     /** @return how far this enemy is from the player. */
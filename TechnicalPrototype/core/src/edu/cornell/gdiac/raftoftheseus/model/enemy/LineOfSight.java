@@ -0,0 +1,154 @@
+package edu.cornell.gdiac.raftoftheseus.model.enemy;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Answers whether an enemy can see a target through the level terrain, one grid tile at a time.
+ *
+ * Terrain is static and tile-aligned, so each tile is marked once as clear, partly blocked (rocks and
+ * corner terrain) or fully blocked. For each pair of tiles, whether every tile in the rectangle spanned
+ * by the two is clear is cached until the terrain changes or the target moves to another tile, so the
+ * cache never holds more than a pair per tile; any line between those tiles is then clear, which is the
+ * usual case in open water. Other lines walk the tiles they cross (DDA grid traversal) and
+ * are blocked by any fully blocked tile. Only lines that cross a partly blocked tile and no fully blocked
+ * one are uncertain at tile level; those fall back to an exact Box2D ray cast, or count as blocked if
+ * the fallback is turned off.
+ */
+public class LineOfSight {
+    /** Tile opacities, in increasing order of how much they block sight */
+    public static final int CLEAR = 0, PARTIAL = 1, SOLID = 2;
+
+    /** Whether uncertain lines are settled with an exact ray cast */
+    private static boolean EXACT_FALLBACK = true;
+
+    /**
+     * Load the constants for line of sight
+     * @param objParams is the "shark" child of object_settings.json
+     */
+    public static void setConstants(JsonValue objParams) {
+        EXACT_FALLBACK = objParams.getBoolean("exact sight fallback", true);
+    }
+
+    /** Number of columns and rows of tiles */
+    private final int columns, rows;
+    /** The width and height of a tile, in Box2D units */
+    private final float tileSize;
+    /** The opacity of each tile, at index column * rows + row */
+    private final byte[] opacity;
+    /** The most any tile in the rectangle spanned by two tiles blocks sight, keyed by the pair of tiles */
+    private final LongMap<Integer> pairCache = new LongMap<>();
+    /** The tile of the target of the last line asked for, or -1 if there was none */
+    private int targetTile = -1;
+    /** The exact ray cast used for uncertain lines */
+    private final EnemyRayCast rayCast = new EnemyRayCast();
+
+    /**
+     * Create a grid where every tile is clear.
+     * @param columns the number of grid columns (x) in the level
+     * @param rows the number of grid rows (y) in the level
+     * @param tileSize the width and height of a tile, in Box2D units
+     */
+    public LineOfSight(int columns, int rows, float tileSize) {
+        this.columns = columns;
+        this.rows = rows;
+        this.tileSize = tileSize;
+        this.opacity = new byte[columns * rows];
+    }
+
+    /**
+     * Mark how much a tile blocks sight. Tiles outside the grid are ignored.
+     * @param column the grid column
+     * @param row the grid row
+     * @param value CLEAR, PARTIAL or SOLID
+     */
+    public void setTile(int column, int row, int value) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) { return; }
+        opacity[column * rows + row] = (byte) value;
+        pairCache.clear();
+    }
+
+    private int column(float x) { return MathUtils.clamp(MathUtils.floor(x / tileSize), 0, columns - 1); }
+    private int row(float y) { return MathUtils.clamp(MathUtils.floor(y / tileSize), 0, rows - 1); }
+
+    /**
+     * @param world the world to ray cast in for uncertain lines
+     * @param from where the enemy is looking from, in Box2D units
+     * @param to where the target is, in Box2D units
+     * @return whether no terrain is between from and to
+     */
+    public boolean canSee(World world, Vector2 from, Vector2 to) {
+        int target = column(to.x) * rows + row(to.y);
+        if (target != targetTile) {
+            // pairs with the old target tile will not be asked for again
+            pairCache.clear();
+            targetTile = target;
+        }
+        if (spanOpacity(column(from.x), row(from.y), column(to.x), row(to.y)) == CLEAR) { return true; }
+        int result = traverse(from.x / tileSize, from.y / tileSize, to.x / tileSize, to.y / tileSize);
+        if (result == CLEAR) { return true; }
+        if (result == SOLID || !EXACT_FALLBACK) { return false; }
+        rayCast.reset();
+        world.rayCast(rayCast, from, to);
+        return rayCast.getCanSee();
+    }
+
+    /**
+     * @return the most any tile in the rectangle spanned by the two tiles blocks sight, from the cache if
+     * this pair was asked for before
+     */
+    public int spanOpacity(int c0, int r0, int c1, int r1) {
+        long a = c0 * rows + r0, b = c1 * rows + r1;
+        // the rectangle is the same both ways, so both directions share one entry
+        long key = a < b ? a * opacity.length + b : b * opacity.length + a;
+        Integer cached = pairCache.get(key);
+        int result;
+        if (cached != null) {
+            result = cached;
+        } else {
+            result = CLEAR;
+            for (int c = Math.min(c0, c1); c <= Math.max(c0, c1) && result != SOLID; c++) {
+                for (int r = Math.min(r0, r1); r <= Math.max(r0, r1); r++) {
+                    result = Math.max(result, opacity[c * rows + r]);
+                }
+            }
+            pairCache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Walk the tiles crossed by the line between two points, in order.
+     * @param x0 the x of the start, in tiles
+     * @param y0 the y of the start, in tiles
+     * @param x1 the x of the end, in tiles
+     * @param y1 the y of the end, in tiles
+     * @return the most any tile on the line blocks sight
+     */
+    private int traverse(float x0, float y0, float x1, float y1) {
+        int c = MathUtils.clamp(MathUtils.floor(x0), 0, columns - 1), r = MathUtils.clamp(MathUtils.floor(y0), 0, rows - 1);
+        int c1 = MathUtils.clamp(MathUtils.floor(x1), 0, columns - 1), r1 = MathUtils.clamp(MathUtils.floor(y1), 0, rows - 1);
+        float dx = x1 - x0, dy = y1 - y0;
+        int stepC = dx > 0 ? 1 : -1, stepR = dy > 0 ? 1 : -1;
+        // how far along the line, as a fraction of its length, the next column and row boundaries are crossed
+        float deltaC = dx == 0 ? Float.MAX_VALUE : Math.abs(1 / dx), deltaR = dy == 0 ? Float.MAX_VALUE : Math.abs(1 / dy);
+        float nextC = dx == 0 ? Float.MAX_VALUE : (dx > 0 ? c + 1 - x0 : x0 - c) * deltaC;
+        float nextR = dy == 0 ? Float.MAX_VALUE : (dy > 0 ? r + 1 - y0 : y0 - r) * deltaR;
+        int result = opacity[c * rows + r];
+        while (result != SOLID && (c != c1 || r != r1)) {
+            // never step past the end tile, whatever rounding says
+            if (r == r1 || (c != c1 && nextC < nextR)) {
+                c += stepC;
+                nextC += deltaC;
+            } else {
+                r += stepR;
+                nextR += deltaR;
+            }
+            result = Math.max(result, opacity[c * rows + r]);
+        }
+        return result;
+    }
+}
@@ -45,6 +45,8 @@ public class Shark extends Enemy<Shark, SharkState> implements Animated {
     private Vector2 aimDirection = new Vector2(0, 0);
     /** How the Shark wants to move. */
     private Vector2 desiredVelocity = new Vector2();
+    /** Which way to swim to get around terrain to the player, if any */
+    private NavigationField navigation;
     /** FSM to control Shark AI */
     private StateMachine<Shark, SharkState> stateMachine;
     /** FrameController for animation. */
@@ -108,12 +110,19 @@ public class Shark extends Enemy<Shark, SharkState> implements Animated {
      * @param dt the time increment
      */
     public void updateAI(float dt) {
+        if(!isDestroyed()) {
+            stateMachine.update();
+        }
+    }
+
+    /** Push the Shark towards the velocity it wants. */
+    @Override
+    public void steer() {
         if(!isDestroyed()) {
             Vector2 currentVelocity = physicsObject.getLinearVelocity().cpy();
             Vector2 f = currentVelocity.sub(desiredVelocity).scl(-2.0f * physicsObject.getMass());
             physicsObject.getBody().applyForce(f, getPosition(), true);
 //            physicsObject.setLinearVelocity(desiredVelocity);
-            stateMachine.update();
         }
     }
     /** @return this Shark's FSM */
@@ -134,6 +143,12 @@ public class Shark extends Enemy<Shark, SharkState> implements Animated {
         return stateMachine.isInState(SharkState.ATTACK) || stateMachine.isInState(SharkState.PAUSE_AFTER_ATTACK);
     }
 
+    /** Attacks and stuns are timed to the tick, so they must not be skipped */
+    @Override
+    public boolean needsEveryTick() {
+        return isAggressive() || stateMachine.isInState(SharkState.STUNNED);
+    }
+
     /** Whether the player can hear danger music because of this Shark */
     public boolean canHear(){
         return inRange(HEAR_RANGE) && isAggressive();
@@ -149,6 +164,12 @@ public class Shark extends Enemy<Shark, SharkState> implements Animated {
         return getTargetDistance() < dist;
     }
 
+    /** @return whether this Shark can swim to the player within a given distance, going around terrain. */
+    public boolean canReach(float dist){
+        if(navigation == null) return inRange(dist);
+        return navigation.getPathLength(getPosition()) < dist;
+    }
+
     /**  */
     @Override
     public Vector2 getTargetDirection(Vector2 playerCurrentVelocity) {
@@ -167,6 +188,23 @@ public class Shark extends Enemy<Shark, SharkState> implements Animated {
         }
     }
 
+    /**
+     * Swim towards the player around terrain, or straight at the player once no terrain is in between.
+     * @param speed how fast to swim
+     */
+    public void setPursuitVelocity(float speed) {
+        Vector2 way = navigation == null ? Vector2.Zero : navigation.lookup(getPosition());
+        if (way.isZero()) {
+            setDesiredVelocity(speed, true);
+        } else {
+            aimDirection.set(way);
+            desiredVelocity.set(aimDirection).scl(speed);
+        }
+    }
+
+    /** @param navigation which way to swim to get around terrain to the player */
+    public void setNavigation(NavigationField navigation) { this.navigation = navigation; }
+
     // Stunned
     public boolean setHit(){
         if (!(stateMachine.isInState(SharkState.STUNNED) || stateMachine.isInState(SharkState.DYING))){
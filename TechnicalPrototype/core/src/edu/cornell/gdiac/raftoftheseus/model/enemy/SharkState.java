@@ -7,7 +7,8 @@ public enum SharkState implements State<Shark> {
         @Override
         public void update(Shark entity) {
             entity.setDesiredVelocity(0, false);
-            if(entity.canSee() && entity.inRange(Shark.APPROACH_RANGE)) {
+            // seeing the player is what makes the shark aggressive
+            if(entity.canSee() && entity.canReach(Shark.APPROACH_RANGE)) {
                 entity.getStateMachine().changeState(APPROACH);
             }
         }
@@ -15,11 +16,12 @@ public enum SharkState implements State<Shark> {
     APPROACH(){
         @Override
         public void update(Shark entity) {
-            entity.setDesiredVelocity(Shark.APPROACH_SPEED, true);
-            if(!(entity.canSee() && entity.inRange(Shark.APPROACH_RANGE))) {
+            entity.setPursuitVelocity(Shark.APPROACH_SPEED);
+            // keep following the way around terrain when the player goes out of sight behind it
+            if(!entity.canReach(Shark.APPROACH_RANGE)) {
                 entity.getStateMachine().changeState(IDLE);
             } else {
-                if (entity.inRange(Shark.ATTACK_RANGE)) {
+                if (entity.canSee() && entity.inRange(Shark.ATTACK_RANGE)) {
                     entity.getStateMachine().changeState(PAUSE_BEFORE_ATTACK);
                 }
             }
@@ -175,9 +175,14 @@ public class Siren extends Enemy<Siren, SirenState> implements Animated {
     /** @param dt the time increment, to switch the state of the FSM when applicable. */
     @Override
     public void updateAI(float dt) {
-        physicsObject.setLinearVelocity(moveVector);
         stateMachine.update();
     }
+
+    /** Keep flying along the move vector. */
+    @Override
+    public void steer() {
+        physicsObject.setLinearVelocity(moveVector);
+    }
     /** @return this Siren's FSM */
     @Override
     public StateMachine<Siren, SirenState> getStateMachine(){ return this.stateMachine; }
@@ -223,6 +228,10 @@ public class Siren extends Enemy<Siren, SirenState> implements Animated {
         else moveVector.nor().scl(TAKE_OFF_SPEED);
     }
 
+    /** A flying Siren checks for its landing spot every tick so it does not fly past it */
+    @Override
+    public boolean needsEveryTick() { return stateMachine.isInState(SirenState.FLYING); }
+
     // Changing location
     /** @return when the Siren has reached its destination. */
     public boolean nearLanding(){
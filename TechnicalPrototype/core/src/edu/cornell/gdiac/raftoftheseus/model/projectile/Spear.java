@@ -48,6 +48,7 @@ public class Spear extends Projectile implements Animated {
     public static float DAMAGE;
     /** Size of a spear. */
     public static float TEXTURE_SCALE;
+    /** How far the pivot of the texture is from its centre, as a fraction of the frame size. */
     private static float TEXTURE_XO;
     private static float TEXTURE_YO;
     private static float LENGTH;
@@ -85,6 +86,8 @@ public class Spear extends Projectile implements Animated {
     }
     private SpearState spearState = SpearState.IDLE;
     private boolean toDestroy;
+    /** The direction the held spear last aimed, in degrees; not wrapped to [0, 360), so it changes smoothly */
+    private float aimAngle = 90.0f;
 
     /*=*=*=*=*=*=*=*=*=* INTERFACE *=*=*=*=*=*=*=*=*=*/
     @Override
@@ -120,12 +123,26 @@ public class Spear extends Projectile implements Animated {
         f.maskBits = MASK_PLAYER_BULLET;
         f.categoryBits = CATEGORY_PLAYER_BULLET;
         physicsObject.setFilterData(f);
-        setAngle(dir.angleDeg());
+        float angle = dir.angleDeg();
+        // the body keeps its angle in [0, 360), so draw it unblended this tick rather than spun round
+        if (Math.abs(angle - getAngle()) > 180f) { clearInterpolation(); }
+        setAngle(angle);
         setBody(dir.scl(SPEED).mulAdd(raft_speed, 0.5f));
         getBody().setAngularVelocity(0);
         fc.resetAll();
     }
 
+    /**
+     * The angle of the held spear is blended between ticks when drawn, so it must not jump by a whole turn
+     * when the aim crosses the +x axis, or the spear would be drawn spinning round between two ticks.
+     * @param degrees an angle in degrees
+     * @param near the angle to stay close to, in degrees
+     * @return the angle pointing the same way as degrees that is within half a turn of near
+     */
+    private static float unwrap(float degrees, float near) {
+        return near + (((degrees - near) % 360f + 540f) % 360f - 180f);
+    }
+
     /** @return whether spear is fire state or not. */
     private boolean isFired(){ return spearState == SpearState.FIRED; }
     /** Applying drag to slow the projectile down. Depends on how far the spear has traveled. */
@@ -152,7 +169,8 @@ public class Spear extends Projectile implements Animated {
     @Override
     public void setTexture(TextureRegion value){
         texture = value;
-        origin.set(texture.getRegionWidth()/2.0f + TEXTURE_XO, texture.getRegionHeight()/2.0f + TEXTURE_YO);
+        // the frames are packed at whatever size fits the atlas, so the pivot scales with them
+        origin.set(texture.getRegionWidth() * (0.5f + TEXTURE_XO), texture.getRegionHeight() * (0.5f + TEXTURE_YO));
         setTextureTransform();
     }
 
@@ -175,7 +193,8 @@ public class Spear extends Projectile implements Animated {
         float yOffset = (float) Math.sin(floatTime * OSCILLATION_SPEED) * OSCILLATION_RANGE;
         Vector2 newPosition = pos.cpy().add(0.0f, SPEAR_YO + yOffset);
         Vector2 d = dir.sub(newPosition);
-        float newAngle = d.angleDeg();
+        aimAngle = unwrap(d.angleDeg(), aimAngle);
+        float newAngle = aimAngle;
         newPosition.add(d.nor().scl(getWidth()*0.75f));
 
         float i = Math.min(1.0f, floatTime*2.0f);
@@ -183,7 +202,7 @@ public class Spear extends Projectile implements Animated {
         newAngle = newAngle * i + initialAngle * (1.0f - i);
 
         setPosition(newPosition);
-        setAngle(newAngle);
+        setAngle(newAngle); // placed every tick, so it is drawn blended between ticks like the raft it follows
 
 //        if(!locked) {
 //            if(Math.abs(getAngle() - dAngle) < LOCK_THRESHOLD){
@@ -228,6 +247,6 @@ public class Spear extends Projectile implements Animated {
     @Override
     public void draw(GameCanvas canvas){
         ((FilmStrip) texture).setFrame(fc.getFrame());
-        canvas.draw(texture, Color.WHITE, origin.x, origin.y, getX() + textureOffset.x, getY() + textureOffset.y, getAngle() - 90f, textureScale.x, textureScale.y);
+        canvas.draw(texture, Color.WHITE, origin.x, origin.y, getRenderX() + textureOffset.x, getRenderY() + textureOffset.y, getRenderAngle() - 90f, textureScale.x, textureScale.y);
     }
 }
@@ -1,9 +1,10 @@
 package edu.cornell.gdiac.raftoftheseus.model.util;
 
-import com.badlogic.gdx.utils.TimeUtils;
+import edu.cornell.gdiac.raftoftheseus.singleton.GameClock;
 
 /**
  * Class to help factor out timestamp related code for duration or state dependent events.
+ * Time is read from the GameClock, so it only passes while the level is being simulated.
  */
 public class Timer {
 
@@ -27,7 +28,7 @@ public class Timer {
     /** Set a timestamp if one has not already been set. */
     public void setTimeStamp(){
         if(!timeStamped) {
-            timeStamp = TimeUtils.millis();
+            timeStamp = GameClock.getInstance().millis();
             timeStamped = true;
         }
     }
@@ -52,7 +53,7 @@ public class Timer {
      * @return whether the given period of time has elapsed since the last call to resetTimeStamp.
      */
     public boolean hasTimeElapsed(long time, boolean reset){
-        boolean passed = timeStamped && TimeUtils.timeSinceMillis(timeStamp) > time;
+        boolean passed = timeStamped && (GameClock.getInstance().millis() - timeStamp) > time;
         if(passed){
             if(reset) resetTimeStamp();
             return true;
@@ -65,6 +66,6 @@ public class Timer {
      */
     public long getTimeElapsed(){
         if(!timeStamped) throw new RuntimeException("Timer not started.");
-        else return TimeUtils.timeSinceMillis(timeStamp);
+        else return (GameClock.getInstance().millis() - timeStamp);
     }
 }
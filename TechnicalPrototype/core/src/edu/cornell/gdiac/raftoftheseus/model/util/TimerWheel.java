@@ -0,0 +1,92 @@
+package edu.cornell.gdiac.raftoftheseus.model.util;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Runs tasks a number of ticks from now, as a hashed timer wheel.
+ *
+ * Each task goes into the slot of the tick it is due on, modulo the number of slots. Advancing one tick
+ * only looks at the tasks in one slot, so the cost per tick does not grow with the number of tasks
+ * waiting. Tasks due more than one turn of the wheel away simply stay in their slot until their tick
+ * comes round. Tasks due on the same tick run in the order they were scheduled.
+ */
+public class TimerWheel {
+    /** A task waiting for its tick */
+    private static class Entry {
+        long due;
+        Runnable task;
+    }
+
+    /** The tasks in each slot, in the order they were scheduled */
+    private final Array<Entry>[] slots;
+    /** Number of slots minus one; the number of slots is a power of two */
+    private final int mask;
+    /** Entries not in use, to avoid allocating one per task */
+    private final Pool<Entry> pool = new Pool<Entry>() {
+        @Override
+        protected Entry newObject() { return new Entry(); }
+    };
+    /** The tasks of the current slot that are not due yet, while the slot is being run */
+    private final Array<Entry> keep = new Array<>();
+    /** Number of ticks advanced */
+    private long tick;
+
+    /** @param slots at least how many slots the wheel has; it is rounded up to a power of two */
+    public TimerWheel(int slots) {
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Array<Entry>[] wheel = new Array[size];
+        for (int i = 0; i < size; i++) { wheel[i] = new Array<>(false, 4); }
+        this.slots = wheel;
+        this.mask = size - 1;
+    }
+
+    /** @return the number of ticks advanced since the wheel was created or cleared */
+    public long getTick() { return tick; }
+
+    /**
+     * Run a task a number of ticks from now.
+     * @param ticks how many ticks from now, at least 1
+     * @param task what to run
+     */
+    public void schedule(int ticks, Runnable task) {
+        Entry e = pool.obtain();
+        e.due = tick + Math.max(1, ticks);
+        e.task = task;
+        slots[(int) (e.due & mask)].add(e);
+    }
+
+    /** Advance one tick, running the tasks due on it. */
+    public void advance() {
+        tick++;
+        Array<Entry> slot = slots[(int) (tick & mask)];
+        if (slot.isEmpty()) { return; }
+        // tasks may schedule more tasks, even into this slot, so run from a copy
+        keep.addAll(slot);
+        slot.clear();
+        for (int i = 0; i < keep.size; i++) {
+            Entry e = keep.get(i);
+            if (e.due != tick) {
+                slot.add(e);
+                continue;
+            }
+            Runnable task = e.task;
+            e.task = null;
+            pool.free(e);
+            task.run();
+        }
+        keep.clear();
+    }
+
+    /** Drop every task and start counting ticks from zero again. */
+    public void clear() {
+        for (Array<Entry> slot : slots) {
+            for (int i = 0; i < slot.size; i++) { slot.get(i).task = null; }
+            pool.freeAll(slot);
+            slot.clear();
+        }
+        keep.clear();
+        tick = 0;
+    }
+}
@@ -0,0 +1,106 @@
+package edu.cornell.gdiac.raftoftheseus.replay;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes the input of every simulation tick to a compact binary log, to be played back by InputReplay.
+ *
+ * A log is a header followed by runs. A run starts each time a level is started (or restarted) and holds
+ * the level id, the random seed the level was started with and the tick length, then one record per tick.
+ * A tick record is a byte of flags, followed by the movement and the aim as float pairs, but each only
+ * when it changed since the tick before. A tick where nothing changed is a single byte.
+ */
+public class InputRecorder {
+    /** The first four bytes of every log */
+    static final int MAGIC = 0x52414654; // "RAFT"
+    /** The format of the log, to be raised whenever it changes */
+    static final int VERSION = 1;
+    /** Marks the start of a run */
+    static final byte RUN = 1;
+    /** Marks the start of a tick */
+    static final byte TICK = 2;
+    /** Marks the end of the log */
+    static final byte END = 3;
+
+    /** Tick flags; MOVE and AIM mean the vector follows the flags */
+    static final int CHARGE = 1, RELEASE = 1 << 1, CHANGE = 1 << 2, MAP = 1 << 3, PAUSED = 1 << 4, MOVE = 1 << 5, AIM = 1 << 6;
+
+    /** Where the log is written */
+    private final DataOutputStream out;
+    /** The input of the last tick, to write only what changed */
+    private final TickInput last = new TickInput();
+    /** Number of ticks written in the current run */
+    private int ticks;
+
+    /** @param file the file to write the log to; it is overwritten */
+    public InputRecorder(FileHandle file) {
+        out = new DataOutputStream(file.write(false, 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write input log " + file, e);
+        }
+    }
+
+    /**
+     * Start a run.
+     * @param levelId the level id, which decides the difficulty
+     * @param seed the seed of the game's random numbers for this run
+     * @param step the length of a simulation tick, in seconds
+     */
+    public void beginRun(int levelId, long seed, float step) {
+        try {
+            out.flush(); // what was played so far survives a crash
+            out.writeByte(RUN);
+            out.writeInt(levelId);
+            out.writeLong(seed);
+            out.writeFloat(step);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write input log", e);
+        }
+        last.movement.setZero();
+        last.aim.setZero();
+        ticks = 0;
+    }
+
+    /** @param input the input of the tick that is about to be simulated */
+    public void record(TickInput input) {
+        int flags = (input.charge ? CHARGE : 0) | (input.release ? RELEASE : 0) | (input.change ? CHANGE : 0)
+                | (input.map ? MAP : 0) | (input.paused ? PAUSED : 0)
+                | (input.movement.equals(last.movement) ? 0 : MOVE) | (input.aim.equals(last.aim) ? 0 : AIM);
+        try {
+            out.writeByte(TICK);
+            out.writeByte(flags);
+            if ((flags & MOVE) != 0) {
+                out.writeFloat(input.movement.x);
+                out.writeFloat(input.movement.y);
+            }
+            if ((flags & AIM) != 0) {
+                out.writeFloat(input.aim.x);
+                out.writeFloat(input.aim.y);
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write input log", e);
+        }
+        last.set(input);
+        ticks++;
+    }
+
+    /** @return the number of ticks recorded in the current run */
+    public int getTicks() { return ticks; }
+
+    /** End the log and close the file. */
+    public void close() {
+        try {
+            out.writeByte(END);
+            out.close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write input log", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package edu.cornell.gdiac.raftoftheseus.replay;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static edu.cornell.gdiac.raftoftheseus.replay.InputRecorder.*;
+
+/**
+ * Plays back a log written by InputRecorder, one run at a time.
+ *
+ * Runs are played in the order they were recorded: each level start takes the next run, and each tick
+ * then takes the next input of that run.
+ *
+ * The whole log is read up front, so playing it back reads no files. A log cut short, e.g. because the
+ * game crashed, plays back up to the last whole tick.
+ */
+public class InputReplay {
+    /** One recorded level start and the ticks played after it */
+    public static class Run {
+        /** The level id, which decides the difficulty */
+        public final int levelId;
+        /** The seed of the game's random numbers for this run */
+        public final long seed;
+        /** The length of a simulation tick when recorded, in seconds */
+        public final float step;
+        /** The input of every tick, in order */
+        final Array<TickInput> ticks = new Array<>();
+
+        Run(int levelId, long seed, float step) {
+            this.levelId = levelId;
+            this.seed = seed;
+            this.step = step;
+        }
+
+        /** @return the number of ticks in this run */
+        public int size() { return ticks.size; }
+    }
+
+    /** Every run in the log, in order */
+    private final Array<Run> runs = new Array<>();
+    /** Index of the run being played, or -1 before the first */
+    private int run = -1;
+    /** The next tick of the current run to play */
+    private int next;
+
+    /** @param file the log to play */
+    public InputReplay(FileHandle file) {
+        DataInputStream in = new DataInputStream(file.read(1 << 16));
+        try {
+            if (in.readInt() != MAGIC) { throw new GdxRuntimeException(file + " is not an input log"); }
+            int version = in.readInt();
+            if (version != VERSION) { throw new GdxRuntimeException(file + " is an input log of version " + version + ", not " + VERSION); }
+            TickInput last = new TickInput();
+            Run run = null;
+            for (byte marker = in.readByte(); marker != END; marker = in.readByte()) {
+                if (marker == RUN) {
+                    run = new Run(in.readInt(), in.readLong(), in.readFloat());
+                    runs.add(run);
+                    last = new TickInput();
+                } else if (marker == TICK && run != null) {
+                    TickInput input = new TickInput().set(last);
+                    int flags = in.readByte();
+                    input.charge = (flags & CHARGE) != 0;
+                    input.release = (flags & RELEASE) != 0;
+                    input.change = (flags & CHANGE) != 0;
+                    input.map = (flags & MAP) != 0;
+                    input.paused = (flags & PAUSED) != 0;
+                    if ((flags & MOVE) != 0) { input.movement.set(in.readFloat(), in.readFloat()); }
+                    if ((flags & AIM) != 0) { input.aim.set(in.readFloat(), in.readFloat()); }
+                    run.ticks.add(input);
+                    last = input;
+                } else {
+                    throw new GdxRuntimeException(file + " is corrupt");
+                }
+            }
+        } catch (EOFException e) {
+            // cut short: keep every whole tick
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not read input log " + file, e);
+        } finally {
+            try { in.close(); } catch (IOException ignored) {}
+        }
+    }
+
+    /** @return every run in the log, in order */
+    public Array<Run> getRuns() { return runs; }
+
+    /**
+     * Start playing the next run from its first tick.
+     * @return the run, or null if every run has been played
+     */
+    public Run nextRun() {
+        next = 0;
+        run = Math.min(run + 1, runs.size);
+        return getCurrent();
+    }
+
+    /** @return the run that nextRun() would start, or null if every run has been played */
+    public Run peekRun() { return run + 1 < runs.size ? runs.get(run + 1) : null; }
+
+    /** @return the run being played, or null if none is */
+    public Run getCurrent() { return run >= 0 && run < runs.size ? runs.get(run) : null; }
+
+    /** @return whether the current run has ticks left to play */
+    public boolean hasNext() {
+        Run current = getCurrent();
+        return current != null && next < current.ticks.size;
+    }
+
+    /**
+     * Play the next tick of the current run.
+     * @param out where to copy the input of the tick
+     * @return out, for chaining
+     */
+    public TickInput next(TickInput out) {
+        return out.set(getCurrent().ticks.get(next++));
+    }
+}
@@ -0,0 +1,43 @@
+package edu.cornell.gdiac.raftoftheseus.replay;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Everything the player does that one simulation tick uses.
+ *
+ * This is what the world controller reads from the InputController for a tick, after one-shot presses
+ * have been held until a tick could use them and the mouse has been taken to world coordinates. Feeding
+ * the same sequence of these into the same level plays the same game.
+ */
+public class TickInput {
+    /** The direction the player wants to sail in, of length 1 or 0 */
+    public final Vector2 movement = new Vector2();
+    /** Where the mouse points, in Box2D units */
+    public final Vector2 aim = new Vector2();
+    /** Whether the fire button went down since the last tick */
+    public boolean charge;
+    /** Whether the fire button went up since the last tick */
+    public boolean release;
+    /** Whether the light effect was changed since the last tick */
+    public boolean change;
+    /** Whether the map was opened or closed since the last tick */
+    public boolean map;
+    /** Whether the game was paused since the last tick */
+    public boolean paused;
+
+    /**
+     * Copy another input into this one.
+     * @param other the input to copy
+     * @return this input, for chaining
+     */
+    public TickInput set(TickInput other) {
+        movement.set(other.movement);
+        aim.set(other.aim);
+        charge = other.charge;
+        release = other.release;
+        change = other.change;
+        map = other.map;
+        paused = other.paused;
+        return this;
+    }
+}
@@ -0,0 +1,230 @@
+package edu.cornell.gdiac.raftoftheseus.singleton;
+
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Singleton profiler that measures where the time of each frame goes.
+ *
+ * The game loop marks the start and end of each of its phases, and the profiler adds up the nanoseconds
+ * spent in each phase over a frame; a phase that runs several times in a frame, like a simulation tick
+ * with a fixed time step, is counted once per run. If it was given the graphics, it also counts the
+ * draw calls, texture binds, shader switches and vertices of each frame with a GLProfiler.
+ *
+ * The drawing phases are timed on the CPU, so they measure how long it takes to hand the work to the
+ * GPU, not how long the GPU takes to do it; GPU time that is not hidden shows up where the driver waits,
+ * usually at the buffer swap, which is outside every phase.
+ *
+ * The last HISTORY frames are kept, to be drawn as a graph or written out as CSV. When it is disabled,
+ * which it is by default, marking a phase does nothing but check a flag.
+ * Usage is as follows: getInstance() -> beginFrame() -> begin(phase), end(phase)... -> endFrame().
+ */
+public class FrameProfiler {
+    /** The phases of a frame, in the order they run */
+    public enum Phase {
+        /** Camera update, input, and switching screens */
+        PRE_UPDATE("preUpdate"),
+        /** Player input and enemy AI */
+        UPDATE("update"),
+        /** Queued objects, the physics step, garbage collection of objects, music and sound */
+        POST_UPDATE("postUpdate"),
+        /** Moving objects blended between ticks, the lights moved with them and their rays cast, and scenery animated */
+        ADVANCE_FRAME("advanceFrame"),
+        /** The water */
+        WATER("water"),
+        /** The objects of the level */
+        OBJECTS("objects"),
+        /** The health bar, starbursts, reticle and other HUD */
+        HUD("hud"),
+        /** The light and shadow effects */
+        LIGHTS("renderLights");
+
+        /** The name of the phase in the overlay and the CSV */
+        public final String label;
+
+        Phase(String label) { this.label = label; }
+    }
+
+    /** The GL counters of a frame */
+    public enum Counter {
+        DRAW_CALLS("draw calls"),
+        TEXTURE_BINDS("texture binds"),
+        SHADER_SWITCHES("shader switches"),
+        VERTICES("vertices");
+
+        /** The name of the counter in the overlay and the CSV */
+        public final String label;
+
+        Counter(String label) { this.label = label; }
+    }
+
+    /** Number of frames kept */
+    public static final int HISTORY = 600;
+
+    /** The singleton instance of the profiler */
+    private static FrameProfiler theProfiler = null;
+
+    /** @return the singleton instance of the profiler */
+    public static FrameProfiler getInstance() {
+        if (theProfiler == null) {
+            theProfiler = new FrameProfiler();
+        }
+        return theProfiler;
+    }
+
+    /** Whether frames are being measured */
+    private boolean enabled;
+    /** Counts the GL calls, or null if there are no graphics */
+    private GLProfiler gl;
+    /** When the current frame started, in nanoseconds */
+    private long frameStart;
+    /** When each phase last started, in nanoseconds */
+    private final long[] starts = new long[Phase.values().length];
+    /** The nanoseconds of each phase so far in the current frame */
+    private final long[] current = new long[Phase.values().length];
+
+    /** The nanoseconds of each phase, per frame kept */
+    private final long[][] phases = new long[HISTORY][Phase.values().length];
+    /** The nanoseconds of each whole frame kept */
+    private final long[] totals = new long[HISTORY];
+    /** The GL counters, per frame kept */
+    private final int[][] counters = new int[HISTORY][Counter.values().length];
+    /** Where the next frame is kept */
+    private int next;
+    /** Number of frames kept */
+    private int size;
+
+    private FrameProfiler() {}
+
+    /**
+     * Counts the GL calls of each frame from now on. The counting only happens while the profiler is enabled.
+     * @param graphics the graphics of the application
+     */
+    public void setGraphics(Graphics graphics) {
+        if (gl != null) { gl.disable(); }
+        gl = new GLProfiler(graphics);
+        if (enabled) { gl.enable(); }
+    }
+
+    /** @return whether frames are being measured */
+    public boolean isEnabled() { return enabled; }
+
+    /** @param enabled whether to measure frames; the history is cleared when it is turned on */
+    public void setEnabled(boolean enabled) {
+        if (enabled == this.enabled) { return; }
+        this.enabled = enabled;
+        if (enabled) {
+            size = 0;
+            next = 0;
+            frameStart = 0;
+        }
+        if (gl != null) {
+            if (enabled) { gl.enable(); } else { gl.disable(); }
+        }
+    }
+
+    /** Start measuring a frame. The GL calls since the last frame ended, like the overlay, are not counted. */
+    public void beginFrame() {
+        if (!enabled) { return; }
+        Arrays.fill(current, 0);
+        if (gl != null) { gl.reset(); }
+        frameStart = System.nanoTime();
+    }
+
+    /** @param phase the phase that starts now */
+    public void begin(Phase phase) {
+        if (!enabled) { return; }
+        starts[phase.ordinal()] = System.nanoTime();
+    }
+
+    /** @param phase the phase that ends now, which began last */
+    public void end(Phase phase) {
+        if (!enabled) { return; }
+        current[phase.ordinal()] += System.nanoTime() - starts[phase.ordinal()];
+    }
+
+    /** Stop measuring the frame and keep it. */
+    public void endFrame() {
+        if (!enabled || frameStart == 0) { return; }
+        System.arraycopy(current, 0, phases[next], 0, current.length);
+        totals[next] = System.nanoTime() - frameStart;
+        int[] c = counters[next];
+        if (gl != null) {
+            c[Counter.DRAW_CALLS.ordinal()] = gl.getDrawCalls();
+            c[Counter.TEXTURE_BINDS.ordinal()] = gl.getTextureBindings();
+            c[Counter.SHADER_SWITCHES.ordinal()] = gl.getShaderSwitches();
+            c[Counter.VERTICES.ordinal()] = (int) gl.getVertexCount().total;
+        }
+        next = (next + 1) % HISTORY;
+        size = Math.min(size + 1, HISTORY);
+    }
+
+    /** @return the number of frames kept */
+    public int size() { return size; }
+
+    /**
+     * @param age how many frames ago, from 0 for the last frame to size() - 1
+     * @param phase a phase
+     * @return the nanoseconds spent in the phase in that frame
+     */
+    public long getTime(int age, Phase phase) { return phases[index(age)][phase.ordinal()]; }
+
+    /**
+     * @param age how many frames ago, from 0 for the last frame to size() - 1
+     * @return the nanoseconds of the whole frame, from beginFrame() to endFrame()
+     */
+    public long getTotal(int age) { return totals[index(age)]; }
+
+    /**
+     * @param age how many frames ago, from 0 for the last frame to size() - 1
+     * @param counter a GL counter
+     * @return the count in that frame, or 0 if GL calls are not counted
+     */
+    public int getCount(int age, Counter counter) { return counters[index(age)][counter.ordinal()]; }
+
+    /**
+     * @param phase a phase
+     * @return the mean nanoseconds spent in the phase over the frames kept
+     */
+    public long getAverage(Phase phase) {
+        if (size == 0) { return 0; }
+        long sum = 0;
+        for (int age = 0; age < size; age++) { sum += getTime(age, phase); }
+        return sum / size;
+    }
+
+    /** @return whether GL calls are counted */
+    public boolean hasCounters() { return gl != null; }
+
+    private int index(int age) { return (next - 1 - age + 2 * HISTORY) % HISTORY; }
+
+    /**
+     * Write the frames kept to a CSV file, oldest first, one row per frame. Times are in nanoseconds.
+     * @param file the file to write, replaced if it exists
+     */
+    public void writeCSV(FileHandle file) {
+        Writer out = file.writer(false, "UTF-8");
+        try {
+            StringBuilder row = new StringBuilder("frame,total");
+            for (Phase p : Phase.values()) { row.append(',').append(p.label); }
+            for (Counter c : Counter.values()) { row.append(',').append(c.label); }
+            out.write(row.append('\n').toString());
+            for (int age = size - 1; age >= 0; age--) {
+                row.setLength(0);
+                row.append(size - 1 - age).append(',').append(getTotal(age));
+                for (Phase p : Phase.values()) { row.append(',').append(getTime(age, p)); }
+                for (Counter c : Counter.values()) { row.append(',').append(getCount(age, c)); }
+                out.write(row.append('\n').toString());
+            }
+        } catch (IOException e) {
+            System.out.println("Could not write profile to " + file.path() + ": " + e.getMessage());
+        } finally {
+            try { out.close(); } catch (IOException ignored) {}
+        }
+    }
+}
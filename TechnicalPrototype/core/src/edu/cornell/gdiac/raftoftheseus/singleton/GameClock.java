@@ -0,0 +1,71 @@
+package edu.cornell.gdiac.raftoftheseus.singleton;
+
+import edu.cornell.gdiac.raftoftheseus.model.util.TimerWheel;
+
+/**
+ * Singleton clock that counts simulated time, for everything in a level that waits or expires.
+ *
+ * The clock only moves when the world controller simulates, so it stands still while the game is paused
+ * and runs the same for the same inputs no matter how fast frames come, including when replayed or run
+ * headless. Time passes in whole ticks of the simulation step; tasks scheduled on the clock run at the
+ * end of the tick they are due on.
+ * Usage is as follows: getInstance() -> setStep() -> reset() on every level start -> advance() after every tick.
+ */
+public class GameClock {
+    /** The singleton instance of the clock */
+    private static GameClock theClock = null;
+
+    /** @return the singleton instance of the clock */
+    public static GameClock getInstance() {
+        if (theClock == null) {
+            theClock = new GameClock();
+        }
+        return theClock;
+    }
+
+    /** The tasks waiting to run; its ticks are the ticks of the clock */
+    private final TimerWheel wheel = new TimerWheel(512);
+    /** The length of a tick, in seconds */
+    private float step = 1 / 60f;
+    /** Time simulated that is not yet a whole tick, in seconds */
+    private float partial;
+
+    private GameClock() {}
+
+    /** @param step the length of a tick, in seconds */
+    public void setStep(float step) { this.step = step; }
+
+    /** Set the clock back to zero and drop every waiting task. */
+    public void reset() {
+        wheel.clear();
+        partial = 0;
+    }
+
+    /**
+     * Move the clock forward by the time just simulated, running every task that comes due.
+     * @param dt the time simulated, in seconds; always one step with a fixed time step
+     */
+    public void advance(float dt) {
+        partial += dt;
+        // a small tolerance so a tick of exactly one step is never lost to rounding
+        while (partial >= step * 0.999f) {
+            partial -= step;
+            wheel.advance();
+        }
+    }
+
+    /** @return the number of ticks since the level started */
+    public long getTick() { return wheel.getTick(); }
+
+    /** @return the time since the level started, in milliseconds */
+    public long millis() { return (long) (wheel.getTick() * step * 1000); }
+
+    /**
+     * Run a task once some simulated time has passed.
+     * @param seconds how long from now, rounded to the nearest tick and at least one tick
+     * @param task what to run
+     */
+    public void schedule(float seconds, Runnable task) {
+        wheel.schedule(Math.round(seconds / step), task);
+    }
+}
@@ -53,6 +53,12 @@ public class InputController {
 	/** Whether the debug toggle was pressed. */
 	private boolean debugPressed;
 	private boolean debugPrevious;
+	/** Whether the profiler toggle was pressed. */
+	private boolean profilerPressed;
+	private boolean profilerPrevious;
+	/** Whether the button to write the profile out was pressed. */
+	private boolean dumpPressed;
+	private boolean dumpPrevious;
 	/** Whether the exit button was pressed. */
 	private boolean exitPressed;
 	private boolean exitPrevious;
@@ -164,12 +170,22 @@ public class InputController {
 		return theController;
 	}
 
+	/**
+	 * Replaces the singleton instance, e.g. with a subclass that supplies scripted input.
+	 * @param controller the input controller every later call to getInstance() returns
+	 */
+	public static void setInstance(InputController controller) { theController = controller; }
+
 	/** @return true if the map button was pressed. */
 	public boolean didNext() { return nextPressed && !nextPrevious; }
 	/** @return true if the map button was pressed. */
 	public boolean didPrevious() { return prevPressed && !prevPrevious; }
 	/** @return true if the debug button was pressed. */
 	public boolean didDebug() { return debugPressed && !debugPrevious; }
+	/** @return true if the profiler button was pressed. */
+	public boolean didProfiler() { return profilerPressed && !profilerPrevious; }
+	/** @return true if the button to write the profile out was pressed. */
+	public boolean didProfilerDump() { return dumpPressed && !dumpPrevious; }
 	/** @return true if the reset button was pressed. */
 	public boolean didReset() {return resetPressed && !resetPrevious;}
 	/** @return true if the exit button was pressed. */
@@ -212,6 +228,8 @@ public class InputController {
 		prevPrevious = prevPressed;
 		mapPrevious = mapPressed;
 		debugPrevious  = debugPressed;
+		profilerPrevious = profilerPressed;
+		dumpPrevious = dumpPressed;
 		exitPrevious = exitPressed;
 		pausePrevious = pausePressed;
 		specialPrevious = specialPressed;
@@ -221,6 +239,15 @@ public class InputController {
 		readKeys();
 	}
 
+	/**
+	 * @param action an action that a settings file saved before it existed may not map
+	 * @return whether the key of the action is pressed, or false if it has none
+	 */
+	private boolean isPressed(String action) {
+		Integer key = mappings.get(action);
+		return key != null && Gdx.input.isKeyPressed(key);
+	}
+
 	/** Reads input from the keyboard for movement. */
 	private void readKeys() {
 		// Update the mappings
@@ -230,6 +257,8 @@ public class InputController {
 		nextPressed = Gdx.input.isKeyPressed(mappings.get("next"));
 		prevPressed = Gdx.input.isKeyPressed(mappings.get("previous"));
 		debugPressed  = Gdx.input.isKeyPressed(mappings.get("debug"));
+		profilerPressed = isPressed("profiler");
+		dumpPressed = isPressed("profiler dump");
 		resetPressed = Gdx.input.isKeyPressed(mappings.get("reset"));
 		exitPressed  = Gdx.input.isKeyPressed(mappings.get("exit"));
 		pausePressed = Gdx.input.isKeyPressed(mappings.get("pause"));
@@ -4,6 +4,7 @@ import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.utils.ArrayMap;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.raftoftheseus.events.MusicTradeEvent;
 
 public class MusicController {
 
@@ -187,7 +188,10 @@ public class MusicController {
      * @param fadeIn
      */
     public void tradeMusic(boolean fadeIn, String name){
+        MusicTradeEvent event = new MusicTradeEvent();
+        event.begin();
         print(name, music.get(name).isFadeIn());
+        event.changed = fadeIn != music.get(name).isFadeIn();
         if(fadeIn){
             if(!music.get(name).isFadeIn()){
                 music.get(name).FadeIn();
@@ -197,6 +201,9 @@ public class MusicController {
                 music.get(name).FadeOut();
             }
         }
+        event.track = name;
+        event.fadeIn = fadeIn;
+        event.commit();
     }
 
 
@@ -7,6 +7,7 @@ import com.badlogic.gdx.utils.ArrayMap;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.raftoftheseus.events.MusicTradeEvent;
 
 /**
  * Class to control starting, looping, and stopping sounds for the game.
@@ -359,14 +360,23 @@ public class SfxController {
      * @param index2 same as index1 but reversed.
      */
     private boolean tradeMusic(String index1, String index2){
+        MusicTradeEvent event = new MusicTradeEvent();
+        event.begin();
+        event.track = index2;
+        event.fadeIn = true;
         // Gets music and check precondition
         Music m1 = checkMusic(index1);
         Music m2 = checkMusic(index2);
-        if ((!m1.isPlaying() && m2.isPlaying())) return false;
+        if ((!m1.isPlaying() && m2.isPlaying())) {
+            event.commit();
+            return false;
+        }
         if(m1.isPlaying() && !m2.isPlaying()){
             playMusic(index2, 0, m1.getPosition());
+            event.changed = true;
         }
         // Otherwise both are still playing, in state of flux
+        event.commit();
         return true;
     }
 
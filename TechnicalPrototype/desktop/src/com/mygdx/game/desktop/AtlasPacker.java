@@ -0,0 +1,140 @@
+package com.mygdx.game.desktop;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.tools.texturepacker.TexturePacker;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Packs the textures of the game into the atlases described by assets.json, so that a level draws from a
+ * few large pages instead of a texture per object.
+ *
+ * Usage: AtlasPacker [DIRECTORY]
+ * where DIRECTORY is the asset directory json, by default assets.json; run from the assets folder.
+ *
+ * Every entry of the "atlases" section of the directory is one atlas, written to its file with its pages
+ * next to it. Its "textures" are the keys of the textures to pack, each with the rows and columns of
+ * frames of its film strip, or [1, 1] for a single image, and optionally a frame size of its own. The
+ * image of a texture is named by its key.
+ *
+ * Many of the source images are drawn far smaller than they are, and some do not even fit on a page, so
+ * each frame is shrunk until it is no larger than the "frame size" of the atlas, and a whole film strip is
+ * shrunk until it fits on a page. The frames are shrunk one by one, so a film strip keeps its grid; how
+ * large an object is drawn only depends on its Box2D size, so nothing else has to change.
+ */
+public class AtlasPacker {
+	public static void main(String[] arg) throws IOException {
+		FileHandle file = new FileHandle(new File(arg.length > 0 ? arg[0] : "assets.json").getAbsoluteFile());
+		JsonValue directory = new JsonReader().parse(file);
+		for (JsonValue atlas = directory.getChild("atlases"); atlas != null; atlas = atlas.next()) {
+			pack(atlas, directory.get("textures"), file.parent());
+		}
+	}
+
+	/**
+	 * Pack one atlas, replacing it and its pages.
+	 * @param atlas the entry of the atlas
+	 * @param textures the "textures" section of the directory
+	 * @param root the folder the files of the directory are relative to
+	 */
+	private static void pack(JsonValue atlas, JsonValue textures, FileHandle root) throws IOException {
+		FileHandle out = root.child(atlas.getString("file"));
+		int pageSize = atlas.getInt("page size", 4096);
+		int frameSize = atlas.getInt("frame size", 256);
+		int padding = atlas.getInt("padding", 2);
+
+		TexturePacker.Settings settings = new TexturePacker.Settings();
+		settings.maxWidth = pageSize;
+		settings.maxHeight = pageSize;
+		settings.paddingX = padding;
+		settings.paddingY = padding;
+		settings.duplicatePadding = true; // so frames at the edge of an image do not bleed into their neighbours
+		settings.rotation = false;
+		settings.stripWhitespaceX = false; // film strips must keep their grid
+		settings.stripWhitespaceY = false;
+		settings.filterMin = Texture.TextureFilter.Linear;
+		settings.filterMag = Texture.TextureFilter.Linear;
+		settings.useIndexes = false; // the names are texture keys, not numbered frames
+		TexturePacker packer = new TexturePacker(settings);
+
+		for (JsonValue entry = atlas.getChild("textures"); entry != null; entry = entry.next()) {
+			JsonValue texture = textures.get(entry.name());
+			String source = texture == null ? null : texture.isString() ? texture.asString() : texture.getString("file", null);
+			if (source == null || !root.child(source).exists()) {
+				System.out.println("Skipping " + entry.name() + ": no image");
+				continue;
+			}
+			BufferedImage image = ImageIO.read(root.child(source).file());
+			int size = entry.size > 2 ? entry.getInt(2) : frameSize;
+			packer.addImage(shrink(image, entry.getInt(0), entry.getInt(1), size, pageSize - 4 * padding), entry.name());
+		}
+
+		// the packer adds to an existing atlas, so remove the old one and its pages first
+		String name = out.nameWithoutExtension();
+		out.parent().mkdirs();
+		for (FileHandle old : out.parent().list()) {
+			if (old.equals(out) || old.extension().equals("png") && old.name().startsWith(name)) { old.delete(); }
+		}
+		packer.pack(out.parent().file(), name);
+	}
+
+	/**
+	 * Shrink the frames of a film strip, each to fit in frameSize by frameSize and all to fit in
+	 * maxSize by maxSize, keeping their aspect ratio.
+	 * @return the image, or a new smaller one
+	 */
+	private static BufferedImage shrink(BufferedImage image, int rows, int cols, int frameSize, int maxSize) {
+		int fw = image.getWidth() / cols, fh = image.getHeight() / rows;
+		float scale = Math.min(1, Math.min((float) frameSize / Math.max(fw, fh),
+				Math.min((float) maxSize / (fw * cols), (float) maxSize / (fh * rows))));
+		if (scale == 1) { return image; }
+		int w = Math.max(1, (int) (fw * scale)), h = Math.max(1, (int) (fh * scale));
+		BufferedImage result = new BufferedImage(w * cols, h * rows, BufferedImage.TYPE_INT_ARGB);
+		int[] src = image.getRGB(0, 0, fw * cols, fh * rows, null, 0, fw * cols);
+		int[] dst = new int[w * cols * h * rows];
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				shrinkFrame(src, fw * cols, c * fw, r * fh, fw, fh, dst, w * cols, c * w, r * h, w, h);
+			}
+		}
+		result.setRGB(0, 0, w * cols, h * rows, dst, 0, w * cols);
+		return result;
+	}
+
+	/**
+	 * Shrink one frame by averaging the source pixels under each result pixel. Colors are weighted by
+	 * alpha, so the invisible colors of transparent pixels do not darken the edges.
+	 */
+	private static void shrinkFrame(int[] src, int srcStride, int sx, int sy, int sw, int sh,
+									int[] dst, int dstStride, int dx, int dy, int dw, int dh) {
+		for (int y = 0; y < dh; y++) {
+			int y0 = sy + y * sh / dh, y1 = Math.max(y0 + 1, sy + (y + 1) * sh / dh);
+			for (int x = 0; x < dw; x++) {
+				int x0 = sx + x * sw / dw, x1 = Math.max(x0 + 1, sx + (x + 1) * sw / dw);
+				long a = 0, r = 0, g = 0, b = 0;
+				for (int j = y0; j < y1; j++) {
+					for (int i = x0; i < x1; i++) {
+						int p = src[j * srcStride + i];
+						int pa = p >>> 24;
+						a += pa;
+						r += (p >> 16 & 0xff) * pa;
+						g += (p >> 8 & 0xff) * pa;
+						b += (p & 0xff) * pa;
+					}
+				}
+				int n = (x1 - x0) * (y1 - y0);
+				int p = 0;
+				if (a > 0) {
+					p = (int) ((a + n / 2) / n) << 24 | (int) (r / a) << 16 | (int) (g / a) << 8 | (int) (b / a);
+				}
+				dst[(dy + y) * dstStride + dx + x] = p;
+			}
+		}
+	}
+}
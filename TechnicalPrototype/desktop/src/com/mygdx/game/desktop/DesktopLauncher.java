@@ -6,20 +6,32 @@ import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import edu.cornell.gdiac.raftoftheseus.GDXRoot;
 import com.badlogic.gdx.Files;
 
+/**
+ * Starts the game in a window.
+ *
+ * Usage: DesktopLauncher [--record FILE] [--replay FILE]
+ * where --record writes the input of every simulation tick to FILE and --replay plays such a file back.
+ */
 public class DesktopLauncher {
 	public static void main (String[] arg) {
+		String record = null;
+		String replay = null;
+		for (int i = 0; i + 1 < arg.length; i++) {
+			if (arg[i].equals("--record")) { record = arg[++i]; }
+			else if (arg[i].equals("--replay")) { replay = arg[++i]; }
+		}
 		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
 //		config.width = 1280;
 //		config.height = 720;
 //		config.fullscreen = true;
 		config.width = LwjglApplicationConfiguration.getDesktopDisplayMode().width;
 		config.height = LwjglApplicationConfiguration.getDesktopDisplayMode().height;
-		config.foregroundFPS = 60; // cap fps
-		config.vSyncEnabled = false; // prevent physics from bugging out due to lower framerate
+		config.foregroundFPS = 0; // physics runs at a fixed tick rate, so the frame rate can follow the display
+		config.vSyncEnabled = true;
 		config.resizable = false;
 		config.title = "Raft of Theseus";
 		config.addIcon("images/icon.png", Files.FileType.Internal);
 		config.addIcon("images/icon2.png", Files.FileType.Internal);
-		new LwjglApplication(new GDXRoot(), config);
+		new LwjglApplication(new GDXRoot(record, replay), config);
 	}
 }
@@ -0,0 +1,89 @@
+package com.mygdx.game.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import edu.cornell.gdiac.raftoftheseus.lights.ShadowMapLight;
+import edu.cornell.gdiac.raftoftheseus.lights.ShadowMapRenderer;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compiles and links the shadow map shaders on a real GL context, then draws one light past a box with them.
+ * The renderer sets its uniforms pedantically, so a uniform the shaders lose also fails this test.
+ *
+ * Needs a display; without one the test is skipped.
+ */
+public class ShadowShaderTest {
+	private static final String[] FRAGMENT_SHADERS = { "shaders/shadow_map_fragment.glsl", "shaders/shadow_light_fragment.glsl" };
+
+	@Test
+	public void shadersCompileAndDraw() throws InterruptedException {
+		assumeTrue("no display to create a GL context on",
+				!System.getProperty("os.name").startsWith("Linux") || System.getenv("DISPLAY") != null);
+
+		final CountDownLatch done = new CountDownLatch(1);
+		final StringBuilder errors = new StringBuilder();
+		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
+		config.width = 64;
+		config.height = 64;
+		config.title = "shadow shader test";
+		config.forceExit = false;
+		new LwjglApplication(new ApplicationAdapter() {
+			@Override
+			public void create() {
+				try {
+					String vertex = Gdx.files.internal("shaders/shadow_map_vertex.glsl").readString();
+					for (String fragment : FRAGMENT_SHADERS) {
+						ShaderProgram shader = new ShaderProgram(vertex, Gdx.files.internal(fragment).readString());
+						if (!shader.isCompiled()) { errors.append(fragment).append(": ").append(shader.getLog()).append('\n'); }
+						shader.dispose();
+					}
+					if (errors.length() == 0) { draw(); }
+				} catch (Throwable e) {
+					errors.append(e).append('\n');
+				} finally {
+					done.countDown();
+					Gdx.app.exit();
+				}
+			}
+		}, config);
+
+		assertTrue("the GL context was not created in time", done.await(30, TimeUnit.SECONDS));
+		assertEquals("", errors.toString());
+	}
+
+	/** Draws a light with a box in its reach, so every pass of the renderer runs once. */
+	private static void draw() {
+		World world = new World(Vector2.Zero, false);
+		Body box = world.createBody(new BodyDef());
+		PolygonShape shape = new PolygonShape();
+		shape.setAsBox(0.5f, 0.5f, new Vector2(1, 0), 0);
+		box.createFixture(shape, 1);
+		shape.dispose();
+
+		ShadowMapRenderer renderer = new ShadowMapRenderer(world, 64);
+		renderer.resize(64, 64);
+		ShadowMapLight light = new ShadowMapLight(renderer, Color.WHITE, 4, 0, 0);
+		light.setSoft(true);
+		renderer.update();
+		renderer.render(new Matrix4().setToOrtho2D(-4, -4, 8, 8), new Rectangle(-4, -4, 8, 8));
+		renderer.dispose();
+		world.dispose();
+	}
+}
@@ -0,0 +1,47 @@
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Runs levels without a window, GPU or sound card and reports how fast the simulation steps.
+ *
+ * Usage: HeadlessLauncher [--ticks N] [--warmup N] [--seed N] [--record FILE] [level ...]
+ *    or: HeadlessLauncher --replay FILE
+ *    or: HeadlessLauncher --bake [level ...]
+ * where each level is either a level id (as in assets.json) or a path such as levels/Maze.json.
+ * With no levels given, every level is run. At least one tick is run, after any number of warmup ticks. --record writes the input of every tick to FILE; --replay
+ * plays such a file back instead of scripted input, whether it was recorded here or in the game, and
+ * reports where the raft ended up so runs can be compared. --bake runs nothing, but writes the flow and surf
+ * maps of the levels to levels/maps, for the game to load instead of drawing them; when baking every level,
+ * maps of levels that no longer exist are deleted. Must be started from the core/assets directory.
+ */
+public class HeadlessLauncher {
+	public static void main (String[] arg) {
+		int ticks = 3600;
+		int warmup = 600;
+		long seed = 0;
+		String record = null;
+		String replay = null;
+		boolean bake = false;
+		Array<String> levels = new Array<>();
+		for (int i = 0; i < arg.length; i++) {
+			if (arg[i].equals("--ticks")) { ticks = Integer.parseInt(arg[++i]); }
+			else if (arg[i].equals("--warmup")) { warmup = Integer.parseInt(arg[++i]); }
+			else if (arg[i].equals("--seed")) { seed = Long.parseLong(arg[++i]); }
+			else if (arg[i].equals("--record")) { record = arg[++i]; }
+			else if (arg[i].equals("--replay")) { replay = arg[++i]; }
+			else if (arg[i].equals("--bake")) { bake = true; }
+			else { levels.add(arg[i]); }
+		}
+		if (ticks < 1 || warmup < 0) {
+			System.err.println("Usage: HeadlessLauncher [--ticks N] [--warmup N] [--seed N] [--record FILE] [level ...]");
+			System.err.println("--ticks must be at least 1 and --warmup at least 0");
+			System.exit(1);
+		}
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.updatesPerSecond = -1; // the runner steps the world itself in create()
+		new HeadlessApplication(new SimulationRunner(levels, ticks, warmup, seed, record, replay, bake), config);
+	}
+}
@@ -0,0 +1,27 @@
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * A GL20 that ignores every call.
+ *
+ * The headless backend has no GL at all, so textures could not even be created. Installing this lets
+ * the asset directory load as usual: images are decoded but never uploaded, and objects keep the same
+ * sizes and animations they have in the game.
+ */
+public class NoopGL {
+	/** @return a GL20 whose methods do nothing and return zero, false or an empty string */
+	public static GL20 create() {
+		return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+				(proxy, method, args) -> {
+					Class<?> type = method.getReturnType();
+					if (type == boolean.class) return false;
+					if (type == int.class) return 0;
+					if (type == float.class) return 0f;
+					if (type == String.class) return "";
+					return null;
+				});
+	}
+}
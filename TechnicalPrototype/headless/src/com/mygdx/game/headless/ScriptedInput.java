@@ -0,0 +1,99 @@
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.math.Vector2;
+import edu.cornell.gdiac.raftoftheseus.model.LevelModel;
+import edu.cornell.gdiac.raftoftheseus.model.enemy.Shark;
+import edu.cornell.gdiac.raftoftheseus.model.enemy.Siren;
+import edu.cornell.gdiac.raftoftheseus.singleton.InputController;
+
+import java.util.Random;
+
+/**
+ * Input that plays itself, so a level can be simulated without a keyboard or mouse.
+ *
+ * The raft sails in a random direction that changes every second, and every few seconds it charges
+ * and throws a spear at the nearest enemy. All choices come from a seeded random generator, so a run
+ * with the same seed makes the same inputs.
+ */
+class ScriptedInput extends InputController {
+	/** Ticks between changes of sailing direction */
+	private static final int TURN_TICKS = 60;
+	/** Ticks between the starts of two spear charges */
+	private static final int FIRE_TICKS = 180;
+	/** Ticks the fire button is held for each throw */
+	private static final int CHARGE_TICKS = 45;
+
+	/** The level whose raft and enemies the script reacts to */
+	private final LevelModel level;
+	/** Source of every scripted choice */
+	private final Random random;
+	/** Number of times input has been read */
+	private int tick;
+	/** Whether fire is held this tick and the last tick */
+	private boolean fire, firePrevious;
+	/** The sailing direction */
+	private final Vector2 movement = new Vector2();
+	/** Where the spear is aimed, in screen coordinates */
+	private final Vector2 aim = new Vector2();
+	/** Cache for a random aiming spot, in world coordinates */
+	private final Vector2 spot = new Vector2();
+
+	/**
+	 * Creates scripted input for the given level.
+	 * @param level the level being simulated
+	 * @param seed the seed for every scripted choice
+	 */
+	ScriptedInput(LevelModel level, long seed) {
+		this.level = level;
+		this.random = new Random(seed);
+	}
+
+	/** Starts the script over, e.g. when a new level begins. */
+	void restart(long seed) {
+		random.setSeed(seed);
+		tick = 0;
+		fire = false;
+		firePrevious = false;
+	}
+
+	@Override
+	public void readInput() {
+		if (tick % TURN_TICKS == 0) {
+			int dir = random.nextInt(9);
+			if (dir == 8) { movement.setZero(); }
+			else { movement.set(1, 0).rotateDeg(dir * 45f); }
+		}
+		firePrevious = fire;
+		fire = tick % FIRE_TICKS < CHARGE_TICKS;
+		if (fire) {
+			level.getCameraTransform().applyTo(aim.set(target()));
+		}
+		tick++;
+	}
+
+	/** @return the world position of the nearest enemy, or a random spot beside the raft if there are none */
+	private Vector2 target() {
+		Vector2 raft = level.getPlayer().getPosition();
+		Vector2 best = null;
+		float bestDst = Float.MAX_VALUE;
+		for (Shark s : level.getSharks()) {
+			float d = s.getPosition().dst2(raft);
+			if (d < bestDst) { bestDst = d; best = s.getPosition(); }
+		}
+		for (Siren s : level.getSirens()) {
+			float d = s.getPosition().dst2(raft);
+			if (d < bestDst) { bestDst = d; best = s.getPosition(); }
+		}
+		if (best != null) { return best; }
+		return spot.set(raft).add(random.nextFloat() * 10 - 5, random.nextFloat() * 10 - 5);
+	}
+
+	@Override
+	public boolean didCharge() { return fire && !firePrevious; }
+	@Override
+	public boolean didRelease() { return !fire && firePrevious; }
+	@Override
+	public Vector2 getMovement() { return movement; }
+	@Override
+	public Vector2 getMouseLocation() { return aim; }
+}
@@ -0,0 +1,282 @@
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectSet;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.raftoftheseus.GDXRoot;
+import edu.cornell.gdiac.raftoftheseus.WorldController;
+import edu.cornell.gdiac.raftoftheseus.model.DataMapCache;
+import edu.cornell.gdiac.raftoftheseus.model.LevelModel;
+import edu.cornell.gdiac.raftoftheseus.model.Raft;
+import edu.cornell.gdiac.raftoftheseus.replay.InputRecorder;
+import edu.cornell.gdiac.raftoftheseus.replay.InputReplay;
+import edu.cornell.gdiac.raftoftheseus.singleton.InputController;
+import edu.cornell.gdiac.raftoftheseus.singleton.SfxController;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Steps levels as fast as possible with scripted input and prints the cost of each tick.
+ *
+ * Each level is run for a number of warm-up ticks that are not measured, then for the measured ticks.
+ * A tick is what the game does once per WORLD_STEP: preUpdate, update, postUpdate and the animation
+ * update that gameplay depends on. When the raft dies or reaches the goal, the level is started again.
+ *
+ * When replaying, each recorded run is played once instead, on the level it was recorded on, and
+ * timed from its first tick.
+ *
+ * When baking, each level is only loaded, and its flow and surf maps written out.
+ */
+class SimulationRunner extends ApplicationAdapter {
+	/** The levels to run, as level ids or level file paths */
+	private final Array<String> levels;
+	/** Number of measured ticks per level */
+	private final int ticks;
+	/** Number of unmeasured ticks per level before measuring */
+	private final int warmup;
+	/** Seed of the scripted input */
+	private final long seed;
+	/** File to record the input to, or null */
+	private final String record;
+	/** File to replay the input from, or null */
+	private final String replay;
+	/** Whether to bake the maps of the levels instead of running them */
+	private final boolean bake;
+
+	/** Reference to the game assets directory */
+	private AssetDirectory directory;
+	/** The world being simulated */
+	private WorldController controller;
+	/** The input played into the world */
+	private ScriptedInput input;
+
+	/**
+	 * Creates a runner for the given levels.
+	 * @param levels level ids or level file paths; all levels if empty
+	 * @param ticks number of measured ticks per level
+	 * @param warmup number of unmeasured ticks per level
+	 * @param seed seed of the scripted input
+	 * @param record file to record the input to, or null
+	 * @param replay file to replay the input from instead of running levels, or null
+	 * @param bake whether to bake the maps of the levels instead of running them
+	 */
+	SimulationRunner(Array<String> levels, int ticks, int warmup, long seed, String record, String replay, boolean bake) {
+		this.levels = levels;
+		this.ticks = ticks;
+		this.warmup = warmup;
+		this.seed = seed;
+		this.record = record;
+		this.replay = replay;
+		this.bake = bake;
+	}
+
+	@Override
+	public void create() {
+		Gdx.gl = Gdx.gl20 = NoopGL.create();
+		long start = System.nanoTime();
+		directory = new AssetDirectory("assets.json");
+		directory.loadAssets();
+		directory.finishLoading();
+		setConstants(directory);
+		controller = new WorldController();
+		controller.gatherAssets(directory);
+		input = new ScriptedInput(controller.getLevelModel(), seed);
+		InputController.setInstance(input);
+		System.out.printf("Loaded assets in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+		if (replay != null) {
+			replay(new InputReplay(logFile(replay)));
+			controller.dispose();
+			Gdx.app.exit();
+			return;
+		}
+		if (record != null) { controller.setRecorder(new InputRecorder(logFile(record))); }
+		boolean all = levels.isEmpty();
+		if (all) {
+			for (int i = 0; i < GDXRoot.NUM_LEVELS; i++) { levels.add(Integer.toString(i)); }
+		}
+		if (bake) {
+			bake(all);
+			controller.dispose();
+			Gdx.app.exit();
+			return;
+		}
+		System.out.printf("%-28s %9s %9s %9s %9s %9s %7s %9s %9s %8s%n", "level", "load ms", "ticks/s",
+				"avg us", "p99 us", "max us", "bodies", "contacts", "max cont", "restarts");
+		for (String level : levels) {
+			run(level);
+		}
+		controller.dispose();
+		Gdx.app.exit();
+	}
+
+	/**
+	 * Sets all constants the way GDXRoot does once loading is done.
+	 * @param directory the loaded game assets
+	 */
+	static void setConstants(AssetDirectory directory) {
+		JsonValue screenParams = directory.getEntry("screen_settings", JsonValue.class);
+		GDXRoot.NUM_LEVELS = screenParams.getInt("level count", 20);
+		JsonValue keyParams = directory.getEntry("input_settings", JsonValue.class);
+		WorldController.setConstants(directory.getEntry("object_settings", JsonValue.class));
+		WorldController.setKeyParams(keyParams);
+		InputController.setConstants(keyParams);
+		SfxController.getInstance().gatherAssets(directory);
+	}
+
+	/**
+	 * Runs one level and prints one line of results.
+	 * @param level a level id or a level file path
+	 */
+	private void run(String level) {
+		int id = levelId(level);
+		JsonValue data = levelData(level);
+
+		long start = System.nanoTime();
+		startLevel(id, data);
+		double loadMs = (System.nanoTime() - start) / 1e6;
+
+		LevelModel model = controller.getLevelModel();
+		long[] times = new long[ticks];
+		long bodies = 0, contacts = 0;
+		int maxContacts = 0;
+		int restarts = 0;
+		for (int i = -warmup; i < ticks; i++) {
+			long t = System.nanoTime();
+			boolean over = !tick();
+			t = System.nanoTime() - t;
+			if (over) {
+				startLevel(id, data);
+				if (i >= 0) { restarts++; }
+			}
+			if (i >= 0) {
+				times[i] = t;
+				bodies += model.world.getBodyCount();
+				int c = model.world.getContactCount();
+				contacts += c;
+				maxContacts = Math.max(maxContacts, c);
+			}
+		}
+
+		long total = 0;
+		for (long t : times) { total += t; }
+		Arrays.sort(times);
+		int n = Math.max(ticks, 1);
+		System.out.printf("%-28s %9.1f %9.0f %9.1f %9.1f %9.1f %7d %9d %9d %8d%n", level, loadMs,
+				ticks / (total / 1e9), total / 1e3 / n, times[Math.min(ticks - 1, (int) (ticks * 0.99))] / 1e3,
+				times[ticks - 1] / 1e3, bodies / n, contacts / n, maxContacts, restarts);
+	}
+
+	/**
+	 * Writes the maps of every level to the baked maps directory and prints one line per level.
+	 * @param all whether every level is baked, so the maps of any other level are stale and deleted
+	 */
+	private void bake(boolean all) {
+		FileHandle dir = Gdx.files.local(DataMapCache.BAKED_DIR);
+		ObjectSet<String> baked = new ObjectSet<>();
+		System.out.printf("%-28s %-22s %9s %9s%n", "level", "file", "kB", "bake ms");
+		for (String level : levels) {
+			controller.startLevel(levelId(level), levelData(level));
+			long start = System.nanoTime();
+			FileHandle file = controller.getLevelModel().bakeDataMaps(dir);
+			System.out.printf("%-28s %-22s %9.1f %9.1f%n", level, file.name(), file.length() / 1024.0,
+					(System.nanoTime() - start) / 1e6);
+			baked.add(file.name());
+		}
+		if (!all) { return; }
+		for (FileHandle file : dir.list("." + DataMapCache.EXTENSION)) {
+			if (!baked.contains(file.name())) {
+				System.out.println("Deleting stale " + file.name());
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Plays every recorded run once and prints one line of results per run.
+	 * @param log the recorded input
+	 */
+	private void replay(InputReplay log) {
+		controller.setReplay(log);
+		System.out.printf("%-6s %6s %9s %9s %9s %9s %18s %7s%n", "run", "level", "ticks", "ticks/s",
+				"avg us", "max us", "raft", "health");
+		Array<InputReplay.Run> runs = log.getRuns();
+		for (int r = 0; r < runs.size; r++) {
+			int id = runs.get(r).levelId;
+			controller.startLevel(id, directory.getEntry("level:" + id, JsonValue.class));
+			long total = 0, max = 0;
+			int n = 0;
+			while (log.hasNext()) {
+				long t = System.nanoTime();
+				boolean over = !tick();
+				t = System.nanoTime() - t;
+				total += t;
+				max = Math.max(max, t);
+				n++;
+				if (over) { break; }
+			}
+			Raft raft = controller.getLevelModel().getPlayer();
+			System.out.printf("%-6d %6d %9d %9.0f %9.1f %9.1f %8.3f,%9.3f %7.2f%n", r, id, n,
+					n / (total / 1e9), total / 1e3 / Math.max(n, 1), max / 1e3,
+					raft.getPosition().x, raft.getPosition().y, raft.getHealth());
+		}
+	}
+
+	/** Starts the level over, along with the input script. */
+	private void startLevel(int id, JsonValue data) {
+		controller.startLevel(id, data);
+		input.restart(seed);
+	}
+
+	/**
+	 * Runs one simulation tick.
+	 * @return false if the level is over and needs to be started again
+	 */
+	private boolean tick() {
+		float dt = WorldController.WORLD_STEP;
+		if (!controller.preUpdate(dt)) { return false; }
+		controller.update(dt);
+		controller.postUpdate(dt);
+		controller.animate(dt);
+		return !controller.isFailure() && !controller.isComplete();
+	}
+
+	/**
+	 * @param path an absolute path, or a path relative to the working directory
+	 * @return the input log at that path
+	 */
+	private static FileHandle logFile(String path) {
+		return Gdx.files.absolute(new File(path).getAbsolutePath());
+	}
+
+	/**
+	 * @param level a level id or a level file path
+	 * @return the Tiled json of the level
+	 */
+	private JsonValue levelData(String level) {
+		return !level.endsWith(".json")
+				? directory.getEntry("level:" + levelId(level), JsonValue.class)
+				: new JsonReader().parse(Gdx.files.internal(level));
+	}
+
+	/**
+	 * @param level a level id or a level file path
+	 * @return the level id, or 0 if the file is not one of the levels in assets.json
+	 */
+	private int levelId(String level) {
+		if (!level.endsWith(".json")) { return Integer.parseInt(level); }
+		JsonValue jsons = new JsonReader().parse(Gdx.files.internal("assets.json")).get("jsons");
+		for (JsonValue entry : jsons) {
+			if (entry.name().startsWith("level:") && entry.asString().equals(level)) {
+				return Integer.parseInt(entry.name().substring("level:".length()));
+			}
+		}
+		return 0;
+	}
+}
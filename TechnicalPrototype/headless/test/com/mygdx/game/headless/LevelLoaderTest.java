@@ -0,0 +1,43 @@
+package com.mygdx.game.headless;
+
+import edu.cornell.gdiac.raftoftheseus.WorldController;
+import edu.cornell.gdiac.raftoftheseus.model.LevelModel;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that a level read in the background does not leave its loader thread running once it is disposed.
+ */
+public class LevelLoaderTest {
+	private static final int LEVEL = 5;
+
+	@Test
+	public void disposeStopsLoaderMidLoad() throws InterruptedException {
+		WorldController controller = TestWorld.newController();
+		LevelModel level = controller.getLevelModel();
+
+		level.reset();
+		level.beginLoad(LEVEL, TestWorld.level(LEVEL), true);
+		level.dispose();
+		assertFalse("the loader thread outlived the level", loaderRunning());
+
+		// a new loader is made for the next level
+		level.reset();
+		level.beginLoad(LEVEL, TestWorld.level(LEVEL), true);
+		while (!level.continueLoad(Long.MAX_VALUE)) { Thread.yield(); }
+		assertFalse(level.getObjects().isEmpty());
+		level.dispose();
+		assertFalse("the loader thread outlived the level", loaderRunning());
+	}
+
+	/** @return whether a thread made by the level loader is still alive, after giving it a moment to exit */
+	private static boolean loaderRunning() throws InterruptedException {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (!thread.getName().equals("level loader")) { continue; }
+			thread.join(1000); // the pool is shut down a little before its thread returns
+			if (thread.isAlive()) { return true; }
+		}
+		return false;
+	}
+}
@@ -0,0 +1,102 @@
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import edu.cornell.gdiac.raftoftheseus.WorldController;
+import edu.cornell.gdiac.raftoftheseus.model.GameObject;
+import edu.cornell.gdiac.raftoftheseus.model.LevelModel;
+import edu.cornell.gdiac.raftoftheseus.model.Raft;
+import edu.cornell.gdiac.raftoftheseus.model.enemy.Shark;
+import edu.cornell.gdiac.raftoftheseus.replay.InputRecorder;
+import edu.cornell.gdiac.raftoftheseus.replay.InputReplay;
+import edu.cornell.gdiac.raftoftheseus.singleton.InputController;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a recording plays out the same however fast the game draws.
+ *
+ * Gameplay waits on some animations (the spear is ready to fire at the end of the charge animation),
+ * so those must advance by simulation tick, and only cosmetic ones by frame.
+ */
+public class ReplayFrameRateTest {
+	/** A level with sharks near the start, so spears are thrown and bites land */
+	private static final int LEVEL = 5;
+	/** Seed of the scripted input that is recorded */
+	private static final long SEED = 7;
+	/** Number of ticks recorded */
+	private static final int TICKS = 1200;
+
+	@Test
+	public void replayEndsTheSameAtAnyFrameRate() throws IOException {
+		FileHandle log = record();
+		// a frame of two whole ticks, and frames shorter than a tick, both stop the replay right on its last tick
+		String slow = replay(log, 2 * WorldController.WORLD_STEP);
+		String fast = replay(log, 1f / 144);
+		assertEquals(slow, fast);
+	}
+
+	/** @return a recording of TICKS ticks of scripted input on LEVEL */
+	private FileHandle record() throws IOException {
+		WorldController controller = TestWorld.newController();
+		File file = File.createTempFile("replay", ".log");
+		file.deleteOnExit();
+		FileHandle log = Gdx.files.absolute(file.getAbsolutePath());
+		ScriptedInput input = new ScriptedInput(controller.getLevelModel(), SEED);
+		InputController.setInstance(input);
+		controller.setRecorder(new InputRecorder(log));
+		controller.startLevel(LEVEL, TestWorld.level(LEVEL));
+		input.restart(SEED);
+		LevelModel level = controller.getLevelModel();
+		boolean thrown = false;
+		int ticks = 0;
+		while (ticks < TICKS && TestWorld.tick(controller)) {
+			thrown |= level.getSpears().size() > 0 && !level.getPlayer().hasSpear();
+			ticks++;
+		}
+		controller.dispose(); // closes the recording
+		assertEquals("the raft should last the whole recording", TICKS, ticks);
+		assertTrue("the recording should throw a spear", thrown);
+		return log;
+	}
+
+	/**
+	 * Plays a recording back through the game loop at a fixed frame rate.
+	 * @param frame the seconds between two frames
+	 * @return where everything in the level ended up
+	 */
+	private String replay(FileHandle log, float frame) {
+		WorldController controller = TestWorld.newController();
+		controller.setReplay(new InputReplay(log));
+		controller.startLevel(LEVEL, TestWorld.level(LEVEL));
+		controller.show();
+		for (int i = 0; controller.getReplay().hasNext() && i < TICKS * 3; i++) {
+			controller.render(frame);
+		}
+		assertTrue("the replay should be played to its end", !controller.getReplay().hasNext());
+		String state = describe(controller.getLevelModel());
+		controller.dispose();
+		return state;
+	}
+
+	/** @return the raft status and the exact transform of every object in the level */
+	private static String describe(LevelModel level) {
+		StringBuilder out = new StringBuilder();
+		Raft raft = level.getPlayer();
+		out.append("raft health ").append(raft.getHealth()).append(" can fire ").append(raft.canFire())
+				.append(" has spear ").append(raft.hasSpear()).append('\n');
+		for (Shark s : level.getSharks()) {
+			out.append("shark ").append(s.getStateMachine().getCurrentState()).append('\n');
+		}
+		for (GameObject o : level.getObjects()) {
+			out.append(o.getType()).append(' ').append(o.getX()).append(' ').append(o.getY())
+					.append(' ').append(o.getAngle()).append('\n');
+		}
+		return out.toString();
+	}
+}
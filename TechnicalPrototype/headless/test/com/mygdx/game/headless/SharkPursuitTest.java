@@ -0,0 +1,74 @@
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.raftoftheseus.WorldController;
+import edu.cornell.gdiac.raftoftheseus.model.LevelModel;
+import edu.cornell.gdiac.raftoftheseus.model.enemy.Shark;
+import edu.cornell.gdiac.raftoftheseus.model.enemy.SharkState;
+import edu.cornell.gdiac.raftoftheseus.singleton.InputController;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a shark keeps after the raft when the raft goes behind terrain, swimming around it.
+ */
+public class SharkPursuitTest {
+	/** Tile ids of the level editor tile set, as in Tiled */
+	private static final int START = 1, SHARK = 3, GOAL = 10, FULL_LAND = 35;
+	/** Size of the test level, in tiles */
+	private static final int COLUMNS = 10, ROWS = 9;
+
+	@Test
+	public void sharkSwimsAroundRockToHiddenRaft() {
+		WorldController controller = TestWorld.newController();
+		InputController.setInstance(new InputController() {
+			@Override
+			public void readInput() {} // the raft stays where it is
+		});
+		// the raft is hidden from the shark by a single tile of land, but the shark can swim around it
+		int[] environment = new int[COLUMNS * ROWS];
+		int[] collectables = new int[COLUMNS * ROWS];
+		environment[index(3, 4)] = START;
+		environment[index(4, 4)] = FULL_LAND;
+		environment[index(9, 8)] = GOAL;
+		collectables[index(6, 4)] = SHARK;
+		controller.startLevel(0, level(environment, collectables));
+
+		LevelModel level = controller.getLevelModel();
+		assertEquals(1, level.getSharks().size());
+		Shark shark = level.getSharks().get(0);
+		shark.getStateMachine().changeState(SharkState.APPROACH); // as if it had just seen the raft
+
+		boolean seen = false;
+		for (int i = 0; i < 240 && !seen && TestWorld.tick(controller); i++) {
+			seen = shark.canSee();
+			if (i == 0) { assertFalse("the rock should hide the raft", seen); }
+			if (!seen) {
+				assertEquals("the shark should keep after the hidden raft", SharkState.APPROACH, shark.getStateMachine().getCurrentState());
+			}
+		}
+		assertTrue("the shark should swim around the rock until it sees the raft", seen);
+		controller.dispose();
+	}
+
+	/** @return the index of a tile in a Tiled layer, whose rows go from the top down */
+	private static int index(int column, int row) {
+		return (ROWS - 1 - row) * COLUMNS + column;
+	}
+
+	/** @return the Tiled json of a level with the given environment and collectable layers */
+	private static JsonValue level(int[] environment, int[] collectables) {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"width\":").append(COLUMNS).append(",\"height\":").append(ROWS).append(",\"layers\":[");
+		json.append("{\"name\":\"Environment\",\"data\":").append(Arrays.toString(environment)).append("},");
+		json.append("{\"name\":\"Collectable\",\"data\":").append(Arrays.toString(collectables)).append("},");
+		json.append("{\"name\":\"Siren\",\"objects\":[]}]}");
+		return new JsonReader().parse(json.toString());
+	}
+}
@@ -0,0 +1,35 @@
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import edu.cornell.gdiac.raftoftheseus.model.projectile.Spear;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that a held spear is drawn turning the short way when the aim crosses the +x axis.
+ */
+public class SpearAimTest {
+	@Test
+	public void aimAcrossAxisDoesNotSpin() {
+		TestWorld.assets(); // the spear constants
+		Box2D.init();
+		Vector2 raft = new Vector2(0, 0);
+		Spear spear = new Spear(raft.cpy());
+		float floatTime = 1; // fully swung round from where it starts
+		spear.setFloatPosition(raft.cpy(), floatTime, 1, new Vector2(10, 4));
+		// aim above the spear, then sweep down through the +x axis of the spear, a tick at a time
+		float previous = Float.NaN;
+		for (float y = 4; y >= -2; y -= 0.5f) {
+			spear.snapshotTransform();
+			spear.setFloatPosition(raft.cpy(), floatTime, 1, new Vector2(10, y));
+			spear.interpolateTransform(0.5f);
+			float drawn = spear.getRenderAngle();
+			if (!Float.isNaN(previous)) {
+				assertEquals("the spear turned too far between ticks at y = " + y, previous, drawn, 10);
+			}
+			previous = drawn;
+		}
+	}
+}
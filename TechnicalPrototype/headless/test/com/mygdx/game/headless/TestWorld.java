@@ -0,0 +1,65 @@
+package com.mygdx.game.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.raftoftheseus.WorldController;
+
+/**
+ * Loads the game assets once for all tests, the way SimulationRunner does, and makes worlds from them.
+ *
+ * Tests run on the test thread, not the headless application thread: the application is only made
+ * so that files, natives and the rest of Gdx are set up. Must be run from the core/assets directory.
+ */
+final class TestWorld {
+	/** The game assets, or null until first needed */
+	private static AssetDirectory directory;
+
+	private TestWorld() {}
+
+	/** @return the loaded game assets, with every constant set the way GDXRoot does */
+	static synchronized AssetDirectory assets() {
+		if (directory == null) {
+			HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+			config.updatesPerSecond = -1; // tests step the world themselves
+			new HeadlessApplication(new ApplicationAdapter() {}, config);
+			Gdx.gl = Gdx.gl20 = NoopGL.create();
+			directory = new AssetDirectory("assets.json");
+			directory.loadAssets();
+			directory.finishLoading();
+			SimulationRunner.setConstants(directory);
+		}
+		return directory;
+	}
+
+	/** @return a new world with no canvas, UI or lights */
+	static WorldController newController() {
+		WorldController controller = new WorldController();
+		controller.gatherAssets(assets());
+		return controller;
+	}
+
+	/**
+	 * @param id a level id, as in assets.json
+	 * @return the Tiled json of the level
+	 */
+	static JsonValue level(int id) {
+		return assets().getEntry("level:" + id, JsonValue.class);
+	}
+
+	/**
+	 * Runs one simulation tick, the way the game and SimulationRunner do.
+	 * @return false if the level is over
+	 */
+	static boolean tick(WorldController controller) {
+		float dt = WorldController.WORLD_STEP;
+		if (!controller.preUpdate(dt)) { return false; }
+		controller.update(dt);
+		controller.postUpdate(dt);
+		controller.animate(dt);
+		return !controller.isFailure() && !controller.isComplete();
+	}
+}